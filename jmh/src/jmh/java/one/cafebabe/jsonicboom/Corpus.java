@@ -0,0 +1,425 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.util.Random;
+
+/**
+ * Synthetic corpora shaped like the well-known twitter.json, canada.json and citm_catalog.json documents.<br>
+ * Documents are generated from a fixed seed, so the same corpus and size always produce the same text and no file needs to be downloaded.
+ */
+public enum Corpus {
+    /**
+     * status objects with long, unicode heavy strings and small nested entity objects
+     */
+    TWITTER("statuses") {
+        @Override
+        void appendRecord(StringBuilder sb, Random random, int index, long targetBytes) {
+            long id = 505874924095815681L + index;
+            sb.append("{\"created_at\":\"Sun Aug 31 00:29:").append(10 + random.nextInt(50)).append(" +0000 2014\"")
+                    .append(",\"id\":").append(id)
+                    .append(",\"id_str\":\"").append(id).append('"')
+                    .append(",\"text\":");
+            words(sb, random, TWEET_WORDS, 8 + random.nextInt(12));
+            sb.append(",\"source\":\"<a href=\\\"https:\\/\\/twitter.com\\/download\\/iphone\\\" rel=\\\"nofollow\\\">Twitter for iPhone<\\/a>\"")
+                    .append(",\"truncated\":false,\"in_reply_to_status_id\":null")
+                    .append(",\"user\":{\"id\":").append(1186275104 + random.nextInt(1_000_000))
+                    .append(",\"name\":");
+            words(sb, random, TWEET_WORDS, 2);
+            sb.append(",\"screen_name\":\"user").append(random.nextInt(100_000)).append('"')
+                    .append(",\"location\":");
+            words(sb, random, TWEET_WORDS, 1);
+            sb.append(",\"description\":");
+            words(sb, random, TWEET_WORDS, 6 + random.nextInt(6));
+            sb.append(",\"protected\":false")
+                    .append(",\"followers_count\":").append(random.nextInt(100_000))
+                    .append(",\"friends_count\":").append(random.nextInt(10_000))
+                    .append(",\"verified\":").append(random.nextInt(10) == 0)
+                    .append(",\"lang\":\"ja\"}")
+                    .append(",\"geo\":null,\"coordinates\":null")
+                    .append(",\"entities\":{\"hashtags\":[");
+            int hashtags = random.nextInt(3);
+            for (int i = 0; i < hashtags; i++) {
+                sb.append(i == 0 ? "" : ",").append("{\"text\":");
+                words(sb, random, TWEET_WORDS, 1);
+                int start = random.nextInt(100);
+                sb.append(",\"indices\":[").append(start).append(',').append(start + 5).append("]}");
+            }
+            sb.append("],\"urls\":[],\"user_mentions\":[");
+            int mentions = random.nextInt(3);
+            for (int i = 0; i < mentions; i++) {
+                int start = random.nextInt(100);
+                sb.append(i == 0 ? "" : ",")
+                        .append("{\"screen_name\":\"user").append(random.nextInt(100_000))
+                        .append("\",\"id\":").append(1186275104 + random.nextInt(1_000_000))
+                        .append(",\"indices\":[").append(start).append(',').append(start + 10).append("]}");
+            }
+            sb.append("]}")
+                    .append(",\"retweet_count\":").append(random.nextInt(1000))
+                    .append(",\"favorite_count\":").append(random.nextInt(1000))
+                    .append(",\"favorited\":false,\"retweeted\":false,\"lang\":\"ja\"}");
+        }
+
+        @Override
+        void appendTrailer(StringBuilder sb, int records) {
+            sb.append(",\"search_metadata\":{\"completed_in\":0.087,\"max_id\":505874924095815681")
+                    .append(",\"query\":\"%E4%B8%80\",\"count\":").append(records).append('}');
+        }
+
+        @Override
+        long traverseRecord(JSONObject status) {
+            long checksum = status.getLong("id");
+            checksum += length(status.getString("id_str"));
+            checksum += length(status.getString("created_at"));
+            checksum += length(status.getString("text"));
+            checksum += length(status.getString("source"));
+            checksum += status.getBoolean("truncated") ? 1 : 0;
+            JSONObject user = status.getJSONObject("user");
+            //noinspection DataFlowIssue
+            checksum += user.getLong("id");
+            checksum += length(user.getString("name"));
+            checksum += length(user.getString("screen_name"));
+            checksum += length(user.getString("location"));
+            checksum += length(user.getString("description"));
+            checksum += user.getInt("followers_count");
+            checksum += user.getInt("friends_count");
+            checksum += user.getBoolean("verified") ? 1 : 0;
+            JSONObject entities = status.getJSONObject("entities");
+            //noinspection DataFlowIssue
+            for (JSONObject hashtag : entities.getJSONArray("hashtags").getJSONObjectList()) {
+                checksum += length(hashtag.getString("text"));
+                //noinspection DataFlowIssue
+                checksum += hashtag.getJSONArray("indices").getIntArray()[0];
+            }
+            //noinspection DataFlowIssue
+            for (JSONObject mention : entities.getJSONArray("user_mentions").getJSONObjectList()) {
+                checksum += length(mention.getString("screen_name"));
+                checksum += mention.getLong("id");
+            }
+            checksum += status.getInt("retweet_count");
+            checksum += status.getInt("favorite_count");
+            return checksum + length(status.getString("lang"));
+        }
+
+        @Override
+        long traverse(JSONObject document) {
+            JSONObject metadata = document.getJSONObject("search_metadata");
+            //noinspection DataFlowIssue
+            long checksum = (long) metadata.getDouble("completed_in") + metadata.getInt("count");
+            return checksum + super.traverse(document);
+        }
+    },
+    /**
+     * GeoJSON feature collection whose polygons are long arrays of [longitude, latitude] pairs
+     */
+    CANADA("features") {
+        @Override
+        void appendHeader(StringBuilder sb, long targetBytes) {
+            sb.append("\"type\":\"FeatureCollection\",");
+        }
+
+        @Override
+        void appendRecord(StringBuilder sb, Random random, int index, long targetBytes) {
+            sb.append("{\"type\":\"Feature\",\"properties\":{\"name\":\"Canada\"},\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[");
+            int rings = 1 + random.nextInt(4);
+            for (int ring = 0; ring < rings; ring++) {
+                sb.append(ring == 0 ? "[" : ",[");
+                double longitude = -141 + random.nextDouble() * 88;
+                double latitude = 42 + random.nextDouble() * 41;
+                int points = 16 + random.nextInt(240);
+                for (int point = 0; point < points; point++) {
+                    longitude += (random.nextDouble() - 0.5) * 0.01;
+                    latitude += (random.nextDouble() - 0.5) * 0.01;
+                    sb.append(point == 0 ? "[" : ",[").append(longitude).append(',').append(latitude).append(']');
+                }
+                sb.append(']');
+            }
+            sb.append("]}}");
+        }
+
+        @Override
+        long traverseRecord(JSONObject feature) {
+            long checksum = length(feature.getString("type"));
+            //noinspection DataFlowIssue
+            checksum += length(feature.getJSONObject("properties").getString("name"));
+            JSONObject geometry = feature.getJSONObject("geometry");
+            //noinspection DataFlowIssue
+            checksum += length(geometry.getString("type"));
+            //noinspection DataFlowIssue
+            for (JSONArray ring : geometry.getJSONArray("coordinates").getJSONArrayList()) {
+                for (JSONArray point : ring.getJSONArrayList()) {
+                    double[] lonLat = point.getDoubleArray();
+                    checksum += (long) (lonLat[0] * 1e4) + (long) (lonLat[1] * 1e4);
+                }
+            }
+            return checksum;
+        }
+
+        @Override
+        long traverse(JSONObject document) {
+            return length(document.getString("type")) + super.traverse(document);
+        }
+    },
+    /**
+     * ticketing catalog with integer ids used both as values and as object keys
+     */
+    CITM("performances") {
+        @Override
+        void appendHeader(StringBuilder sb, long targetBytes) {
+            sb.append("\"areaNames\":{");
+            for (int area = 0; area < keys(targetBytes); area++) {
+                sb.append(area == 0 ? "" : ",").append('"').append(205705993 + area).append("\":\"")
+                        .append(area % 2 == 0 ? "Arrière-scène central " : "1er balcon ").append(area).append('"');
+            }
+            sb.append("},\"events\":{");
+            Random random = new Random(targetBytes);
+            for (int event = 0; event < keys(targetBytes); event++) {
+                int id = 138586341 + event;
+                sb.append(event == 0 ? "" : ",").append('"').append(id).append("\":{\"description\":null,\"id\":").append(id)
+                        .append(",\"logo\":null,\"name\":\"Event ").append(event).append("\",\"subTopicIds\":[");
+                for (int i = 0; i < 4; i++) {
+                    sb.append(i == 0 ? "" : ",").append(337184269 + random.nextInt(100));
+                }
+                sb.append("],\"subjectCode\":null,\"subtitle\":null,\"topicIds\":[")
+                        .append(324846099 + random.nextInt(10)).append(',').append(107888604 + random.nextInt(10)).append("]}");
+            }
+            sb.append("},");
+        }
+
+        @Override
+        void appendRecord(StringBuilder sb, Random random, int index, long targetBytes) {
+            sb.append("{\"eventId\":").append(138586341 + random.nextInt(keys(targetBytes)))
+                    .append(",\"id\":").append(339887544 + index)
+                    .append(",\"logo\":null,\"name\":null,\"prices\":[");
+            int prices = 1 + random.nextInt(6);
+            for (int i = 0; i < prices; i++) {
+                sb.append(i == 0 ? "" : ",")
+                        .append("{\"amount\":").append(10_000 + random.nextInt(100_000))
+                        .append(",\"audienceSubCategoryId\":").append(337100890 + random.nextInt(10))
+                        .append(",\"seatCategoryId\":").append(338937295 + i).append('}');
+            }
+            sb.append("],\"seatCategories\":[");
+            for (int i = 0; i < prices; i++) {
+                sb.append(i == 0 ? "" : ",").append("{\"areas\":[");
+                int areas = 1 + random.nextInt(4);
+                for (int area = 0; area < areas; area++) {
+                    sb.append(area == 0 ? "" : ",")
+                            .append("{\"areaId\":").append(205705993 + random.nextInt(keys(targetBytes))).append(",\"blockIds\":[]}");
+                }
+                sb.append("],\"seatCategoryId\":").append(338937295 + i).append('}');
+            }
+            sb.append("],\"seatMapImage\":null,\"start\":").append(1372615200000L + index * 3_600_000L)
+                    .append(",\"venueCode\":\"PLEYEL_PLEYEL\"}");
+        }
+
+        /**
+         * number of entries in "areaNames" and "events", scaled so that the header never dominates small documents
+         */
+        private int keys(long targetBytes) {
+            return (int) Math.max(2, Math.min(256, targetBytes / 4096));
+        }
+
+        @Override
+        long traverseRecord(JSONObject performance) {
+            long checksum = performance.getInt("eventId");
+            checksum += performance.getInt("id");
+            checksum += performance.getLong("start");
+            checksum += length(performance.getString("venueCode"));
+            //noinspection DataFlowIssue
+            for (JSONObject price : performance.getJSONArray("prices").getJSONObjectList()) {
+                checksum += price.getInt("amount") + price.getInt("audienceSubCategoryId") + price.getInt("seatCategoryId");
+            }
+            //noinspection DataFlowIssue
+            for (JSONObject seatCategory : performance.getJSONArray("seatCategories").getJSONObjectList()) {
+                checksum += seatCategory.getInt("seatCategoryId");
+                //noinspection DataFlowIssue
+                for (JSONObject area : seatCategory.getJSONArray("areas").getJSONObjectList()) {
+                    checksum += area.getInt("areaId");
+                }
+            }
+            return checksum;
+        }
+
+        @Override
+        long traverse(JSONObject document) {
+            // follow the integer ids into the keyed header objects
+            JSONObject areaNames = document.getJSONObject("areaNames");
+            JSONObject events = document.getJSONObject("events");
+            long checksum = 0;
+            for (JSONObject performance : records(document)) {
+                checksum += traverseRecord(performance);
+                //noinspection DataFlowIssue
+                JSONObject event = events.getJSONObject(String.valueOf(performance.getInt("eventId")));
+                //noinspection DataFlowIssue
+                checksum += event.getInt("id");
+                checksum += length(event.getString("name"));
+                //noinspection DataFlowIssue
+                for (int topicId : event.getJSONArray("topicIds").getIntArray()) {
+                    checksum += topicId;
+                }
+                //noinspection DataFlowIssue
+                for (int subTopicId : event.getJSONArray("subTopicIds").getIntArray()) {
+                    checksum += subTopicId;
+                }
+                //noinspection DataFlowIssue
+                for (JSONObject seatCategory : performance.getJSONArray("seatCategories").getJSONObjectList()) {
+                    //noinspection DataFlowIssue
+                    for (JSONObject area : seatCategory.getJSONArray("areas").getJSONObjectList()) {
+                        //noinspection DataFlowIssue
+                        checksum += length(areaNames.getString(String.valueOf(area.getInt("areaId"))));
+                    }
+                }
+            }
+            return checksum;
+        }
+    };
+
+    private static final String[] TWEET_WORDS = {"RT", "@aym0566x", "名前:前田あゆみ", "第一印象:なんか怖っ！", "今の印象:とりあえずキモい。噛み合わない",
+            "好きなところ:ぶすでキモいとこ😋✨✨", "思い出:んーーー、ありすぎ😊❤️", "LINE交換できる？:あぁ……ごめん✋", "トプ画をみて:照れますがな😘✨",
+            "一言:お前は一生もんのダチ💖", "\\u3042\\u3044\\u3046", "\\\"quoted\\\"", "line\\nbreak", "https:\\/\\/t.co\\/abc", "#jsonicboom", "hello", "world"};
+
+    /**
+     * name of the repeated array that makes up most of the document
+     */
+    private final String recordsKey;
+
+    Corpus(String recordsKey) {
+        this.recordsKey = recordsKey;
+    }
+
+    /**
+     * @param targetBytes approximate document size in UTF-8 bytes
+     * @return JSON object containing at least one record
+     */
+    String generateObject(long targetBytes) {
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, targetBytes + 1024));
+        sb.append('{');
+        appendHeader(sb, targetBytes);
+        sb.append('"').append(recordsKey).append("\":");
+        int records = appendRecords(sb, targetBytes);
+        appendTrailer(sb, records);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * @param targetBytes approximate document size in UTF-8 bytes
+     * @return JSON array of records containing at least one record
+     */
+    String generateArray(long targetBytes) {
+        StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, targetBytes + 1024));
+        appendRecords(sb, targetBytes);
+        return sb.toString();
+    }
+
+    private int appendRecords(StringBuilder sb, long targetBytes) {
+        Random random = new Random(ordinal());
+        sb.append('[');
+        int records = 0;
+        // multi byte characters make UTF-8 longer than the char count; good enough for sizing
+        do {
+            if (records != 0) {
+                sb.append(',');
+            }
+            appendRecord(sb, random, records++, targetBytes);
+        } while (sb.length() < targetBytes);
+        sb.append(']');
+        return records;
+    }
+
+    void appendHeader(StringBuilder sb, long targetBytes) {
+    }
+
+    abstract void appendRecord(StringBuilder sb, Random random, int index, long targetBytes);
+
+    void appendTrailer(StringBuilder sb, int records) {
+    }
+
+    /**
+     * reads every field of a single record through the typed getters
+     *
+     * @param record element of the records array
+     * @return checksum of the values read
+     */
+    abstract long traverseRecord(JSONObject record);
+
+    /**
+     * reads every field of the document through the typed getters
+     *
+     * @param document document generated by {@link #generateObject(long)}
+     * @return checksum of the values read
+     */
+    long traverse(JSONObject document) {
+        long checksum = 0;
+        for (JSONObject record : records(document)) {
+            checksum += traverseRecord(record);
+        }
+        return checksum;
+    }
+
+    /**
+     * reads every field of every record through the typed getters
+     *
+     * @param records array generated by {@link #generateArray(long)}
+     * @return checksum of the values read
+     */
+    long traverse(JSONArray records) {
+        long checksum = 0;
+        for (int i = 0; i < records.length(); i++) {
+            //noinspection DataFlowIssue
+            checksum += traverseRecord(records.getJSONObject(i));
+        }
+        return checksum;
+    }
+
+    JSONObject[] records(JSONObject document) {
+        //noinspection DataFlowIssue
+        return document.getJSONArray(recordsKey).getJSONObjectArray();
+    }
+
+    private static void words(StringBuilder sb, Random random, String[] words, int count) {
+        sb.append('"');
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                sb.append(' ');
+            }
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        sb.append('"');
+    }
+
+    static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * @param size size such as "1KB", "16MB" or "1GB"
+     * @return size in bytes
+     */
+    static long parseSize(String size) {
+        String upper = size.trim().toUpperCase();
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1024;
+        } else if (upper.endsWith("MB")) {
+            unit = 1024 * 1024;
+        } else if (upper.endsWith("GB")) {
+            unit = 1024 * 1024 * 1024;
+        }
+        String digits = unit == 1 ? upper.replace("B", "") : upper.substring(0, upper.length() - 2);
+        return Long.parseLong(digits.trim()) * unit;
+    }
+}
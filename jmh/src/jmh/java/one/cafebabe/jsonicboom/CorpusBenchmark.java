@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput on the generated {@link Corpus} documents.<br>
+ * The "bytes" counter is the number of UTF-8 bytes parsed per second; {@link CorpusBenchmarkRunner} turns it into MB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+@State(Scope.Benchmark)
+public class CorpusBenchmark {
+    @Param({"TWITTER", "CANADA", "CITM"})
+    public Corpus corpus;
+
+    @Param({"1KB", "1MB", "100MB", "500MB"})
+    public String size;
+
+    private String object;
+    private long objectBytes;
+    private String array;
+    private long arrayBytes;
+
+    @Setup
+    public void setup() {
+        long targetBytes = Corpus.parseSize(size);
+        object = corpus.generateObject(targetBytes);
+        objectBytes = object.getBytes(StandardCharsets.UTF_8).length;
+        array = corpus.generateArray(targetBytes);
+        arrayBytes = array.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public JSONObject parseObject(Bytes counter) {
+        counter.bytes += objectBytes;
+        return JSON.parseObject(object);
+    }
+
+    @Benchmark
+    public JSONArray parseArray(Bytes counter) {
+        counter.bytes += arrayBytes;
+        return JSON.parseArray(array);
+    }
+
+    @Benchmark
+    public JSONArray parseArrayParallel(Bytes counter) {
+        counter.bytes += arrayBytes;
+        return JSON.parseArrayParallel(array);
+    }
+
+    @Benchmark
+    public long parseObjectAndTraverse(Bytes counter) {
+        counter.bytes += objectBytes;
+        return corpus.traverse(JSON.parseObject(object));
+    }
+
+    @Benchmark
+    public long parseArrayAndTraverse(Bytes counter) {
+        counter.bytes += arrayBytes;
+        return corpus.traverse(JSON.parseArray(array));
+    }
+
+    @Benchmark
+    public void parseObjectAndWrite(Bytes counter) throws IOException {
+        counter.bytes += objectBytes;
+        // re-emits an unchanged document, as a proxy does
+        JSON.write(JSON.parseObject(object), OutputStream.nullOutputStream());
+    }
+}
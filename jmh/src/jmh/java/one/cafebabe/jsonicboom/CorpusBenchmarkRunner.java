@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs {@link CorpusBenchmark} and writes a summary with MB/s and allocated bytes per operation.<br>
+ * Usage: CorpusBenchmarkRunner &lt;output directory&gt; [corpora] [sizes], where corpora and sizes are comma separated, e.g. "TWITTER,CITM" "1KB,1MB".
+ * The output directory receives results.json (one entry per corpus, size and benchmark) and jmh.json (the raw JMH result).
+ */
+public final class CorpusBenchmarkRunner {
+    private CorpusBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path outputDirectory = Paths.get(args.length > 0 ? args[0] : "build/results/corpus");
+        Files.createDirectories(outputDirectory);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(CorpusBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(outputDirectory.resolve("jmh.json").toString());
+        if (args.length > 1 && !args[1].isEmpty()) {
+            options.param("corpus", args[1].split(","));
+        }
+        if (args.length > 2 && !args[2].isEmpty()) {
+            options.param("size", args[2].split(","));
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"jvm\":\"").append(System.getProperty("java.vm.name")).append(' ').append(System.getProperty("java.version"))
+                .append("\",\"results\":[");
+        boolean first = true;
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            Map<String, Result> secondary = result.getSecondaryResults();
+            double operationsPerSecond = result.getPrimaryResult().getScore();
+            Result bytes = secondary.get("bytes");
+            double megabytesPerSecond = bytes == null ? Double.NaN : bytes.getScore() / 1_000_000;
+            double allocatedBytesPerOperation = Double.NaN;
+            for (Map.Entry<String, Result> entry : secondary.entrySet()) {
+                // the GC profiler labels it "gc.alloc.rate.norm" (prefixed with '·' in older JMH versions)
+                if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+                    allocatedBytesPerOperation = entry.getValue().getScore();
+                }
+            }
+            json.append(first ? "" : ",").append("\n{\"corpus\":\"").append(result.getParams().getParam("corpus"))
+                    .append("\",\"size\":\"").append(result.getParams().getParam("size"))
+                    .append("\",\"benchmark\":\"").append(benchmark.substring(benchmark.lastIndexOf('.') + 1))
+                    .append("\",\"opsPerSecond\":").append(number(operationsPerSecond))
+                    .append(",\"megabytesPerSecond\":").append(number(megabytesPerSecond))
+                    .append(",\"allocatedBytesPerOperation\":").append(number(allocatedBytesPerOperation))
+                    .append('}');
+            first = false;
+        }
+        json.append("\n]}\n");
+        Path summary = outputDirectory.resolve("results.json");
+        Files.write(summary, json.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Corpus benchmark results written to " + summary.toAbsolutePath());
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "null" : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.util.Random;
+
+/**
+ * Deterministic JSON documents for the micro benchmarks.
+ */
+public final class Documents {
+    private Documents() {
+    }
+
+    public enum Shape {
+        /**
+         * mostly string values, including escape sequences and non-ASCII characters
+         */
+        STRINGS,
+        /**
+         * mostly integer and floating point values
+         */
+        NUMBERS,
+        /**
+         * strings, numbers, booleans and nulls
+         */
+        MIXED
+    }
+
+    private static final String[] WORDS = {"jsonic", "boom", "tokenizer", "array", "object", "value",
+            "東京都", "中央区", "caf\\u00e9", "quote\\\"d", "tab\\tbed", "👍", "lorem", "ipsum", "dolor", "amet"};
+
+    /**
+     * @param shape value shape
+     * @param size  number of records in the object
+     * @param depth nesting depth of each record
+     * @return JSON object in the form of {"r0":{...},"r1":{...},...}
+     */
+    static String object(Shape shape, int size, int depth) {
+        Random random = new Random(size * 31L + depth);
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("\"r").append(i).append("\":");
+            record(sb, random, shape, depth);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * @param shape value shape
+     * @param size  number of records in the array
+     * @param depth nesting depth of each record
+     * @return JSON array in the form of [{...},{...},...]
+     */
+    static String array(Shape shape, int size, int depth) {
+        Random random = new Random(size * 31L + depth);
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            record(sb, random, shape, depth);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static void record(StringBuilder sb, Random random, Shape shape, int depth) {
+        sb.append("{\"id\":").append(random.nextInt(1_000_000));
+        switch (shape) {
+            case STRINGS:
+                sb.append(",\"name\":");
+                words(sb, random, 2);
+                sb.append(",\"description\":");
+                words(sb, random, 12);
+                sb.append(",\"tags\":[");
+                for (int i = 0; i < 4; i++) {
+                    if (i != 0) {
+                        sb.append(',');
+                    }
+                    words(sb, random, 1);
+                }
+                sb.append(']');
+                break;
+            case NUMBERS:
+                sb.append(",\"timestamp\":").append(1_600_000_000_000L + random.nextInt(Integer.MAX_VALUE));
+                sb.append(",\"lat\":").append(random.nextDouble() * 180 - 90);
+                sb.append(",\"lon\":").append(random.nextDouble() * 360 - 180);
+                sb.append(",\"counts\":[");
+                for (int i = 0; i < 8; i++) {
+                    if (i != 0) {
+                        sb.append(',');
+                    }
+                    sb.append(random.nextInt(10_000) - 5_000);
+                }
+                sb.append("],\"values\":[");
+                for (int i = 0; i < 8; i++) {
+                    if (i != 0) {
+                        sb.append(',');
+                    }
+                    sb.append(random.nextGaussian() * 1e3);
+                }
+                sb.append(']');
+                break;
+            case MIXED:
+                sb.append(",\"name\":");
+                words(sb, random, 2);
+                sb.append(",\"score\":").append(random.nextDouble());
+                sb.append(",\"count\":").append(random.nextInt());
+                sb.append(",\"active\":").append(random.nextBoolean());
+                sb.append(",\"note\":null");
+                break;
+        }
+        if (depth > 1) {
+            sb.append(",\"child\":");
+            record(sb, random, shape, depth - 1);
+        }
+        sb.append('}');
+    }
+
+    private static void words(StringBuilder sb, Random random, int count) {
+        sb.append('"');
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the typed getters of {@link JSONObject} and the bulk getters of {@link JSONArray}.
+ * A fresh document is parsed for every invocation so that values cached by a previous call are not reused.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetterBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"int\":").append(random.nextInt())
+                .append(",\"long\":").append(random.nextLong())
+                .append(",\"double\":").append(random.nextDouble() * 1e6)
+                .append(",\"string\":\"jsonicboom \\u2603 getters\"")
+                .append(",\"boolean\":").append(random.nextBoolean());
+        sb.append(",\"ints\":[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append(random.nextInt());
+        }
+        sb.append("],\"longs\":[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append(random.nextLong());
+        }
+        sb.append("],\"doubles\":[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append(random.nextGaussian() * 1e3);
+        }
+        sb.append("],\"strings\":[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"value").append(random.nextInt(1000)).append('"');
+        }
+        sb.append("]}");
+        json = sb.toString();
+    }
+
+    @Benchmark
+    public void scalars(Blackhole blackhole) {
+        JSONObject jsonObject = JSON.parseObject(json);
+        blackhole.consume(jsonObject.getInt("int"));
+        blackhole.consume(jsonObject.getLong("long"));
+        blackhole.consume(jsonObject.getDouble("double"));
+        blackhole.consume(jsonObject.getString("string"));
+        blackhole.consume(jsonObject.getBoolean("boolean"));
+        blackhole.consume(jsonObject.get("int"));
+        blackhole.consume(jsonObject.get("long"));
+        blackhole.consume(jsonObject.get("double"));
+    }
+
+    @Benchmark
+    public int[] getIntArray() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("ints").getIntArray();
+    }
+
+    @Benchmark
+    public long[] getLongArray() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("longs").getLongArray();
+    }
+
+    @Benchmark
+    public double[] getDoubleArray() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("doubles").getDoubleArray();
+    }
+
+    @Benchmark
+    public List<Double> getDoubleList() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("doubles").getDoubleList();
+    }
+
+    @Benchmark
+    public List<Integer> getIntList() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("ints").getIntList();
+    }
+
+    @Benchmark
+    public List<String> getStringList() {
+        //noinspection DataFlowIssue
+        return JSON.parseObject(json).getJSONArray("strings").getStringList();
+    }
+
+    @Benchmark
+    public JSONObject parseOnly() {
+        // baseline to subtract from the getter benchmarks above
+        return JSON.parseObject(json);
+    }
+}
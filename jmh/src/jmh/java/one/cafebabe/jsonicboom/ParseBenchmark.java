@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JSON#parseObject(String)} / {@link JSON#parseArray(String)} and the raw {@link JSONTokenizer} loop.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    @Param({"1", "8"})
+    public int depth;
+
+    @Param({"STRINGS", "NUMBERS", "MIXED"})
+    public Documents.Shape shape;
+
+    private String object;
+    private String array;
+    private byte[] objectUTF8;
+    private byte[] arrayUTF8;
+    private final ParseOptions symbolTable = ParseOptions.DEFAULT.withSymbolTable(new SymbolTable(4096, 16));
+
+    @Setup
+    public void setup() {
+        object = Documents.object(shape, size, depth);
+        array = Documents.array(shape, size, depth);
+        objectUTF8 = object.getBytes(StandardCharsets.UTF_8);
+        arrayUTF8 = array.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JSONObject parseObject() {
+        return JSON.parseObject(object);
+    }
+
+    @Benchmark
+    public JSONArray parseArray() {
+        return JSON.parseArray(array);
+    }
+
+    @Benchmark
+    public JSONObject parseObjectUTF8() {
+        return JSON.parseObject(objectUTF8);
+    }
+
+    @Benchmark
+    public JSONArray parseArrayUTF8() {
+        return JSON.parseArray(arrayUTF8);
+    }
+
+    @Benchmark
+    public JSONObject parseObjectTape() {
+        return JSON.parseObject(object, ParseOptions.TAPE);
+    }
+
+    @Benchmark
+    public JSONArray parseArrayTape() {
+        return JSON.parseArray(array, ParseOptions.TAPE);
+    }
+
+    @Benchmark
+    public JSONObject parseObjectLazy() {
+        return JSON.parseObject(object, ParseOptions.LAZY);
+    }
+
+    @Benchmark
+    public JSONArray parseArrayLazy() {
+        return JSON.parseArray(array, ParseOptions.LAZY);
+    }
+
+    @Benchmark
+    public JSONArray parseArraySymbolTable() {
+        return JSON.parseArray(array, symbolTable);
+    }
+
+    @Benchmark
+    public int readFewFields() {
+        return readFewFields(JSON.parseObject(object));
+    }
+
+    @Benchmark
+    public int readFewFieldsLazy() {
+        return readFewFields(JSON.parseObject(object, ParseOptions.LAZY));
+    }
+
+    private int readFewFields(JSONObject jsonObject) {
+        // the pattern lazy parsing targets: a handful of fields out of a large payload
+        //noinspection DataFlowIssue
+        return jsonObject.getJSONObject("r0").getInt("id") + jsonObject.getJSONObject("r" + (size - 1)).getInt("id");
+    }
+
+    @Benchmark
+    public JSONObject decodeAndParseObject() {
+        // what callers holding UTF-8 bytes had to do before parseObject(byte[])
+        return JSON.parseObject(new String(objectUTF8, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        JSONTokenizer tokenizer = new JSONTokenizer(object);
+        JSONTokenizer.JsonIndices next;
+        while ((next = tokenizer.next()) != null) {
+            blackhole.consume(next);
+        }
+    }
+}
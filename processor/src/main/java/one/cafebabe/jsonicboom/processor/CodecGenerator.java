@@ -0,0 +1,707 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the source of the codec of one class or record.<br>
+ * The decoder reads the tokens through GeneratedCodec.Input and dispatches a key with a switch on its length, then on the character that
+ * tells the names of that length apart, comparing the document in place. Escaped keys and names with non-ASCII characters are compared unescaped.
+ * The encoder writes the keys and the punctuation as literals. Lists, sets, maps with String keys and arrays get helper methods, and other
+ * annotated classes are read and written by their own codecs. Any other type is left to GeneratedCodec.Input.read(Class) and JSON.toJSONString.
+ */
+final class CodecGenerator {
+    private static final String INPUT = "one.cafebabe.jsonicboom.GeneratedCodec.Input";
+    private static final String OUTPUT = "one.cafebabe.jsonicboom.GeneratedCodec.Output";
+    private static final List<String> LISTS = Arrays.asList("java.lang.Iterable", "java.util.Collection", "java.util.List", "java.util.ArrayList");
+    private static final List<String> SETS = Arrays.asList("java.util.Set", "java.util.HashSet", "java.util.LinkedHashSet");
+    private static final List<String> MAPS = Arrays.asList("java.util.Map", "java.util.HashMap", "java.util.LinkedHashMap");
+
+    private final Types types;
+    private final Elements elements;
+    private final TypeElement type;
+    private final String packageName;
+    private final boolean record;
+    private final List<Property> properties;
+    private final StringBuilder helpers = new StringBuilder();
+    private final Map<String, String> helperNames = new HashMap<>();
+
+    private static final class Property {
+        final String name;
+        final TypeMirror type;
+        /**
+         * statement assigning the value given as %s, null if the property is not decoded
+         */
+        String assignment;
+        /**
+         * expression reading the property, null if the property is not encoded
+         */
+        String access;
+
+        Property(String name, TypeMirror type, String assignment, String access) {
+            this.name = name;
+            this.type = type;
+            this.assignment = assignment;
+            this.access = access;
+        }
+    }
+
+    CodecGenerator(ProcessingEnvironment env, TypeElement type) {
+        this.types = env.getTypeUtils();
+        this.elements = env.getElementUtils();
+        this.type = type;
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        // ElementKind.RECORD is Java 16 or later
+        this.record = type.getKind().name().equals("RECORD");
+        if (type.getKind() != ElementKind.CLASS && !record) {
+            throw new IllegalArgumentException("only classes and records can be annotated");
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new IllegalArgumentException("abstract classes can't be instantiated");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new IllegalArgumentException("generic classes are not supported");
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new IllegalArgumentException(element.getSimpleName() + " must not be private");
+            }
+            if (element.getEnclosingElement() instanceof TypeElement && element.getKind() == ElementKind.CLASS
+                    && !element.getModifiers().contains(Modifier.STATIC)) {
+                throw new IllegalArgumentException(element.getSimpleName() + " must be static");
+            }
+        }
+        this.properties = record ? components() : fields();
+    }
+
+    /**
+     * @return qualified name of the codec
+     */
+    String codecName() {
+        return codecName(type);
+    }
+
+    private String codecName(TypeElement element) {
+        String qualified = element.getQualifiedName().toString();
+        String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+        String simple = packageName.isEmpty() ? qualified : qualified.substring(packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + simple.replace('.', '_') + "JsonCodec";
+    }
+
+    private List<Property> components() {
+        List<Property> components = new ArrayList<>();
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind().name().equals("RECORD_COMPONENT")) {
+                String name = element.getSimpleName().toString();
+                components.add(new Property(name, element.asType(), "c" + components.size() + " = %s;", "value." + identifier(name) + "()"));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Fields from the superclasses down. An inaccessible field is assigned with its setter and read with its getter, if it has them.
+     */
+    private List<Property> fields() {
+        boolean constructor = false;
+        for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            constructor |= candidate.getParameters().isEmpty() && accessible(candidate);
+        }
+        if (!constructor) {
+            throw new IllegalArgumentException("a non-private constructor without arguments is required");
+        }
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement c = type; c != null && !c.getQualifiedName().contentEquals("java.lang.Object");
+             c = (TypeElement) types.asElement(c.getSuperclass())) {
+            hierarchy.add(0, c);
+        }
+        DeclaredType declared = (DeclaredType) type.asType();
+        Map<String, Property> fields = new LinkedHashMap<>();
+        for (TypeElement c : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(c.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                boolean accessible = accessible(field);
+                fields.put(name, new Property(name, types.asMemberOf(declared, field),
+                        accessible && !field.getModifiers().contains(Modifier.FINAL) ? "value." + identifier(name) + " = %s;" : null,
+                        accessible ? "value." + identifier(name) : null));
+            }
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.STATIC) || !accessible(method)) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            TypeMirror methodType = types.asMemberOf(declared, method);
+            List<? extends TypeMirror> parameters = ((javax.lang.model.type.ExecutableType) methodType).getParameterTypes();
+            TypeMirror returnType = ((javax.lang.model.type.ExecutableType) methodType).getReturnType();
+            if (name.length() > 3 && name.startsWith("set") && parameters.size() == 1) {
+                Property property = fields.get(decapitalize(name.substring(3)));
+                if (property != null && property.assignment == null && types.isSameType(property.type, parameters.get(0))) {
+                    property.assignment = "value." + identifier(name) + "(%s);";
+                }
+            } else if (parameters.isEmpty() && (name.length() > 3 && name.startsWith("get") || name.length() > 2 && name.startsWith("is"))) {
+                Property property = fields.get(decapitalize(name.substring(name.startsWith("is") ? 2 : 3)));
+                if (property != null && property.access == null && types.isSameType(property.type, returnType)) {
+                    property.access = "value." + identifier(name) + "()";
+                }
+            }
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private boolean accessible(Element member) {
+        if (member.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (member.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        PackageElement memberPackage = elements.getPackageOf(member);
+        return memberPackage.getQualifiedName().contentEquals(packageName);
+    }
+
+    String generate() {
+        String typeName = type.getQualifiedName().toString();
+        String codecName = codecName();
+        String simpleCodecName = codecName.substring(codecName.lastIndexOf('.') + 1);
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * Codec of {@link ").append(typeName).append("}, generated by one.cafebabe.jsonicboom.processor.JsonCodecProcessor.\n */\n");
+        sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        sb.append("public final class ").append(simpleCodecName).append(" extends one.cafebabe.jsonicboom.GeneratedCodec<").append(typeName).append("> {\n");
+        sb.append("    public static final ").append(simpleCodecName).append(" INSTANCE = new ").append(simpleCodecName).append("();\n\n");
+        sb.append("    private ").append(simpleCodecName).append("() {\n    }\n\n");
+        decoder(sb, typeName);
+        encoder(sb, typeName);
+        sb.append(helpers);
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void decoder(StringBuilder sb, String typeName) {
+        List<Property> decoded = new ArrayList<>();
+        for (Property property : properties) {
+            if (property.assignment != null) {
+                decoded.add(property);
+            }
+        }
+        sb.append("    @Override\n    public ").append(typeName).append(" decode(").append(INPUT).append(" in) {\n");
+        sb.append("        if (in.isNull()) {\n            return null;\n        }\n");
+        sb.append("        in.beginObject();\n");
+        if (record) {
+            for (int i = 0; i < properties.size(); i++) {
+                TypeMirror componentType = properties.get(i).type;
+                sb.append("        ").append(typeName(componentType)).append(" c").append(i).append(" = ").append(defaultValue(componentType)).append(";\n");
+            }
+        } else {
+            sb.append("        ").append(typeName).append(" value = new ").append(typeName).append("();\n");
+        }
+        sb.append("        while (in.nextKey()) {\n            switch (key(in)) {\n");
+        for (int i = 0; i < decoded.size(); i++) {
+            Property property = decoded.get(i);
+            String assignment = String.format(property.assignment, read(property.type));
+            sb.append("                case ").append(i).append(":\n");
+            if (property.type.getKind().isPrimitive()) {
+                // null leaves a primitive as it is
+                sb.append("                    if (!in.isNull()) {\n                        ").append(assignment).append("\n                    }\n");
+            } else {
+                sb.append("                    ").append(assignment).append("\n");
+            }
+            sb.append("                    break;\n");
+        }
+        sb.append("                default:\n                    in.skipValue();\n                    break;\n            }\n        }\n");
+        if (record) {
+            sb.append("        return new ").append(typeName).append("(");
+            for (int i = 0; i < properties.size(); i++) {
+                sb.append(i == 0 ? "c" : ", c").append(i);
+            }
+            sb.append(");\n");
+        } else {
+            sb.append("        return value;\n");
+        }
+        sb.append("    }\n\n");
+        keyDispatch(sb, decoded);
+    }
+
+    /**
+     * Writes key(in), returning the index of the decoded property named by the current key, or -1.
+     */
+    private void keyDispatch(StringBuilder sb, List<Property> decoded) {
+        Map<Integer, List<Integer>> byLength = new TreeMap<>();
+        for (int i = 0; i < decoded.size(); i++) {
+            String name = decoded.get(i).name;
+            if (isAscii(name)) {
+                byLength.computeIfAbsent(name.length(), length -> new ArrayList<>()).add(i);
+            }
+        }
+        sb.append("    private static int key(").append(INPUT).append(" in) {\n");
+        if (!byLength.isEmpty()) {
+            sb.append("        switch (in.keyLength()) {\n");
+            for (Map.Entry<Integer, List<Integer>> entry : byLength.entrySet()) {
+                sb.append("            case ").append(entry.getKey()).append(":\n");
+                List<Integer> candidates = entry.getValue();
+                if (candidates.size() == 1) {
+                    compare(sb, "                ", decoded, candidates.get(0), -1);
+                } else {
+                    int position = distinguishingPosition(decoded, candidates, entry.getKey());
+                    Map<Character, List<Integer>> byCharacter = new TreeMap<>();
+                    for (int candidate : candidates) {
+                        byCharacter.computeIfAbsent(decoded.get(candidate).name.charAt(position), c -> new ArrayList<>()).add(candidate);
+                    }
+                    sb.append("                switch (in.keyCharAt(").append(position).append(")) {\n");
+                    for (Map.Entry<Character, List<Integer>> character : byCharacter.entrySet()) {
+                        sb.append("                    case ").append(charLiteral(character.getKey())).append(":\n");
+                        boolean matched = false;
+                        for (int candidate : character.getValue()) {
+                            matched = compare(sb, "                        ", decoded, candidate, position);
+                        }
+                        if (!matched) {
+                            sb.append("                        break;\n");
+                        }
+                    }
+                    sb.append("                }\n");
+                }
+                sb.append("                break;\n");
+            }
+            sb.append("        }\n");
+        }
+        sb.append("        if (in.keyIsPlain()) {\n            return -1;\n        }\n");
+        sb.append("        // escaped keys, and names with non-ASCII characters\n");
+        for (int i = 0; i < decoded.size(); i++) {
+            sb.append("        if (in.keyEquals(").append(stringLiteral(decoded.get(i).name)).append(")) {\n            return ").append(i).append(";\n        }\n");
+        }
+        sb.append("        return -1;\n    }\n\n");
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return position where the names have the most distinct characters
+     */
+    private static int distinguishingPosition(List<Property> decoded, List<Integer> candidates, int length) {
+        int best = 0;
+        int bestCount = 0;
+        for (int position = 0; position < length; position++) {
+            StringBuilder seen = new StringBuilder();
+            for (int candidate : candidates) {
+                char c = decoded.get(candidate).name.charAt(position);
+                if (seen.indexOf(String.valueOf(c)) == -1) {
+                    seen.append(c);
+                }
+            }
+            if (seen.length() > bestCount) {
+                best = position;
+                bestCount = seen.length();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param known position already compared by the enclosing switch, or -1
+     * @return true if the name is matched without a condition
+     */
+    private static boolean compare(StringBuilder sb, String indent, List<Property> decoded, int candidate, int known) {
+        String name = decoded.get(candidate).name;
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            if (i != known) {
+                condition.append(condition.length() == 0 ? "" : " && ").append("in.keyCharAt(").append(i).append(") == ").append(charLiteral(name.charAt(i)));
+            }
+        }
+        if (condition.length() == 0) {
+            sb.append(indent).append("return ").append(candidate).append(";\n");
+            return true;
+        }
+        sb.append(indent).append("if (").append(condition).append(") {\n")
+                .append(indent).append("    return ").append(candidate).append(";\n")
+                .append(indent).append("}\n");
+        return false;
+    }
+
+    private void encoder(StringBuilder sb, String typeName) {
+        sb.append("    @Override\n    public void encode(").append(typeName).append(" value, ").append(OUTPUT).append(" out) throws java.io.IOException {\n");
+        sb.append("        if (value == null) {\n            out.raw(\"null\");\n            return;\n        }\n");
+        StringBuilder raw = new StringBuilder("{");
+        for (Property property : properties) {
+            if (property.access == null) {
+                continue;
+            }
+            raw.append(raw.length() == 1 ? "" : ",").append('"').append(property.name).append("\":");
+            sb.append("        out.raw(").append(stringLiteral(raw.toString())).append(");\n");
+            raw.setLength(0);
+            sb.append("        ").append(write(property.type, property.access)).append("\n");
+        }
+        raw.append('}');
+        sb.append("        out.raw(").append(stringLiteral(raw.toString())).append(");\n");
+        sb.append("    }\n\n");
+    }
+
+    /**
+     * @return expression reading the current value of the input as the type
+     */
+    private String read(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "in.booleanValue()";
+            case INT:
+                return "in.intValue()";
+            case LONG:
+                return "in.longValue()";
+            case DOUBLE:
+                return "in.doubleValue()";
+            case FLOAT:
+                return "(float) in.doubleValue()";
+            case SHORT:
+                return "in.read(java.lang.Short.class)";
+            case BYTE:
+                return "in.read(java.lang.Byte.class)";
+            case CHAR:
+                return "in.read(java.lang.Character.class)";
+            case ARRAY:
+                return helper("read", type) + "(in)";
+            case TYPEVAR:
+            case WILDCARD:
+                return read(bound(type));
+            default:
+                break;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            throw new IllegalArgumentException("unsupported type " + type);
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        switch (name) {
+            case "java.lang.String":
+                return "in.stringValue()";
+            case "java.lang.Integer":
+                return "(in.isNull() ? null : java.lang.Integer.valueOf(in.intValue()))";
+            case "java.lang.Long":
+                return "(in.isNull() ? null : java.lang.Long.valueOf(in.longValue()))";
+            case "java.lang.Double":
+                return "(in.isNull() ? null : java.lang.Double.valueOf(in.doubleValue()))";
+            case "java.lang.Float":
+                return "(in.isNull() ? null : java.lang.Float.valueOf((float) in.doubleValue()))";
+            case "java.lang.Boolean":
+                return "(in.isNull() ? null : java.lang.Boolean.valueOf(in.booleanValue()))";
+            case "java.math.BigDecimal":
+                return "in.bigDecimalValue()";
+            case "java.math.BigInteger":
+                return "in.bigIntegerValue()";
+            case "java.lang.Object":
+                return "in.value()";
+            default:
+                break;
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            return "(in.isNull() ? null : " + name + ".valueOf(in.stringValue()))";
+        } else if (hasCodec(element)) {
+            return codecName(element) + ".INSTANCE.decode(in)";
+        } else if (LISTS.contains(name) || SETS.contains(name) || isStringMap(type)) {
+            return helper("read", type) + "(in)";
+        }
+        String erasure = typeName(types.erasure(type));
+        return (erasure.equals(typeName(type)) ? "" : "(" + typeName(type) + ") ") + "in.read(" + erasure + ".class)";
+    }
+
+    /**
+     * @return statement writing the expression of the type to the output
+     */
+    private String write(TypeMirror type, String expression) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case INT:
+            case LONG:
+            case DOUBLE:
+                return "out.value(" + expression + ");";
+            case SHORT:
+            case BYTE:
+                return "out.value((int) " + expression + ");";
+            case CHAR:
+                return "out.value(java.lang.String.valueOf(" + expression + "));";
+            case ARRAY:
+                return helper("write", type) + "(" + expression + ", out);";
+            case TYPEVAR:
+            case WILDCARD:
+                return write(bound(type), expression);
+            case DECLARED:
+                break;
+            default:
+                // float is written as Float.toString does
+                return "out.value((java.lang.Object) " + expression + ");";
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.equals("java.lang.String") || element.getKind() == ElementKind.ENUM) {
+            return "out.value(" + expression + ");";
+        } else if (hasCodec(element)) {
+            return codecName(element) + ".INSTANCE.encode(" + expression + ", out);";
+        } else if (LISTS.contains(name) || SETS.contains(name) || isStringMap(type)) {
+            return helper("write", type) + "(" + expression + ", out);";
+        }
+        return "out.value((java.lang.Object) " + expression + ");";
+    }
+
+    /**
+     * @param kind "read" or "write"
+     * @return name of the helper method reading or writing the container type, written on the first use
+     */
+    private String helper(String kind, TypeMirror type) {
+        String typeName = typeName(type);
+        String key = kind + " " + typeName;
+        String name = helperNames.get(key);
+        if (name != null) {
+            return name;
+        }
+        name = kind + helperNames.size();
+        helperNames.put(key, name);
+        StringBuilder sb = new StringBuilder();
+        if (kind.equals("read")) {
+            sb.append("    private static ").append(typeName).append(' ').append(name).append("(").append(INPUT).append(" in) {\n");
+            sb.append("        if (in.isNull()) {\n            return null;\n        }\n");
+            if (type.getKind() == TypeKind.ARRAY) {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                sb.append("        in.beginArray();\n");
+                sb.append("        ").append(typeName).append(" values = ").append(newArray(component, "8")).append(";\n");
+                sb.append("        int size = 0;\n");
+                sb.append("        while (in.nextElement()) {\n");
+                sb.append("            if (size == values.length) {\n                values = java.util.Arrays.copyOf(values, size * 2);\n            }\n");
+                sb.append("            values[size++] = ").append(read(component)).append(";\n");
+                sb.append("        }\n");
+                sb.append("        return java.util.Arrays.copyOf(values, size);\n");
+            } else if (isStringMap(type)) {
+                TypeMirror valueType = typeArgument(type, 1);
+                sb.append("        in.beginObject();\n");
+                sb.append("        java.util.LinkedHashMap<java.lang.String, ").append(typeName(valueType)).append("> values = new java.util.LinkedHashMap<>();\n");
+                sb.append("        while (in.nextKey()) {\n");
+                sb.append("            values.put(in.key(), ").append(read(valueType)).append(");\n");
+                sb.append("        }\n");
+                sb.append("        return values;\n");
+            } else {
+                TypeMirror element = typeArgument(type, 0);
+                String collection = SETS.contains(((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString())
+                        ? "java.util.LinkedHashSet" : "java.util.ArrayList";
+                sb.append("        in.beginArray();\n");
+                sb.append("        ").append(collection).append('<').append(typeName(element)).append("> values = new ").append(collection).append("<>();\n");
+                sb.append("        while (in.nextElement()) {\n");
+                sb.append("            values.add(").append(read(element)).append(");\n");
+                sb.append("        }\n");
+                sb.append("        return values;\n");
+            }
+        } else {
+            sb.append("    private static void ").append(name).append("(").append(typeName).append(" values, ").append(OUTPUT).append(" out) throws java.io.IOException {\n");
+            sb.append("        if (values == null) {\n            out.raw(\"null\");\n            return;\n        }\n");
+            if (type.getKind() == TypeKind.ARRAY) {
+                sb.append("        out.raw(\"[\");\n");
+                sb.append("        for (int i = 0; i < values.length; i++) {\n");
+                sb.append("            if (i != 0) {\n                out.raw(\",\");\n            }\n");
+                sb.append("            ").append(write(((ArrayType) type).getComponentType(), "values[i]")).append("\n");
+                sb.append("        }\n");
+                sb.append("        out.raw(\"]\");\n");
+            } else if (isStringMap(type)) {
+                TypeMirror valueType = typeArgument(type, 1);
+                sb.append("        out.raw(\"{\");\n");
+                sb.append("        boolean first = true;\n");
+                sb.append("        for (java.util.Map.Entry<java.lang.String, ").append(typeName(valueType)).append("> entry : values.entrySet()) {\n");
+                sb.append("            if (!first) {\n                out.raw(\",\");\n            }\n");
+                sb.append("            first = false;\n");
+                sb.append("            out.value(entry.getKey());\n");
+                sb.append("            out.raw(\":\");\n");
+                sb.append("            ").append(write(valueType, "entry.getValue()")).append("\n");
+                sb.append("        }\n");
+                sb.append("        out.raw(\"}\");\n");
+            } else {
+                TypeMirror element = typeArgument(type, 0);
+                sb.append("        out.raw(\"[\");\n");
+                sb.append("        boolean first = true;\n");
+                sb.append("        for (").append(typeName(element)).append(" element : values) {\n");
+                sb.append("            if (!first) {\n                out.raw(\",\");\n            }\n");
+                sb.append("            first = false;\n");
+                sb.append("            ").append(write(element, "element")).append("\n");
+                sb.append("        }\n");
+                sb.append("        out.raw(\"]\");\n");
+            }
+        }
+        sb.append("    }\n\n");
+        helpers.append(sb);
+        return name;
+    }
+
+    private boolean hasCodec(TypeElement element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(JsonCodecProcessor.JSON_CODEC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isStringMap(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        return MAPS.contains(name) && typeName(typeArgument(type, 0)).equals("java.lang.String");
+    }
+
+    private TypeMirror typeArgument(TypeMirror type, int index) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        return arguments.isEmpty() ? elements.getTypeElement("java.lang.Object").asType() : bound(arguments.get(index));
+    }
+
+    /**
+     * @return upper bound of a wildcard or a type variable, the type itself otherwise
+     */
+    private TypeMirror bound(TypeMirror type) {
+        if (type.getKind() == TypeKind.WILDCARD) {
+            TypeMirror extendsBound = ((WildcardType) type).getExtendsBound();
+            return extendsBound == null ? elements.getTypeElement("java.lang.Object").asType() : bound(extendsBound);
+        } else if (type.getKind() == TypeKind.TYPEVAR) {
+            return bound(((TypeVariable) type).getUpperBound());
+        }
+        return type;
+    }
+
+    /**
+     * @return the type as written in source, without type annotations
+     */
+    private String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                StringBuilder sb = new StringBuilder(((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName());
+                List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                for (int i = 0; i < arguments.size(); i++) {
+                    sb.append(i == 0 ? "<" : ", ").append(typeName(bound(arguments.get(i))));
+                }
+                return arguments.isEmpty() ? sb.toString() : sb.append('>').toString();
+            case TYPEVAR:
+            case WILDCARD:
+                return typeName(bound(type));
+            default:
+                // primitives
+                return type.getKind().name().toLowerCase(java.util.Locale.ROOT);
+        }
+    }
+
+    private String newArray(TypeMirror component, String length) {
+        int dimensions = 0;
+        TypeMirror base = component;
+        while (base.getKind() == TypeKind.ARRAY) {
+            base = ((ArrayType) base).getComponentType();
+            dimensions++;
+        }
+        StringBuilder sb = new StringBuilder("new ").append(typeName(types.erasure(base))).append('[').append(length).append(']');
+        for (int i = 0; i < dimensions; i++) {
+            sb.append("[]");
+        }
+        String erased = typeName(types.erasure(component));
+        return erased.equals(typeName(component)) ? sb.toString() : "(" + typeName(component) + "[]) " + sb;
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0F";
+            case DOUBLE:
+                return "0D";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case CHAR:
+                return "'\\0'";
+            case INT:
+                return "0";
+            default:
+                return "null";
+        }
+    }
+
+    /**
+     * @return the identifier with non-ASCII characters as Unicode escapes, which doesn't depend on the encoding of the generated source
+     */
+    private static String identifier(String name) {
+        return isAscii(name) ? name : stringLiteral(name).substring(1, stringLiteral(name).length() - 1);
+    }
+
+    private static String charLiteral(char c) {
+        return c >= 0x20 && c < 0x7F && c != '\'' && c != '\\' ? "'" + c + "'" : String.format("'\\u%04x'", (int) c);
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * Generates the codec of each class or record annotated with {@code one.cafebabe.jsonicboom.JsonCodec}: a GeneratedCodec subclass in the same package,
+ * named after the class with a JsonCodec suffix. See {@link CodecGenerator}.
+ */
+@SupportedAnnotationTypes(JsonCodecProcessor.JSON_CODEC)
+public final class JsonCodecProcessor extends AbstractProcessor {
+    static final String JSON_CODEC = "one.cafebabe.jsonicboom.JsonCodec";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(JSON_CODEC);
+        if (annotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            try {
+                CodecGenerator generator = new CodecGenerator(processingEnv, (TypeElement) element);
+                String source = generator.generate();
+                try (Writer writer = processingEnv.getFiler().createSourceFile(generator.codecName(), element).openWriter()) {
+                    writer.write(source);
+                }
+            } catch (IllegalArgumentException | ClassCastException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@JsonCodec: " + e.getMessage(), element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@JsonCodec: can't write the codec: " + e, element);
+            }
+        }
+        return true;
+    }
+}
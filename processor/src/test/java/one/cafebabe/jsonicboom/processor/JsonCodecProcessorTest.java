@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom.processor;
+
+import one.cafebabe.jsonicboom.GeneratedCodec;
+import one.cafebabe.jsonicboom.IllegalJSONFormatException;
+import one.cafebabe.jsonicboom.JSON;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecProcessorTest {
+    private static final String SAMPLES = """
+            package sample;
+
+            import one.cafebabe.jsonicboom.JsonCodec;
+            import java.math.BigDecimal;
+            import java.util.*;
+
+            public class Samples {
+                public enum Role { ADMIN, USER }
+
+                @JsonCodec
+                public static class User {
+                    long id;
+                    String name;
+                    int age;
+                    double score;
+                    boolean active;
+                    Integer rank;
+                    float ratio;
+                    short level;
+                    char initial;
+                    BigDecimal balance;
+                    Role role;
+                    List<String> tags;
+                    Set<Role> roles;
+                    Map<String, Integer> counts;
+                    int[] codes;
+                    Address[] addresses;
+                    List<List<Address>> groups;
+                    Address address;
+                    Object any;
+                    transient String ignored = "ignored";
+                    private String nickname;
+                    String naMe;
+                    String nbme;
+                    String 東京;
+
+                    public String getNickname() {
+                        return nickname;
+                    }
+
+                    public void setNickname(String nickname) {
+                        this.nickname = nickname;
+                    }
+                }
+
+                @JsonCodec
+                public static class Address {
+                    String city;
+                    String zip;
+                }
+
+                @JsonCodec
+                public record Point(int x, int y, String label, List<Point> children) {
+                }
+            }
+            """;
+
+    private static final String USER = """
+            {"id":9007199254740993,"name":"Taro \\"T\\"","age":42,"score":3.5,"active":true,"rank":null,"ratio":0.1,"level":7,"initial":"t",\
+            "balance":12345678901234567890.5,"role":"ADMIN","tags":["a","b"],"roles":["USER","ADMIN"],"counts":{"x":1,"y":null},"codes":[1,2,3,4,5,6,7,8,9],\
+            "addresses":[{"city":"Tokyo","zip":null},null],"groups":[[{"city":"Osaka","zip":"530"}],[]],"address":null,"any":[1,{"k":"v"}],\
+            "nickname":"tt","naMe":"upper","nbme":"b","東京":"tokyo"}""";
+
+    @Test
+    void roundTrip() throws Exception {
+        withCompiled(SAMPLES, loader -> {
+            Class<?> user = loader.loadClass("sample.Samples$User");
+            GeneratedCodec<Object> codec = codec(loader, "sample.Samples_UserJsonCodec");
+            assertEquals(USER, codec.toJSONString(codec.parse(USER)));
+            assertEquals(USER, codec.toJSONString(codec.parse(USER.getBytes(StandardCharsets.UTF_8))));
+            // JSON uses the generated codec
+            Object parsed = JSON.parse(USER, user);
+            assertSame(user, parsed.getClass());
+            assertEquals(USER, JSON.toJSONString(parsed));
+            assertEquals("ignored", field(parsed, "ignored"));
+
+            Object escaped = codec.parse("{\"n\\u0061me\":\"escaped\",\"\\u6771\\u4eac\":\"t\",\"unknown\":{\"id\":[1]},\"id\":1,\"age\":null}");
+            assertEquals("escaped", field(escaped, "name"));
+            assertEquals("t", field(escaped, "東京"));
+            assertEquals(1L, field(escaped, "id"));
+            assertEquals(0, field(escaped, "age"));
+            assertThrows(IllegalJSONFormatException.class, () -> codec.parse("{\"age\":\"42\"}"));
+            assertThrows(IllegalJSONFormatException.class, () -> codec.parse("[]"));
+
+            GeneratedCodec<Object> point = codec(loader, "sample.Samples_PointJsonCodec");
+            String json = "{\"x\":1,\"y\":2,\"label\":\"p\",\"children\":[{\"x\":3,\"y\":0,\"label\":null,\"children\":null}]}";
+            assertEquals(json, point.toJSONString(point.parse(json)));
+            assertEquals("{\"x\":0,\"y\":5,\"label\":null,\"children\":null}", point.toJSONString(point.parse("{\"y\":5}")));
+            assertEquals(point.parse(json), JSON.parseList("[" + json + "]", loader.loadClass("sample.Samples$Point")).get(0));
+        });
+    }
+
+    @Test
+    void invalid() throws IOException {
+        for (String declaration : new String[]{"public static abstract class Invalid {}", "public class Invalid {}",
+                "public static class Invalid { Invalid(int i) {} }", "public static class Invalid<T> { T t; }", "private static class Invalid {}"}) {
+            List<Diagnostic<? extends JavaFileObject>> errors = compile("package sample;\npublic class Samples {\n@one.cafebabe.jsonicboom.JsonCodec\n"
+                    + declaration + "\n}\n", Files.createTempDirectory("jsonicboom"));
+            assertTrue(errors.stream().anyMatch(error -> error.getMessage(null).contains("@JsonCodec")), declaration);
+        }
+    }
+
+    interface Check {
+        void check(ClassLoader loader) throws Exception;
+    }
+
+    private static Object field(Object object, String name) throws ReflectiveOperationException {
+        java.lang.reflect.Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(object);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GeneratedCodec<Object> codec(ClassLoader loader, String name) throws ReflectiveOperationException {
+        return (GeneratedCodec<Object>) loader.loadClass(name).getField("INSTANCE").get(null);
+    }
+
+    private static void withCompiled(String source, Check check) throws Exception {
+        Path out = Files.createTempDirectory("jsonicboom");
+        try {
+            List<Diagnostic<? extends JavaFileObject>> errors = compile(source, out);
+            assertEquals(List.of(), errors);
+            try (URLClassLoader loader = new URLClassLoader(new java.net.URL[]{out.toUri().toURL()}, JsonCodecProcessorTest.class.getClassLoader())) {
+                check.check(loader);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(out)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(String source, Path out) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///sample/Samples.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                List.of("-classpath", System.getProperty("java.class.path"), "-d", out.toString(), "-encoding", "UTF-8"), null, List.of(file));
+        task.setProcessors(List.of(new JsonCodecProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR).toList();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.math.BigInteger;
+
+/**
+ * Parses numbers into doubles straight from a {@link JSONSource}, bit-identical to {@link Double#parseDouble(String)}.<br>
+ * The first 19 significant digits are converted exactly by Clinger's fast path when both the digits and the power of ten are exact doubles,
+ * and by the Eisel-Lemire algorithm otherwise. Numbers neither can round with certainty are given to {@link Double#parseDouble(String)}.
+ */
+final class DoubleParser {
+    private static final int MAX_DIGITS = 19;
+    private static final int MIN_EXPONENT = -348;
+    private static final int MAX_EXPONENT = 347;
+    private static final double[] EXACT_POWERS = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /**
+     * 10^e rounded down to 128 bits with the top bit set: the high half at (e - MIN_EXPONENT) * 2, the low half next to it
+     */
+    private static final long[] POWERS = powersOfTen();
+
+    private DoubleParser() {
+    }
+
+    /**
+     * @param source source
+     * @param start  start position, inclusive
+     * @param end    end position, exclusive
+     * @return the value
+     * @throws NumberFormatException if the text is not a number
+     */
+    static double parse(JSONSource source, int start, int end) {
+        int i = start;
+        boolean negative = i < end && source.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        boolean truncated = false;
+        for (; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            digits++;
+            if (significantDigits < MAX_DIGITS) {
+                // leading zeros leave the mantissa 0 and aren't significant
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else {
+                truncated |= digit != 0;
+                if (!fraction) {
+                    exponent++;
+                }
+            }
+        }
+        if (i < end && (source.charAt(i) | 0x20) == 'e') {
+            i++;
+            boolean negativeExponent = i < end && source.charAt(i) == '-';
+            if (i < end && (source.charAt(i) == '-' || source.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            int explicitExponent = 0;
+            for (; i < end; i++) {
+                int digit = source.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                // far beyond the range of double either way
+                if (explicitExponent < 100_000) {
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+            if (i == exponentStart) {
+                digits = 0;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i == end && digits != 0) {
+            double value = toDouble(mantissa, exponent, negative);
+            // the dropped digits put the exact value between mantissa and mantissa + 1
+            if (!truncated || value == toDouble(mantissa + 1, exponent, negative)) {
+                if (!Double.isNaN(value)) {
+                    return value;
+                }
+            }
+        }
+        return Double.parseDouble(source.substring(start, end));
+    }
+
+    /**
+     * @param mantissa up to 19 decimal digits, unsigned
+     * @param exponent power of ten
+     * @param negative sign
+     * @return correctly rounded mantissa * 10^exponent, or NaN when it can't be determined here
+     */
+    static double toDouble(long mantissa, int exponent, boolean negative) {
+        if (mantissa == 0) {
+            return negative ? -0d : 0d;
+        }
+        if (-22 <= exponent && exponent <= 22 && mantissa > 0 && mantissa <= 1L << 53) {
+            // one correctly rounded operation on exact operands
+            double value = exponent < 0 ? mantissa / EXACT_POWERS[-exponent] : mantissa * EXACT_POWERS[exponent];
+            return negative ? -value : value;
+        }
+        if (exponent < MIN_EXPONENT || exponent > MAX_EXPONENT) {
+            return Double.NaN;
+        }
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        // 217706 / 2^16 approximates log2(10)
+        long binaryExponent = (217706L * exponent >> 16) + 64 + 1023 - leadingZeros;
+        int index = (exponent - MIN_EXPONENT) * 2;
+        long high = unsignedMultiplyHigh(mantissa, POWERS[index]);
+        long low = mantissa * POWERS[index];
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+            // the truncated low half of the power may carry into the bits that decide rounding
+            long lowHigh = unsignedMultiplyHigh(mantissa, POWERS[index + 1]);
+            long lowLow = mantissa * POWERS[index + 1];
+            long mergedHigh = high;
+            long mergedLow = low + lowHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1 && Long.compareUnsigned(lowLow + mantissa, mantissa) < 0) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+        long topBit = high >>> 63;
+        long bits = high >>> (topBit + 9);
+        binaryExponent -= 1 ^ topBit;
+        if (low == 0 && (high & 0x1FF) == 0 && (bits & 3) == 1) {
+            // may be exactly halfway between two doubles
+            return Double.NaN;
+        }
+        // round 54 bits to 53, half to even
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >>> 53 != 0) {
+            bits >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            // subnormal, or infinity
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(binaryExponent << 52 | bits & 0xFFFFFFFFFFFFFL | (negative ? Long.MIN_VALUE : 0));
+    }
+
+    /**
+     * Math.unsignedMultiplyHigh is Java 18 and later.
+     *
+     * @return the high 64 bits of the unsigned 128 bit product
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long middle = x1 * y0 + (x0 * y0 >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[(MAX_EXPONENT - MIN_EXPONENT + 1) * 2];
+        for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+            BigInteger power = BigInteger.TEN.pow(Math.abs(exponent));
+            BigInteger normalized;
+            if (exponent >= 0) {
+                int shift = power.bitLength() - 128;
+                normalized = shift >= 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                // 10^n isn't a power of two, so the quotient has exactly 128 bits
+                normalized = BigInteger.ONE.shiftLeft(power.bitLength() + 127).divide(power);
+            }
+            int index = (exponent - MIN_EXPONENT) * 2;
+            powers[index] = normalized.shiftRight(64).longValue();
+            powers[index + 1] = normalized.longValue();
+        }
+        return powers;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Fields of a {@link JSONObject}: keys and values in parallel arrays in the order they appear, scanned linearly while there are at most
+ * {@link #LINEAR_SCAN_MAX} of them and looked up through an open addressing index above that.<br>
+ * Values are JsonIndices for scalars, JSONObject and JSONArray. A key that appears again replaces the value, keeping its position.
+ */
+final class FieldTable {
+    static final int LINEAR_SCAN_MAX = 8;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+    /**
+     * position + 1 of every key in the slot of its hash, 0 for an empty slot. null while keys are scanned linearly.
+     */
+    private int[] index;
+    /**
+     * false once a key appeared again, or for the fields of a {@link Projection}: the text of the object then has fields the table doesn't hold
+     */
+    boolean complete = true;
+
+    void put(String key, Object value) {
+        int position = indexOf(key);
+        if (position != -1) {
+            values[position] = value;
+            complete = false;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        if (index != null && size * 2 <= index.length) {
+            insert(size - 1);
+        } else if (size > LINEAR_SCAN_MAX) {
+            rebuildIndex();
+        }
+    }
+
+    Object get(String key) {
+        int position = indexOf(key);
+        return position == -1 ? null : values[position];
+    }
+
+    boolean containsKey(String key) {
+        return indexOf(key) != -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String key(int position) {
+        return keys[position];
+    }
+
+    Object value(int position) {
+        return values[position];
+    }
+
+    /**
+     * Drops the spare capacity once the object has been read.
+     *
+     * @return this
+     */
+    FieldTable trim() {
+        if (size != keys.length) {
+            keys = Arrays.copyOf(keys, size);
+            values = Arrays.copyOf(values, size);
+        }
+        return this;
+    }
+
+    /**
+     * @param key key
+     * @return position of the field in the order the fields appear, or -1
+     */
+    int indexOf(String key) {
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                if (key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = slot(key) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (position == -1 || key.equals(keys[position])) {
+                return position;
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        // at most half full
+        index = new int[Integer.highestOneBit(size) * 4];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    private void insert(int position) {
+        int mask = index.length - 1;
+        int slot = slot(keys[position]) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+    }
+
+    private static int slot(String key) {
+        int hash = key.hashCode();
+        return hash ^ hash >>> 16;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FieldTable that = (FieldTable) o;
+        if (size != that.size) return false;
+        for (int i = 0; i < size; i++) {
+            int position = that.indexOf(keys[i]);
+            if (position == -1 || !Objects.equals(values[i], that.values[position])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // independent of the order of the fields, as Map.hashCode()
+        int hash = 0;
+        for (int i = 0; i < size; i++) {
+            hash += keys[i].hashCode() ^ Objects.hashCode(values[i]);
+        }
+        return hash;
+    }
+}
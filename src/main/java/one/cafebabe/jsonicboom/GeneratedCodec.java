@@ -0,0 +1,368 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Base class of the codecs generated for classes annotated with {@link JsonCodec}. A codec is stateless and thread safe.<br>
+ * {@link Input} and {@link Output} are the API the generated code is written against: the decoder is driven by the tokens, and matches keys by
+ * their length and characters in the source without creating Strings.
+ *
+ * @param <T> type
+ */
+public abstract class GeneratedCodec<T> {
+    private static final ClassValue<GeneratedCodec<?>> CODECS = new ClassValue<GeneratedCodec<?>>() {
+        @Override
+        protected GeneratedCodec<?> computeValue(Class<?> type) {
+            String name = type.getName();
+            int dot = name.lastIndexOf('.');
+            String codecName = name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + "JsonCodec";
+            try {
+                return (GeneratedCodec<?>) Class.forName(codecName, true, type.getClassLoader()).getField("INSTANCE").get(null);
+            } catch (ReflectiveOperationException | LinkageError | ClassCastException | SecurityException e) {
+                // not annotated
+                return null;
+            }
+        }
+    };
+
+    protected GeneratedCodec() {
+    }
+
+    /**
+     * @param type class
+     * @return the generated codec of the class, or null if the class isn't annotated with {@link JsonCodec}
+     */
+    @SuppressWarnings("unchecked")
+    static <T> GeneratedCodec<T> of(Class<T> type) {
+        return type.isPrimitive() || type.isArray() ? null : (GeneratedCodec<T>) CODECS.get(type);
+    }
+
+    /**
+     * @param in input positioned at the first token of the value
+     * @return decoded value, or null for null
+     */
+    public abstract T decode(Input in);
+
+    /**
+     * @param value value, or null
+     * @param out   output
+     * @throws IOException when the output fails
+     */
+    public abstract void encode(T value, Output out) throws IOException;
+
+    /**
+     * @param json JSON object
+     * @return decoded value
+     */
+    public final T parse(String json) {
+        return parse(JSONSource.of(json));
+    }
+
+    /**
+     * @param utf8 UTF-8 encoded JSON object
+     * @return decoded value
+     */
+    public final T parse(byte[] utf8) {
+        return parse(JSONSource.of(utf8, 0, utf8.length));
+    }
+
+    private T parse(JSONSource source) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
+        JsonEventType eventType = jsonTokenizer.nextEvent();
+        if (eventType == null) {
+            throw new IllegalJSONFormatException("Unexpected end of JSON.");
+        }
+        T value = decode(new Input(jsonTokenizer, eventType));
+        if (jsonTokenizer.nextEvent() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        return value;
+    }
+
+    /**
+     * @param value value
+     * @return JSON text
+     */
+    public final String toJSONString(T value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            encode(value, new Output(new JSONWriter(sb)));
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param value value
+     * @param out   destination
+     * @throws IOException when out fails
+     */
+    public final void write(T value, Appendable out) throws IOException {
+        encode(value, new Output(new JSONWriter(out)));
+    }
+
+    /**
+     * Tokens of the document being decoded. The current value is the one whose first token was read last:
+     * the value of the key returned by {@link #nextKey()}, the element returned by {@link #nextElement()}, or the document itself.
+     */
+    public static final class Input {
+        private final JSONTokenizer jsonTokenizer;
+        private JsonEventType eventType;
+        private int keyStart;
+        private int keyEnd;
+
+        Input(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+            this.jsonTokenizer = jsonTokenizer;
+            this.eventType = eventType;
+        }
+
+        public boolean isNull() {
+            return eventType == JsonEventType.VALUE_NULL;
+        }
+
+        /**
+         * @throws IllegalJSONFormatException if the current value is not an object
+         */
+        public void beginObject() {
+            JSONBinder.expect(jsonTokenizer, eventType, JsonEventType.START_OBJECT, "an object");
+        }
+
+        /**
+         * Moves to the next field of the object, to its value.
+         *
+         * @return false at the end of the object
+         */
+        public boolean nextKey() {
+            JsonEventType next = jsonTokenizer.nextEvent();
+            if (next == JsonEventType.COMMA) {
+                next = jsonTokenizer.nextEvent();
+            }
+            if (next == JsonEventType.END_OBJECT) {
+                return false;
+            }
+            keyStart = jsonTokenizer.tokenStart;
+            keyEnd = jsonTokenizer.tokenEnd;
+            // colon
+            jsonTokenizer.nextEvent();
+            eventType = jsonTokenizer.nextEvent();
+            return true;
+        }
+
+        /**
+         * @return length of the key as written in the document, escape sequences and UTF-8 encoded characters included
+         */
+        public int keyLength() {
+            return keyEnd - keyStart;
+        }
+
+        /**
+         * @param index position in the key as written in the document
+         * @return the character, or the byte of a UTF-8 encoded document
+         */
+        public char keyCharAt(int index) {
+            return jsonTokenizer.source.charAt(keyStart + index);
+        }
+
+        /**
+         * @return true if the key has no escape sequence and no non-ASCII character, so that it equals a name only if its characters do
+         */
+        public boolean keyIsPlain() {
+            for (int i = keyStart; i < keyEnd; i++) {
+                char c = jsonTokenizer.source.charAt(i);
+                if (c == '\\' || c > 0x7F) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param name name
+         * @return true if the key, unescaped, equals the name
+         */
+        public boolean keyEquals(String name) {
+            return jsonTokenizer.source.unescapedEquals(keyStart, keyEnd, name);
+        }
+
+        /**
+         * @return the key, unescaped
+         */
+        public String key() {
+            return jsonTokenizer.source.unescape(keyStart, keyEnd);
+        }
+
+        /**
+         * @throws IllegalJSONFormatException if the current value is not an array
+         */
+        public void beginArray() {
+            JSONBinder.expect(jsonTokenizer, eventType, JsonEventType.START_ARRAY, "an array");
+        }
+
+        /**
+         * Moves to the next element of the array.
+         *
+         * @return false at the end of the array
+         */
+        public boolean nextElement() {
+            JsonEventType next = jsonTokenizer.nextEvent();
+            if (next == JsonEventType.COMMA) {
+                next = jsonTokenizer.nextEvent();
+            }
+            if (next == JsonEventType.END_ARRAY) {
+                return false;
+            }
+            eventType = next;
+            return true;
+        }
+
+        /**
+         * Skips the current value, the contents of a container included.
+         */
+        public void skipValue() {
+            JSONBinder.skip(jsonTokenizer, eventType);
+        }
+
+        public int intValue() {
+            return JSONBinder.intValue(jsonTokenizer, eventType);
+        }
+
+        public long longValue() {
+            return JSONBinder.longValue(jsonTokenizer, eventType);
+        }
+
+        public double doubleValue() {
+            return JSONBinder.doubleValue(jsonTokenizer, eventType);
+        }
+
+        public boolean booleanValue() {
+            return JSONBinder.booleanValue(jsonTokenizer, eventType);
+        }
+
+        /**
+         * @return the string, or null for null
+         */
+        public String stringValue() {
+            return JSONBinder.string(jsonTokenizer, eventType);
+        }
+
+        /**
+         * @return the number, or null for null
+         */
+        public BigDecimal bigDecimalValue() {
+            return isNull() ? null : new BigDecimal(JSONBinder.number(jsonTokenizer, eventType));
+        }
+
+        /**
+         * @return the number, or null for null
+         */
+        public BigInteger bigIntegerValue() {
+            return isNull() ? null : new BigInteger(JSONBinder.number(jsonTokenizer, eventType));
+        }
+
+        /**
+         * @return String, Boolean, Number, JSONObject, JSONArray, or null
+         */
+        public Object value() {
+            return JSONBinder.object(jsonTokenizer, eventType);
+        }
+
+        /**
+         * Binds the current value as {@link JSON#parse(String, Class)} does.
+         *
+         * @param type class of the value, not a primitive
+         * @return value
+         */
+        public <V> V read(Class<V> type) {
+            return type.cast(JSONBinder.reader(type).read(jsonTokenizer, eventType));
+        }
+    }
+
+    /**
+     * JSON text being encoded. The generated code writes the punctuation and the keys itself, with {@link #raw(String)}.
+     */
+    public static final class Output {
+        private final JSONWriter writer;
+
+        Output(JSONWriter writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * @param json JSON text, written as it is
+         */
+        public void raw(String json) throws IOException {
+            writer.out.append(json);
+        }
+
+        public void value(int value) throws IOException {
+            writer.out.append(Integer.toString(value));
+        }
+
+        public void value(long value) throws IOException {
+            writer.out.append(Long.toString(value));
+        }
+
+        /**
+         * @throws IllegalArgumentException if the value is NaN or infinite
+         */
+        public void value(double value) throws IOException {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("JSON can't represent " + value);
+            }
+            writer.out.append(Double.toString(value));
+        }
+
+        public void value(boolean value) throws IOException {
+            writer.out.append(value ? "true" : "false");
+        }
+
+        /**
+         * @param value string, or null
+         */
+        public void value(String value) throws IOException {
+            if (value == null) {
+                writer.out.append("null");
+            } else {
+                writer.string(value);
+            }
+        }
+
+        /**
+         * @param value constant written as its name, or null
+         */
+        public void value(Enum<?> value) throws IOException {
+            value(value == null ? null : value.name());
+        }
+
+        /**
+         * @param value any value {@link JSON#toJSONString(Object)} writes
+         */
+        public void value(Object value) throws IOException {
+            writer.write(value);
+        }
+    }
+}
@@ -21,6 +21,10 @@ public class IllegalJSONFormatException extends RuntimeException {
         super(composeMessage(message, jsonString, index));
     }
 
+    IllegalJSONFormatException(String message, JSONSource source, int index) {
+        super(source.composeMessage(message, index));
+    }
+
     static String composeMessage(String message, String jsonString, int index) {
         int excerptStart = Math.max(0, index - 40);
         int excerptEnd = Math.min(index + 40, jsonString.length());
@@ -16,12 +16,63 @@
 
 package one.cafebabe.jsonicboom;
 
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
 public final class JSON {
     private JSON() {
     }
 
     public static JSONObject parseObject(String json) {
-        JSONTokenizer jsonTokenizer = new JSONTokenizer(json);
+        return parseObject(JSONSource.of(json));
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON without decoding it to a String first. Values are decoded when they are requested.
+     *
+     * @param utf8 UTF-8 encoded JSON object. The array must not be modified while the returned object is in use.
+     * @return parsed object
+     */
+    public static JSONObject parseObject(byte[] utf8) {
+        return parseObject(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON without decoding it to a String first. Values are decoded when they are requested.
+     *
+     * @param utf8   UTF-8 encoded JSON object. The array must not be modified while the returned object is in use.
+     * @param offset start of the JSON in the array
+     * @param length length of the JSON in bytes
+     * @return parsed object
+     */
+    public static JSONObject parseObject(byte[] utf8, int offset, int length) {
+        return parseObject(JSONSource.of(utf8, offset, length));
+    }
+
+    /**
+     * Parses a UTF-8 encoded file through a read-only memory mapping. Values refer to positions in the mapping and are decoded when they are requested,
+     * so the heap holds only the parsed structure and the values actually read.<br>
+     * A file of 2GiB or larger is mapped one window at a time, and each field of the object has to be smaller than 2GiB.
+     * The returned object then has no text of its own, and {@link JSONObject#toString()} writes its fields.
+     *
+     * @param path UTF-8 encoded JSON object. The file must not be modified while the returned object is in use.
+     * @return parsed object
+     * @throws IOException when the file cannot be read, or a field is 2GiB or larger
+     */
+    public static JSONObject parseObject(Path path) throws IOException {
+        return parseObject(path, ParseOptions.DEFAULT);
+    }
+
+    static JSONObject parseObject(JSONSource source) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
         JSONObject jsonObject = new JSONObject(jsonTokenizer, jsonTokenizer.next());
         if (jsonTokenizer.next() != null) {
             throw new IllegalJSONFormatException("Illegal JSON format");
@@ -29,8 +80,134 @@ public final class JSON {
         return jsonObject;
     }
 
+    /**
+     * @param json    JSON object
+     * @param options how to represent the parsed document
+     * @return parsed object
+     */
+    public static JSONObject parseObject(String json, ParseOptions options) {
+        return parseObject(JSONSource.of(json), options);
+    }
+
+    /**
+     * @param utf8    UTF-8 encoded JSON object. The array must not be modified while the returned object is in use.
+     * @param options how to represent the parsed document
+     * @return parsed object
+     */
+    public static JSONObject parseObject(byte[] utf8, ParseOptions options) {
+        return parseObject(JSONSource.of(utf8, 0, utf8.length), options);
+    }
+
+    /**
+     * Parses a UTF-8 encoded file as {@link #parseObject(Path)} does. In a file of 2GiB or larger, each field is represented as the options say.
+     *
+     * @param path    UTF-8 encoded JSON object. The file must not be modified while the returned object is in use.
+     * @param options how to represent the parsed document
+     * @return parsed object
+     * @throws IOException when the file cannot be read, or a field is 2GiB or larger
+     */
+    public static JSONObject parseObject(Path path, ParseOptions options) throws IOException {
+        return JSONWindowedParser.parseObject(path, options, JSONWindowedParser.WINDOW);
+    }
+
+    static JSONObject parseObject(JSONSource source, ParseOptions options) {
+        JSONTokenizer jsonTokenizer = options.tokenizer(source);
+        JSONObject jsonObject;
+        switch (options.mode) {
+            case TAPE:
+                jsonObject = new JSONObject(JSONTape.parse(jsonTokenizer, JSONTokenizer.JsonEventType.START_OBJECT), 0);
+                break;
+            case LAZY:
+                jsonObject = new JSONObject(JSONBoundaries.scan(jsonTokenizer, JSONTokenizer.JsonEventType.START_OBJECT), 0);
+                break;
+            default:
+                jsonObject = new JSONObject(jsonTokenizer, jsonTokenizer.next());
+                break;
+        }
+        if (jsonTokenizer.next() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        return jsonObject;
+    }
+
+    /**
+     * Parses only the fields in the projection. Other fields are skipped without being stored, and nested objects and arrays
+     * are built only where the projection goes. {@link JSONObject#toString()} and {@link #write(Object, Appendable)} still copy the original text.
+     *
+     * @param json       JSON object
+     * @param projection fields to keep
+     * @return parsed object with the projected fields
+     */
+    public static JSONObject parseObject(String json, Projection projection) {
+        return parseObject(JSONSource.of(json), projection);
+    }
+
+    /**
+     * Parses only the fields in the projection, without decoding the JSON to a String first. See {@link #parseObject(String, Projection)}.
+     *
+     * @param utf8       UTF-8 encoded JSON object. The array must not be modified while the returned object is in use.
+     * @param projection fields to keep
+     * @return parsed object with the projected fields
+     */
+    public static JSONObject parseObject(byte[] utf8, Projection projection) {
+        return parseObject(JSONSource.of(utf8, 0, utf8.length), projection);
+    }
+
+    static JSONObject parseObject(JSONSource source, Projection projection) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
+        JSONTokenizer.JsonIndices next = jsonTokenizer.next();
+        if (next == null || next.jsonEventType != JSONTokenizer.JsonEventType.START_OBJECT) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        JSONObject jsonObject = new JSONObject(jsonTokenizer, next, projection);
+        if (jsonTokenizer.next() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        return jsonObject;
+    }
+
     public static JSONArray parseArray(String json) {
-        JSONTokenizer jsonTokenizer = new JSONTokenizer(json);
+        return parseArray(JSONSource.of(json));
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON without decoding it to a String first. Values are decoded when they are requested.
+     *
+     * @param utf8 UTF-8 encoded JSON array. The array must not be modified while the returned array is in use.
+     * @return parsed array
+     */
+    public static JSONArray parseArray(byte[] utf8) {
+        return parseArray(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON without decoding it to a String first. Values are decoded when they are requested.
+     *
+     * @param utf8   UTF-8 encoded JSON array. The array must not be modified while the returned array is in use.
+     * @param offset start of the JSON in the array
+     * @param length length of the JSON in bytes
+     * @return parsed array
+     */
+    public static JSONArray parseArray(byte[] utf8, int offset, int length) {
+        return parseArray(JSONSource.of(utf8, offset, length));
+    }
+
+    /**
+     * Parses a UTF-8 encoded file through a read-only memory mapping. Values refer to positions in the mapping and are decoded when they are requested,
+     * so the heap holds only the parsed structure and the values actually read.<br>
+     * A file of 2GiB or larger is mapped one window at a time, and each value of the array has to be smaller than 2GiB.
+     * The returned array then has no text of its own, and {@link JSONArray#toString()} writes its values.
+     *
+     * @param path UTF-8 encoded JSON array. The file must not be modified while the returned array is in use.
+     * @return parsed array
+     * @throws IOException when the file cannot be read, or a value is 2GiB or larger
+     */
+    public static JSONArray parseArray(Path path) throws IOException {
+        return parseArray(path, ParseOptions.DEFAULT);
+    }
+
+    static JSONArray parseArray(JSONSource source) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
         JSONArray jsonArray = new JSONArray(jsonTokenizer, jsonTokenizer.next());
         if (jsonTokenizer.next() != null) {
             throw new IllegalJSONFormatException("Illegal JSON format");
@@ -38,4 +215,311 @@ public final class JSON {
         return jsonArray;
     }
 
+    /**
+     * @param json    JSON array
+     * @param options how to represent the parsed document
+     * @return parsed array
+     */
+    public static JSONArray parseArray(String json, ParseOptions options) {
+        return parseArray(JSONSource.of(json), options);
+    }
+
+    /**
+     * @param utf8    UTF-8 encoded JSON array. The array must not be modified while the returned array is in use.
+     * @param options how to represent the parsed document
+     * @return parsed array
+     */
+    public static JSONArray parseArray(byte[] utf8, ParseOptions options) {
+        return parseArray(JSONSource.of(utf8, 0, utf8.length), options);
+    }
+
+    /**
+     * Parses a UTF-8 encoded file as {@link #parseArray(Path)} does. In a file of 2GiB or larger, each value is represented as the options say.
+     *
+     * @param path    UTF-8 encoded JSON array. The file must not be modified while the returned array is in use.
+     * @param options how to represent the parsed document
+     * @return parsed array
+     * @throws IOException when the file cannot be read, or a value is 2GiB or larger
+     */
+    public static JSONArray parseArray(Path path, ParseOptions options) throws IOException {
+        return JSONWindowedParser.parseArray(path, options, JSONWindowedParser.WINDOW);
+    }
+
+    /**
+     * Binds a JSON object straight to a POJO or a record, without building a JSONObject. A POJO needs a no-argument constructor and gets its
+     * public setters, or else its non-final fields. A record gets its canonical constructor. Properties may be primitives and their wrappers, String,
+     * BigDecimal, BigInteger, enums, JSONObject, JSONArray, arrays, Lists, Sets, Maps with String keys, and other POJOs and records.
+     * Keys without a property are skipped.
+     *
+     * @param json JSON object
+     * @param type POJO or record class
+     * @param <T>  type
+     * @return bound object
+     * @throws IllegalArgumentException if the class can't be bound
+     */
+    public static <T> T parse(String json, Class<T> type) {
+        return type.cast(JSONBinder.parse(JSONSource.of(json), type));
+    }
+
+    /**
+     * Binds a UTF-8 encoded JSON object straight to a POJO or a record. See {@link #parse(String, Class)}.
+     *
+     * @param utf8 UTF-8 encoded JSON object
+     * @param type POJO or record class
+     * @param <T>  type
+     * @return bound object
+     */
+    public static <T> T parse(byte[] utf8, Class<T> type) {
+        return type.cast(JSONBinder.parse(JSONSource.of(utf8, 0, utf8.length), type));
+    }
+
+    /**
+     * Binds the elements of a JSON array straight to POJOs or records. See {@link #parse(String, Class)}.
+     *
+     * @param json JSON array
+     * @param type element class
+     * @param <T>  type
+     * @return bound elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> parseList(String json, Class<T> type) {
+        return (List<T>) JSONBinder.parseList(JSONSource.of(json), type);
+    }
+
+    /**
+     * Binds the elements of a UTF-8 encoded JSON array straight to POJOs or records. See {@link #parse(String, Class)}.
+     *
+     * @param utf8 UTF-8 encoded JSON array
+     * @param type element class
+     * @param <T>  type
+     * @return bound elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> parseList(byte[] utf8, Class<T> type) {
+        return (List<T>) JSONBinder.parseList(JSONSource.of(utf8, 0, utf8.length), type);
+    }
+
+    /**
+     * Extracts the value at a JSON Pointer (RFC 6901) without building the objects and arrays around it. Values beside the path are skipped
+     * without being validated, and reading stops at the value. Use {@link JSONPointer#compile(String...)} to extract several values in one pass.
+     *
+     * @param json    JSON object or array
+     * @param pointer JSON Pointer, like "/data/items/0/price"
+     * @return JSONObject, JSONArray, String, Number, Boolean, or null for null and missing values
+     * @throws IllegalArgumentException if the pointer is not a valid JSON Pointer
+     */
+    @Nullable
+    public static Object extract(String json, String pointer) {
+        return JSONPointer.of(pointer).extract(JSONSource.of(json))[0];
+    }
+
+    /**
+     * Extracts the value at a JSON Pointer from UTF-8 encoded JSON. See {@link #extract(String, String)}.
+     *
+     * @param utf8    UTF-8 encoded JSON object or array. The array must not be modified while the returned value is in use.
+     * @param pointer JSON Pointer
+     * @return JSONObject, JSONArray, String, Number, Boolean, or null for null and missing values
+     */
+    @Nullable
+    public static Object extract(byte[] utf8, String pointer) {
+        return JSONPointer.of(pointer).extract(JSONSource.of(utf8, 0, utf8.length))[0];
+    }
+
+    /**
+     * Parses a large array on multiple threads. Elements are parsed concurrently on the ForkJoinPool the caller runs in, or on the common pool,
+     * and are returned in document order. Validation is the same as {@link #parseArray(String)}. Arrays smaller than a few MiB are parsed on the calling thread.
+     *
+     * @param json JSON array
+     * @return parsed array
+     */
+    public static JSONArray parseArrayParallel(String json) {
+        return JSONParallelParser.parseArray(JSONSource.of(json), JSONParallelParser.CHUNK);
+    }
+
+    /**
+     * Parses a large array on multiple threads, without decoding it to a String first. See {@link #parseArrayParallel(String)}.
+     *
+     * @param utf8 UTF-8 encoded JSON array. The array must not be modified while the returned array is in use.
+     * @return parsed array
+     */
+    public static JSONArray parseArrayParallel(byte[] utf8) {
+        return JSONParallelParser.parseArray(JSONSource.of(utf8, 0, utf8.length), JSONParallelParser.CHUNK);
+    }
+
+    /**
+     * Parses a large array on multiple threads through a read-only memory mapping. See {@link #parseArrayParallel(String)}.
+     * The values refer to int positions in a single mapping. A larger file can be read on one thread with {@link #parseArray(Path)}.
+     *
+     * @param path UTF-8 encoded JSON array, smaller than 2GiB. The file must not be modified while the returned array is in use.
+     * @return parsed array
+     * @throws IOException when the file cannot be read
+     */
+    public static JSONArray parseArrayParallel(Path path) throws IOException {
+        return JSONParallelParser.parseArray(JSONSource.of(path), JSONParallelParser.CHUNK);
+    }
+
+    /**
+     * @param json JSON object or array
+     * @return pull parser reading the JSON one token at a time
+     */
+    public static JSONReader reader(String json) {
+        return new JSONReader(JSONSource.of(json));
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON one token at a time, without decoding it to a String first.
+     *
+     * @param utf8 UTF-8 encoded JSON object or array. The array must not be modified while the reader is in use.
+     * @return pull parser reading the JSON one token at a time
+     */
+    public static JSONReader reader(byte[] utf8) {
+        return new JSONReader(JSONSource.of(utf8, 0, utf8.length));
+    }
+
+    /**
+     * Calls the visitor for each token in document order without building a tree. See {@link JSONVisitor}.
+     *
+     * @param json    JSON object or array
+     * @param visitor callbacks
+     */
+    public static void visit(String json, JSONVisitor visitor) {
+        JSONPushParser.visit(JSONSource.of(json), visitor);
+    }
+
+    /**
+     * Calls the visitor for each token of UTF-8 encoded JSON, without decoding it to a String first. See {@link JSONVisitor}.
+     *
+     * @param utf8    UTF-8 encoded JSON object or array
+     * @param visitor callbacks
+     */
+    public static void visit(byte[] utf8, JSONVisitor visitor) {
+        JSONPushParser.visit(JSONSource.of(utf8, 0, utf8.length), visitor);
+    }
+
+    /**
+     * Calls the visitor for each token of a UTF-8 encoded file read through a read-only memory mapping. See {@link JSONVisitor}.
+     * A file of 2GiB or larger is mapped one window at a time and fed to a {@link JSONFeeder}.
+     *
+     * @param path    UTF-8 encoded JSON object or array
+     * @param visitor callbacks
+     * @throws IOException when the file cannot be read
+     */
+    public static void visit(Path path, JSONVisitor visitor) throws IOException {
+        JSONPushParser.visit(path, visitor, JSONPushParser.WINDOW);
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON fed in chunks, as they are read from a non-blocking channel. See {@link JSONFeeder}.
+     *
+     * @return feeder building a JSONObject or JSONArray available once the input has ended
+     */
+    public static JSONFeeder feeder() {
+        return JSONFeeder.of(null);
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON fed in chunks, calling the visitor as the tokens are completed. See {@link JSONFeeder} and {@link JSONVisitor}.
+     *
+     * @param visitor callbacks
+     * @return feeder calling the visitor
+     */
+    public static JSONFeeder feeder(JSONVisitor visitor) {
+        return JSONFeeder.of(Objects.requireNonNull(visitor));
+    }
+
+    /**
+     * Reads successive objects and arrays, one per line (JSON Lines / NDJSON) or concatenated.
+     *
+     * @param reader JSON values. Closed when the returned reader is closed.
+     * @return reader of the values
+     */
+    public static JSONSequenceReader readSequence(Reader reader) {
+        return JSONSequenceReader.of(reader);
+    }
+
+    /**
+     * Reads successive objects and arrays, one per line (JSON Lines / NDJSON) or concatenated. Records are parsed without decoding them to Strings.
+     *
+     * @param in UTF-8 encoded JSON values. Closed when the returned reader is closed.
+     * @return reader of the values
+     */
+    public static JSONSequenceReader readSequence(InputStream in) {
+        return JSONSequenceReader.of(in);
+    }
+
+    /**
+     * Reads successive objects and arrays, one per line (JSON Lines / NDJSON) or concatenated, through a read-only memory mapping.
+     * Values refer to positions in the mapping and records are not copied.
+     *
+     * A file of 2GiB or larger is mapped one window at a time, and is kept open until the reader is closed or the last window is mapped.
+     *
+     * @param path UTF-8 encoded JSON values. The file must not be modified while the returned values are in use.
+     * @return reader of the values
+     * @throws IOException when the file cannot be read
+     */
+    public static JSONSequenceReader readSequence(Path path) throws IOException {
+        return JSONSequenceReader.of(path);
+    }
+
+    /**
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null.
+     *              Parsed objects and arrays are copied verbatim from the text they were parsed from.
+     * @return JSON text
+     */
+    public static String toJSONString(Object value) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new JSONWriter(sb).write(value);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes JSON text. Parsed objects and arrays are copied verbatim, in one bulk write per subtree, from the text they were parsed from.
+     *
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null
+     * @param out   destination
+     * @throws IOException when out fails
+     */
+    public static void write(Object value, Appendable out) throws IOException {
+        new JSONWriter(out).write(value);
+    }
+
+    /**
+     * Writes UTF-8 encoded JSON text. Parsed objects and arrays are copied verbatim from the text they were parsed from,
+     * byte for byte when they were parsed from UTF-8.
+     *
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null
+     * @param out   destination. Flushed, but not closed.
+     * @throws IOException when out fails
+     */
+    public static void write(Object value, OutputStream out) throws IOException {
+        JSONWriter writer = new JSONWriter(out);
+        writer.write(value);
+        writer.flush();
+    }
+
+    static JSONArray parseArray(JSONSource source, ParseOptions options) {
+        JSONTokenizer jsonTokenizer = options.tokenizer(source);
+        JSONArray jsonArray;
+        switch (options.mode) {
+            case TAPE:
+                jsonArray = new JSONArray(JSONTape.parse(jsonTokenizer, JSONTokenizer.JsonEventType.START_ARRAY), 0);
+                break;
+            case LAZY:
+                jsonArray = new JSONArray(JSONBoundaries.scan(jsonTokenizer, JSONTokenizer.JsonEventType.START_ARRAY), 0);
+                break;
+            default:
+                jsonArray = new JSONArray(jsonTokenizer, jsonTokenizer.next());
+                break;
+        }
+        if (jsonTokenizer.next() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        return jsonArray;
+    }
+
 }
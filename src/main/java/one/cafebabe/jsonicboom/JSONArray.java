@@ -24,13 +24,34 @@ import java.util.List;
 import java.util.Objects;
 
 public final class JSONArray {
-    private final List<Object> arrayValues = new ArrayList<>();
-    private final String jsonString;
-    private final int startIndex;
-    private final int endIndex;
+    // assigned on the first access when this array is lazily parsed
+    private volatile List<Object> arrayValues;
+    // null for the top-level array of a file parsed in windows, whose values are read from several mappings
+    final JSONSource source;
+    final int startIndex;
+    final int endIndex;
+
+    // non-null when this array is a view over a tape
+    private final JSONTape tape;
+    private final int tapePosition;
+    // tape positions of the values, built on the first indexed access when values are not laid out at a fixed stride
+    private volatile int[] elements;
+
+    // non-null when this array is lazily parsed
+    private final JSONBoundaries boundaries;
+    private final int container;
+
+    // non-null when this array is the result of an edit: added to the positions of a value to get its position in source
+    private final int[] shifts;
 
     JSONArray(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonIndices next) {
-        jsonString = jsonTokenizer.jsonString;
+        arrayValues = new ArrayList<>();
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = jsonTokenizer.source;
         startIndex = next.startIndex;
         next = jsonTokenizer.next();
         int endIndex = -1;
@@ -67,38 +88,291 @@ public final class JSONArray {
         this.endIndex = endIndex;
     }
 
+    /**
+     * Applies the projection to the objects in this array.
+     */
+    JSONArray(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonIndices next, Projection projection) {
+        arrayValues = new ArrayList<>();
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = jsonTokenizer.source;
+        startIndex = next.startIndex;
+        JSONTokenizer.JsonEventType eventType;
+        while ((eventType = jsonTokenizer.nextEvent()) != JSONTokenizer.JsonEventType.END_ARRAY) {
+            if (eventType != JSONTokenizer.JsonEventType.COMMA) {
+                arrayValues.add(Projection.value(jsonTokenizer, eventType, projection));
+            }
+        }
+        this.endIndex = jsonTokenizer.tokenEnd;
+    }
+
+    JSONArray(JSONSource source, int startIndex, int endIndex, List<Object> arrayValues) {
+        this(source, startIndex, endIndex, arrayValues, null);
+    }
+
+    /**
+     * The top-level array of a file parsed by {@link JSONWindowedParser}. It has no text of its own: it is written value by value.
+     */
+    JSONArray(List<Object> arrayValues) {
+        this(null, -1, -1, arrayValues, null);
+    }
+
+    private JSONArray(JSONSource source, int startIndex, int endIndex, List<Object> arrayValues, int[] shifts) {
+        this.arrayValues = arrayValues;
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        this.shifts = shifts;
+        this.source = source;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    JSONArray(JSONTape tape, int tapePosition) {
+        arrayValues = null;
+        this.tape = tape;
+        this.tapePosition = tapePosition;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = tape.source;
+        startIndex = tape.start(tapePosition);
+        endIndex = tape.end(tapePosition);
+    }
+
+    JSONArray(JSONBoundaries boundaries, int container) {
+        tape = null;
+        tapePosition = -1;
+        this.boundaries = boundaries;
+        this.container = container;
+        shifts = null;
+        source = boundaries.source;
+        startIndex = boundaries.start(container);
+        endIndex = boundaries.end(container);
+    }
+
+    /**
+     * Fills the values of a lazily parsed array. Nested containers are created lazily as well and their contents are skipped.
+     */
+    private void materialize() {
+        if (arrayValues != null || boundaries == null) {
+            return;
+        }
+        List<Object> arrayValues = new ArrayList<>();
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source, startIndex);
+        jsonTokenizer.nextEvent();
+        int child = container + 1;
+        JSONTokenizer.JsonEventType eventType;
+        while ((eventType = jsonTokenizer.nextEvent()) != JSONTokenizer.JsonEventType.END_ARRAY) {
+            switch (eventType) {
+                case START_OBJECT:
+                    arrayValues.add(new JSONObject(boundaries, child));
+                    jsonTokenizer.skipContainer(boundaries.end(child));
+                    child = boundaries.next(child);
+                    break;
+                case START_ARRAY:
+                    arrayValues.add(new JSONArray(boundaries, child));
+                    jsonTokenizer.skipContainer(boundaries.end(child));
+                    child = boundaries.next(child);
+                    break;
+                case VALUE_STRING:
+                case VALUE_NUMBER:
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                case VALUE_NULL:
+                    arrayValues.add(new JSONTokenizer.JsonIndices(source, eventType, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind).share(boundaries.symbols));
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.arrayValues = arrayValues;
+    }
+
+    private Object value(int index) {
+        if (tape == null) {
+            materialize();
+            return arrayValues.get(index);
+        }
+        int length = length();
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+        }
+        if (!tape.hasNestedContainer(tapePosition)) {
+            return tape.value(tapePosition + JSONTape.CONTAINER_WORDS + index * JSONTape.SCALAR_WORDS);
+        }
+        int[] elements = this.elements;
+        if (elements == null) {
+            elements = tape.elements(tapePosition);
+            this.elements = elements;
+        }
+        return tape.value(elements[index]);
+    }
+
+    /**
+     * @return the values, read from the tape for a tape view
+     */
+    List<Object> values() {
+        if (tape == null) {
+            materialize();
+            return arrayValues;
+        }
+        int length = length();
+        List<Object> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(value(i));
+        }
+        return values;
+    }
+
+    private int shift(int index) {
+        return shifts == null ? 0 : shifts[index];
+    }
+
+    /**
+     * Returns a copy of this array with the value replaced. The text is spliced into the source without copying it and only the new value is parsed,
+     * so the cost is proportional to the length of the array and the size of the value, not to the size of the document.
+     *
+     * @param index index
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null
+     * @return edited copy
+     */
+    public JSONArray set(int index, @Nullable Object value) {
+        List<Object> values = values();
+        Object old = values.get(index);
+        return edit(values, index, true, JSONEditor.start(old) + shift(index), JSONEditor.end(old) + shift(index), "", value);
+    }
+
+    /**
+     * Returns a copy of this array with the value appended, spliced as {@link #set(int, Object)} does.
+     *
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null
+     * @return edited copy
+     */
+    public JSONArray with(@Nullable Object value) {
+        List<Object> values = values();
+        int position = source == null ? -1 : JSONEditor.appendPosition(source, endIndex);
+        return edit(values, values.size(), false, position, position, values.isEmpty() ? "" : ",", value);
+    }
+
+    /**
+     * Returns a copy of this array without the value, removing its text from the source as {@link #set(int, Object)} splices it.
+     *
+     * @param index index
+     * @return edited copy
+     */
+    public JSONArray without(int index) {
+        List<Object> values = values();
+        Object old = values.get(index);
+        if (source == null) {
+            return edit(values, index, true, -1, -1, null, null);
+        }
+        int[] removal = JSONEditor.removal(source, JSONEditor.start(old) + shift(index), JSONEditor.end(old) + shift(index));
+        return edit(values, index, true, removal[0], removal[1], null, null);
+    }
+
+    /**
+     * @param index  index of the replaced or inserted value
+     * @param remove true if the value at the index is replaced or removed
+     * @param start  start of the replaced text
+     * @param end    end of the replaced text
+     * @param prefix text preceding the inserted value, or null to insert nothing
+     * @param value  inserted value
+     */
+    private JSONArray edit(List<Object> values, int index, boolean remove, int start, int end, @Nullable String prefix, @Nullable Object value) {
+        if (source == null) {
+            // no text to splice into
+            List<Object> editedValues = new ArrayList<>(values.subList(0, index));
+            if (prefix != null) {
+                editedValues.add(JSONEditor.parsed(value, true));
+            }
+            editedValues.addAll(values.subList(remove ? index + 1 : index, values.size()));
+            return new JSONArray(editedValues);
+        }
+        boolean encoded = source.isEncoded();
+        JSONSource.Splicer splicer = new JSONSource.Splicer(encoded).add(source, 0, start);
+        Object parsed = null;
+        int valuePosition = -1;
+        if (prefix != null) {
+            parsed = JSONEditor.parsed(value, encoded);
+            valuePosition = splicer.add(prefix).length();
+            splicer.add(JSONEditor.source(parsed), JSONEditor.start(parsed), JSONEditor.end(parsed));
+        }
+        int delta = splicer.length() - end;
+        JSONSource edited = splicer.add(source, end, source.length()).build();
+
+        int following = remove ? index + 1 : index;
+        List<Object> editedValues = new ArrayList<>(values.size() + 1);
+        editedValues.addAll(values.subList(0, index));
+        if (parsed != null) {
+            editedValues.add(parsed);
+        }
+        editedValues.addAll(values.subList(following, values.size()));
+        int[] shifts = new int[editedValues.size()];
+        int next = 0;
+        for (int i = 0; i < index; i++) {
+            shifts[next++] = shift(i);
+        }
+        if (parsed != null) {
+            shifts[next++] = valuePosition - JSONEditor.start(parsed);
+        }
+        // values follow each other in the text
+        for (int i = following; i < values.size(); i++) {
+            shifts[next++] = shift(i) + delta;
+        }
+        return new JSONArray(edited, startIndex, endIndex + delta, editedValues, shifts);
+    }
+
     public int length() {
+        if (tape != null) {
+            return tape.count(tapePosition);
+        }
+        materialize();
         return arrayValues.size();
     }
 
+    /**
+     * @param index index
+     * @return value typed as {@link JSONObject#get(String)} does
+     */
+    @Nullable
+    public Object get(int index) {
+        Object o = value(index);
+        return o instanceof JSONTokenizer.JsonIndices ? ((JSONTokenizer.JsonIndices) o).toObject() : o;
+    }
+
     @Nullable
     public String getString(int index) {
-        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) arrayValues.get(index);
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value(index);
         return jsonIndices.getValue();
     }
 
     public int getInt(int index) {
-        String value = getString(index);
-        if (value == null) {
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value(index);
+        if (jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.VALUE_NULL) {
             return -1;
         }
-        return Integer.parseInt(value);
+        return jsonIndices.intValue();
     }
 
     public long getLong(int index) {
-        String value = getString(index);
-        if (value == null) {
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value(index);
+        if (jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.VALUE_NULL) {
             return -1;
         }
-        return Long.parseLong(value);
+        return jsonIndices.longValue();
     }
 
     public double getDouble(int index) {
-        String value = getString(index);
-        if (value == null) {
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value(index);
+        if (jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.VALUE_NULL) {
             return -1;
         }
-        return Double.parseDouble(value);
+        return jsonIndices.doubleValue();
     }
 
     @Nullable
@@ -120,12 +394,12 @@ public final class JSONArray {
 
     @Nullable
     public JSONArray getJSONArray(int index) {
-        return (JSONArray) arrayValues.get(index);
+        return (JSONArray) value(index);
     }
 
     @Nullable
     public JSONObject getJSONObject(int index) {
-        return (JSONObject) arrayValues.get(index);
+        return (JSONObject) value(index);
     }
 
 
@@ -263,16 +537,19 @@ public final class JSONArray {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         JSONArray jsonArray = (JSONArray) o;
-        return startIndex == jsonArray.startIndex && endIndex == jsonArray.endIndex && Objects.equals(arrayValues, jsonArray.arrayValues) && Objects.equals(jsonString, jsonArray.jsonString);
+        materialize();
+        jsonArray.materialize();
+        return startIndex == jsonArray.startIndex && endIndex == jsonArray.endIndex && Objects.equals(arrayValues, jsonArray.arrayValues) && Objects.equals(source, jsonArray.source);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(arrayValues, jsonString, startIndex, endIndex);
+        materialize();
+        return Objects.hash(arrayValues, source, startIndex, endIndex);
     }
 
     @Override
     public String toString() {
-        return jsonString.substring(startIndex, endIndex);
+        return source == null ? JSON.toJSONString(this) : source.substring(startIndex, endIndex);
     }
 }
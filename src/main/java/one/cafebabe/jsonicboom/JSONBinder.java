@@ -0,0 +1,688 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+/**
+ * Binds JSON objects to POJOs and records straight from the tokens, without building JSONObjects first.<br>
+ * A binder is built once per class and cached in a ClassValue. A POJO is created with its no-argument constructor and gets its public setters,
+ * or else its fields, through MethodHandles, primitives without boxing. A record is created with its canonical constructor,
+ * from arguments gathered in typed slots so that primitive components are not boxed either.
+ * Keys without a property are skipped, and properties without a key keep their initial values.
+ * A class annotated with {@link JsonCodec} is bound by its generated codec instead.
+ */
+final class JSONBinder {
+    private static final ClassValue<JSONBinder> BINDERS = new ClassValue<JSONBinder>() {
+        @Override
+        protected JSONBinder computeValue(Class<?> type) {
+            return new JSONBinder(type);
+        }
+    };
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    // Class.isRecord() and Class.getRecordComponents(), Java 16 or later
+    private static final Method IS_RECORD = classMethod("isRecord");
+    private static final Method GET_RECORD_COMPONENTS = classMethod("getRecordComponents");
+
+    private final Class<?> type;
+    /**
+     * ()Object for a POJO, (RecordArguments)Object for a record
+     */
+    private final MethodHandle constructor;
+    /**
+     * number of record components, -1 for a POJO
+     */
+    private final int components;
+    private final Property[] properties;
+
+    private JSONBinder(Class<?> type) {
+        this.type = type;
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isPrimitive() || type.isArray() || type.isEnum()) {
+            throw new IllegalArgumentException("Can't bind JSON object to " + type.getName());
+        }
+        try {
+            if (isRecord(type)) {
+                Object[] recordComponents = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+                components = recordComponents.length;
+                Class<?>[] types = new Class<?>[components];
+                properties = new Property[components];
+                for (int i = 0; i < components; i++) {
+                    Class<?> componentClass = recordComponents[i].getClass();
+                    types[i] = (Class<?>) componentClass.getMethod("getType").invoke(recordComponents[i]);
+                    properties[i] = property((String) componentClass.getMethod("getName").invoke(recordComponents[i]),
+                            RecordArguments.setter(i, types[i]), (Type) componentClass.getMethod("getGenericType").invoke(recordComponents[i]));
+                }
+                Constructor<?> canonical = type.getDeclaredConstructor(types);
+                setAccessible(canonical);
+                constructor = RecordArguments.constructor(LOOKUP.unreflectConstructor(canonical).asType(MethodType.methodType(Object.class, types)));
+            } else {
+                Constructor<?> noArgument = type.getDeclaredConstructor();
+                setAccessible(noArgument);
+                constructor = LOOKUP.unreflectConstructor(noArgument).asType(MethodType.methodType(Object.class));
+                components = -1;
+                properties = pojoProperties(type);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Can't bind JSON object to " + type.getName(), e);
+        }
+    }
+
+    static JSONBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * @param source JSON object or array
+     * @param type   type of the value
+     * @return bound value
+     */
+    static Object parse(JSONSource source, Type type) {
+        return parse(source, reader(type));
+    }
+
+    /**
+     * @param source      JSON array
+     * @param elementType type of the elements
+     * @return bound elements
+     */
+    static List<?> parseList(JSONSource source, Type elementType) {
+        return (List<?>) parse(source, collection(false, reader(elementType)));
+    }
+
+    private static Object parse(JSONSource source, ValueReader reader) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
+        JsonEventType eventType = jsonTokenizer.nextEvent();
+        if (eventType == null) {
+            throw new IllegalJSONFormatException("Unexpected end of JSON.");
+        }
+        Object value = reader.read(jsonTokenizer, eventType);
+        if (jsonTokenizer.nextEvent() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        return value;
+    }
+
+    /**
+     * @param jsonTokenizer tokenizer positioned at the first token of the object
+     * @param eventType     type of the first token
+     * @return bound object, or null for null
+     */
+    Object read(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        if (eventType == JsonEventType.VALUE_NULL) {
+            return null;
+        }
+        expect(jsonTokenizer, eventType, JsonEventType.START_OBJECT, "an object");
+        try {
+            Object target = components == -1 ? (Object) constructor.invokeExact() : new RecordArguments(components);
+            // keys usually come in the order of the properties
+            int guess = 0;
+            JsonEventType next;
+            while ((next = jsonTokenizer.nextEvent()) != JsonEventType.END_OBJECT) {
+                if (next != JsonEventType.KEY_NAME) {
+                    continue;
+                }
+                int property = find(jsonTokenizer.source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, guess);
+                // colon
+                jsonTokenizer.nextEvent();
+                next = jsonTokenizer.nextEvent();
+                if (property == -1) {
+                    skip(jsonTokenizer, next);
+                } else {
+                    properties[property].read(jsonTokenizer, next, target);
+                    guess = property + 1;
+                }
+            }
+            return components == -1 ? target : (Object) constructor.invokeExact((RecordArguments) target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Can't bind JSON object to " + type.getName(), e);
+        }
+    }
+
+    private int find(JSONSource source, int start, int end, int guess) {
+        for (int i = 0; i < properties.length; i++) {
+            int candidate = guess + i < properties.length ? guess + i : guess + i - properties.length;
+            if (source.unescapedEquals(start, end, properties[candidate].name)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips a value, the contents of a container included.
+     */
+    static void skip(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        if (eventType == JsonEventType.START_OBJECT || eventType == JsonEventType.START_ARRAY) {
+            jsonTokenizer.skipChildren();
+        }
+    }
+
+    /**
+     * Fields, from the superclasses down, then public setters, which take the place of the field of the same name.
+     */
+    private static Property[] pojoProperties(Class<?> type) throws IllegalAccessException {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()
+                        || !setAccessible(field)) {
+                    continue;
+                }
+                properties.put(field.getName(), property(field.getName(), LOOKUP.unreflectSetter(field), field.getGenericType()));
+            }
+        }
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1 || name.length() < 4 || !name.startsWith("set")
+                    || method.isBridge() || !setAccessible(method)) {
+                continue;
+            }
+            String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+            properties.put(property, property(property, LOOKUP.unreflect(method), method.getGenericParameterTypes()[0]));
+        }
+        return properties.values().toArray(new Property[0]);
+    }
+
+    private static boolean setAccessible(java.lang.reflect.AccessibleObject accessibleObject) {
+        try {
+            accessibleObject.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            // not opened to this module
+            return false;
+        }
+    }
+
+    private static Property property(String name, MethodHandle setter, Type type) {
+        Class<?> parameter = setter.type().parameterType(1);
+        if (parameter == int.class) {
+            return new IntProperty(name, setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+        } else if (parameter == long.class) {
+            return new LongProperty(name, setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+        } else if (parameter == double.class) {
+            return new DoubleProperty(name, setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+        } else if (parameter == boolean.class) {
+            return new BooleanProperty(name, setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+        }
+        return new ObjectProperty(name, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)), reader(type), parameter.isPrimitive());
+    }
+
+    private abstract static class Property {
+        final String name;
+
+        Property(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param target POJO, or {@link RecordArguments}
+         */
+        abstract void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable;
+    }
+
+    private static final class IntProperty extends Property {
+        private final MethodHandle setter;
+
+        IntProperty(String name, MethodHandle setter) {
+            super(name);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable {
+            if (eventType != JsonEventType.VALUE_NULL) {
+                setter.invokeExact(target, intValue(jsonTokenizer, eventType));
+            }
+        }
+    }
+
+    private static final class LongProperty extends Property {
+        private final MethodHandle setter;
+
+        LongProperty(String name, MethodHandle setter) {
+            super(name);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable {
+            if (eventType != JsonEventType.VALUE_NULL) {
+                setter.invokeExact(target, longValue(jsonTokenizer, eventType));
+            }
+        }
+    }
+
+    private static final class DoubleProperty extends Property {
+        private final MethodHandle setter;
+
+        DoubleProperty(String name, MethodHandle setter) {
+            super(name);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable {
+            if (eventType != JsonEventType.VALUE_NULL) {
+                setter.invokeExact(target, doubleValue(jsonTokenizer, eventType));
+            }
+        }
+    }
+
+    private static final class BooleanProperty extends Property {
+        private final MethodHandle setter;
+
+        BooleanProperty(String name, MethodHandle setter) {
+            super(name);
+            this.setter = setter;
+        }
+
+        @Override
+        void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable {
+            if (eventType != JsonEventType.VALUE_NULL) {
+                setter.invokeExact(target, booleanValue(jsonTokenizer, eventType));
+            }
+        }
+    }
+
+    private static final class ObjectProperty extends Property {
+        private final MethodHandle setter;
+        private final ValueReader reader;
+        // null leaves a primitive as it is
+        private final boolean primitive;
+
+        ObjectProperty(String name, MethodHandle setter, ValueReader reader, boolean primitive) {
+            super(name);
+            this.setter = setter;
+            this.reader = reader;
+            this.primitive = primitive;
+        }
+
+        @Override
+        void read(JSONTokenizer jsonTokenizer, JsonEventType eventType, Object target) throws Throwable {
+            Object value = reader.read(jsonTokenizer, eventType);
+            if (value != null || !primitive) {
+                setter.invokeExact(target, value);
+            }
+        }
+    }
+
+    /**
+     * Arguments of a record constructor while the object is read: primitives in a long each, doubles and floats as their bits, references in an Object each.
+     * A component without a key keeps the default value of its type.
+     */
+    private static final class RecordArguments {
+        private static final MethodHandle SET_LONG = handle("setLong", void.class, RecordArguments.class, int.class, long.class);
+        private static final MethodHandle SET_DOUBLE = handle("setDouble", void.class, RecordArguments.class, int.class, double.class);
+        private static final MethodHandle SET_BOOLEAN = handle("setBoolean", void.class, RecordArguments.class, int.class, boolean.class);
+        private static final MethodHandle SET_OBJECT = handle("setObject", void.class, RecordArguments.class, int.class, Object.class);
+        private static final MethodHandle GET_LONG = handle("getLong", long.class, RecordArguments.class, int.class);
+        private static final MethodHandle GET_DOUBLE = handle("getDouble", double.class, RecordArguments.class, int.class);
+        private static final MethodHandle GET_BOOLEAN = handle("getBoolean", boolean.class, RecordArguments.class, int.class);
+        private static final MethodHandle GET_OBJECT = handle("getObject", Object.class, RecordArguments.class, int.class);
+
+        private final long[] primitives;
+        private final Object[] objects;
+
+        RecordArguments(int components) {
+            primitives = new long[components];
+            objects = new Object[components];
+        }
+
+        private static MethodHandle handle(String name, Class<?> returnType, Class<?>... parameterTypes) {
+            try {
+                return LOOKUP.findStatic(RecordArguments.class, name, MethodType.methodType(returnType, parameterTypes));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /**
+         * @param index component index
+         * @param type  component type
+         * @return (Object, type)void storing the component
+         */
+        static MethodHandle setter(int index, Class<?> type) {
+            MethodHandle setter = type == boolean.class ? SET_BOOLEAN : type == double.class || type == float.class ? SET_DOUBLE
+                    : type.isPrimitive() ? SET_LONG : SET_OBJECT;
+            return MethodHandles.insertArguments(setter, 1, index).asType(MethodType.methodType(void.class, Object.class, type));
+        }
+
+        /**
+         * @param canonical (component types)Object
+         * @return (RecordArguments)Object, each component read from its slot
+         */
+        static MethodHandle constructor(MethodHandle canonical) {
+            int count = canonical.type().parameterCount();
+            MethodHandle[] getters = new MethodHandle[count];
+            for (int i = 0; i < count; i++) {
+                Class<?> type = canonical.type().parameterType(i);
+                MethodHandle getter = type == boolean.class ? GET_BOOLEAN : type == double.class || type == float.class ? GET_DOUBLE
+                        : type.isPrimitive() ? GET_LONG : GET_OBJECT;
+                // narrows long to int, short, byte and char, and double to float
+                getters[i] = MethodHandles.explicitCastArguments(MethodHandles.insertArguments(getter, 1, i),
+                        MethodType.methodType(type, RecordArguments.class));
+            }
+            // every component reads the same arguments
+            return MethodHandles.permuteArguments(MethodHandles.filterArguments(canonical, 0, getters),
+                    MethodType.methodType(Object.class, RecordArguments.class), new int[count]);
+        }
+
+        // the accessors are package-private so that a lookup on JSONBinder reaches them on Java 8 as well
+        static void setLong(RecordArguments arguments, int index, long value) {
+            arguments.primitives[index] = value;
+        }
+
+        static void setDouble(RecordArguments arguments, int index, double value) {
+            arguments.primitives[index] = Double.doubleToRawLongBits(value);
+        }
+
+        static void setBoolean(RecordArguments arguments, int index, boolean value) {
+            arguments.primitives[index] = value ? 1 : 0;
+        }
+
+        static void setObject(RecordArguments arguments, int index, Object value) {
+            arguments.objects[index] = value;
+        }
+
+        static long getLong(RecordArguments arguments, int index) {
+            return arguments.primitives[index];
+        }
+
+        static double getDouble(RecordArguments arguments, int index) {
+            return Double.longBitsToDouble(arguments.primitives[index]);
+        }
+
+        static boolean getBoolean(RecordArguments arguments, int index) {
+            return arguments.primitives[index] != 0;
+        }
+
+        static Object getObject(RecordArguments arguments, int index) {
+            return arguments.objects[index];
+        }
+    }
+
+    /**
+     * Reads a value of a type, null for null.
+     */
+    interface ValueReader {
+        /**
+         * @param jsonTokenizer tokenizer positioned at the first token of the value
+         * @param eventType     type of the first token
+         * @return value
+         */
+        Object read(JSONTokenizer jsonTokenizer, JsonEventType eventType);
+    }
+
+    static ValueReader reader(Type type) {
+        Class<?> raw = rawType(type);
+        if (raw == String.class) {
+            return JSONBinder::string;
+        } else if (raw == int.class || raw == Integer.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) intValue(jsonTokenizer, eventType);
+        } else if (raw == long.class || raw == Long.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) longValue(jsonTokenizer, eventType);
+        } else if (raw == double.class || raw == Double.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) doubleValue(jsonTokenizer, eventType);
+        } else if (raw == float.class || raw == Float.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) (float) doubleValue(jsonTokenizer, eventType);
+        } else if (raw == short.class || raw == Short.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) (short) narrow(jsonTokenizer, eventType, Short.MIN_VALUE, Short.MAX_VALUE);
+        } else if (raw == byte.class || raw == Byte.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) (byte) narrow(jsonTokenizer, eventType, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        } else if (raw == boolean.class || raw == Boolean.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : (Object) booleanValue(jsonTokenizer, eventType);
+        } else if (raw == char.class || raw == Character.class) {
+            return JSONBinder::character;
+        } else if (raw == BigDecimal.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : new BigDecimal(number(jsonTokenizer, eventType));
+        } else if (raw == BigInteger.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null : new BigInteger(number(jsonTokenizer, eventType));
+        } else if (raw == Object.class) {
+            return JSONBinder::object;
+        } else if (raw == JSONObject.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null
+                    : new JSONObject(jsonTokenizer, token(jsonTokenizer, expect(jsonTokenizer, eventType, JsonEventType.START_OBJECT, "an object")));
+        } else if (raw == JSONArray.class) {
+            return (jsonTokenizer, eventType) -> eventType == JsonEventType.VALUE_NULL ? null
+                    : new JSONArray(jsonTokenizer, token(jsonTokenizer, expect(jsonTokenizer, eventType, JsonEventType.START_ARRAY, "an array")));
+        } else if (raw.isEnum()) {
+            return enumeration(raw);
+        } else if (raw.isArray()) {
+            return array(raw.getComponentType(), reader(type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : raw.getComponentType()));
+        } else if (raw.isAssignableFrom(ArrayList.class)) {
+            return collection(false, reader(typeArgument(type, 0)));
+        } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+            return collection(true, reader(typeArgument(type, 0)));
+        } else if (raw.isAssignableFrom(LinkedHashMap.class)) {
+            return map(reader(typeArgument(type, 1)));
+        } else if (Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw)) {
+            throw new IllegalArgumentException("Can't bind JSON to " + type.getTypeName());
+        }
+        // looked up on use, as the class may refer to itself
+        return (jsonTokenizer, eventType) -> {
+            GeneratedCodec<?> codec = GeneratedCodec.of(raw);
+            return codec != null ? codec.decode(new GeneratedCodec.Input(jsonTokenizer, eventType)) : of(raw).read(jsonTokenizer, eventType);
+        };
+    }
+
+    private static ValueReader collection(boolean set, ValueReader element) {
+        return (jsonTokenizer, eventType) -> {
+            if (eventType == JsonEventType.VALUE_NULL) {
+                return null;
+            }
+            expect(jsonTokenizer, eventType, JsonEventType.START_ARRAY, "an array");
+            Collection<Object> values = set ? new LinkedHashSet<>() : new ArrayList<>();
+            JsonEventType next;
+            while ((next = jsonTokenizer.nextEvent()) != JsonEventType.END_ARRAY) {
+                if (next != JsonEventType.COMMA) {
+                    values.add(element.read(jsonTokenizer, next));
+                }
+            }
+            return values;
+        };
+    }
+
+    private static ValueReader array(Class<?> componentType, ValueReader element) {
+        ValueReader list = collection(false, element);
+        return (jsonTokenizer, eventType) -> {
+            List<?> values = (List<?>) list.read(jsonTokenizer, eventType);
+            if (values == null) {
+                return null;
+            }
+            Object array = Array.newInstance(componentType, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, values.get(i));
+            }
+            return array;
+        };
+    }
+
+    private static ValueReader map(ValueReader value) {
+        return (jsonTokenizer, eventType) -> {
+            if (eventType == JsonEventType.VALUE_NULL) {
+                return null;
+            }
+            expect(jsonTokenizer, eventType, JsonEventType.START_OBJECT, "an object");
+            Map<String, Object> values = new LinkedHashMap<>();
+            JsonEventType next;
+            while ((next = jsonTokenizer.nextEvent()) != JsonEventType.END_OBJECT) {
+                if (next == JsonEventType.KEY_NAME) {
+                    String key = jsonTokenizer.source.unescape(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+                    // colon
+                    jsonTokenizer.nextEvent();
+                    values.put(key, value.read(jsonTokenizer, jsonTokenizer.nextEvent()));
+                }
+            }
+            return values;
+        };
+    }
+
+    private static ValueReader enumeration(Class<?> type) {
+        Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+        return (jsonTokenizer, eventType) -> {
+            if (eventType == JsonEventType.VALUE_NULL) {
+                return null;
+            }
+            expect(jsonTokenizer, eventType, JsonEventType.VALUE_STRING, "a string");
+            for (Enum<?> constant : constants) {
+                if (jsonTokenizer.source.unescapedEquals(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, constant.name())) {
+                    return constant;
+                }
+            }
+            throw new IllegalJSONFormatException("No constant of " + type.getName() + ".", jsonTokenizer.source, jsonTokenizer.tokenStart);
+        };
+    }
+
+    static Object object(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        switch (eventType) {
+            case START_OBJECT:
+                return new JSONObject(jsonTokenizer, token(jsonTokenizer, eventType));
+            case START_ARRAY:
+                return new JSONArray(jsonTokenizer, token(jsonTokenizer, eventType));
+            default:
+                return token(jsonTokenizer, eventType).toObject();
+        }
+    }
+
+    private static JSONTokenizer.JsonIndices token(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        return new JSONTokenizer.JsonIndices(jsonTokenizer.source, eventType, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind);
+    }
+
+    static String string(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        if (eventType == JsonEventType.VALUE_NULL) {
+            return null;
+        }
+        expect(jsonTokenizer, eventType, JsonEventType.VALUE_STRING, "a string");
+        return jsonTokenizer.source.unescape(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+    }
+
+    private static Character character(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        String string = string(jsonTokenizer, eventType);
+        if (string == null) {
+            return null;
+        }
+        if (string.length() != 1) {
+            throw new IllegalJSONFormatException("Expecting a character.", jsonTokenizer.source, jsonTokenizer.tokenStart);
+        }
+        return string.charAt(0);
+    }
+
+    static String number(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        expect(jsonTokenizer, eventType, JsonEventType.VALUE_NUMBER, "a number");
+        return jsonTokenizer.source.substring(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+    }
+
+    static int intValue(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        return (int) narrow(jsonTokenizer, eventType, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    private static long narrow(JSONTokenizer jsonTokenizer, JsonEventType eventType, long min, long max) {
+        long value = longValue(jsonTokenizer, eventType);
+        if (value < min || value > max) {
+            throw jsonTokenizer.source.numberFormatException(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+        }
+        return value;
+    }
+
+    static long longValue(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        expect(jsonTokenizer, eventType, JsonEventType.VALUE_NUMBER, "a number");
+        return jsonTokenizer.source.parseLong(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+    }
+
+    static double doubleValue(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        expect(jsonTokenizer, eventType, JsonEventType.VALUE_NUMBER, "a number");
+        return DoubleParser.parse(jsonTokenizer.source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+    }
+
+    static boolean booleanValue(JSONTokenizer jsonTokenizer, JsonEventType eventType) {
+        if (eventType == JsonEventType.VALUE_TRUE) {
+            return true;
+        } else if (eventType == JsonEventType.VALUE_FALSE) {
+            return false;
+        }
+        throw new IllegalJSONFormatException("Expecting a boolean, got " + eventType + ".", jsonTokenizer.source, jsonTokenizer.tokenStart);
+    }
+
+    static JsonEventType expect(JSONTokenizer jsonTokenizer, JsonEventType eventType, JsonEventType expected, String description) {
+        if (eventType != expected) {
+            throw new IllegalJSONFormatException("Expecting " + description + ", got " + eventType + ".", jsonTokenizer.source, jsonTokenizer.tokenStart);
+        }
+        return eventType;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable) {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        throw new IllegalArgumentException("Can't bind JSON to " + type.getTypeName());
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[index] : Object.class;
+    }
+
+    private static boolean isRecord(Class<?> type) throws ReflectiveOperationException {
+        return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+    }
+
+    private static Method classMethod(String name) {
+        try {
+            return Class.class.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            // Java 15 or earlier
+            return null;
+        }
+    }
+}
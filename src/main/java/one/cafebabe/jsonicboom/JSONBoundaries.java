@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+import java.util.Arrays;
+
+/**
+ * Start and end positions of every container in a validated document, in document order.<br>
+ * Each container takes 3 ints: start, end, and the number of the first container after it, which skips the nested ones.
+ */
+final class JSONBoundaries {
+    private static final int INTS = 3;
+
+    final JSONSource source;
+    /**
+     * symbol table of the parse, or null
+     */
+    final SymbolTable symbols;
+    private int[] containers = new int[16 * INTS];
+    private int size = 0;
+
+    private JSONBoundaries(JSONSource source, SymbolTable symbols) {
+        this.source = source;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Validates tokens until the first top-level container is closed, recording container boundaries only.
+     *
+     * @param tokenizer tokenizer positioned at the start of a container
+     * @param root      expected type of the root container
+     * @return boundaries whose root container is number 0
+     */
+    static JSONBoundaries scan(JSONTokenizer tokenizer, JsonEventType root) {
+        JSONBoundaries boundaries = new JSONBoundaries(tokenizer.source, tokenizer.symbols);
+        int[] open = new int[16];
+        int depth = 0;
+        JsonEventType eventType;
+        while ((eventType = tokenizer.nextEvent()) != null) {
+            switch (eventType) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    if (depth == 0 && eventType != root) {
+                        throw new IllegalJSONFormatException("Illegal JSON format");
+                    }
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = boundaries.open(tokenizer.tokenStart);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    boundaries.close(open[--depth], tokenizer.tokenEnd);
+                    if (depth == 0) {
+                        return boundaries;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        throw new IllegalJSONFormatException("Unexpected end of JSON.");
+    }
+
+    /**
+     * @return boundaries to be filled with {@link #open(int)} and {@link #close(int, int)} before the source is complete
+     */
+    static JSONBoundaries recorder() {
+        return new JSONBoundaries(null, null);
+    }
+
+    /**
+     * @param source the complete source
+     * @return the recorded boundaries over the source
+     */
+    JSONBoundaries withSource(JSONSource source) {
+        JSONBoundaries boundaries = new JSONBoundaries(source, symbols);
+        boundaries.containers = containers;
+        boundaries.size = size;
+        return boundaries;
+    }
+
+    /**
+     * Records the start of a container, in document order.
+     *
+     * @param start start position of the container
+     * @return handle of the container for {@link #close(int, int)}
+     */
+    int open(int start) {
+        if (size + INTS > containers.length) {
+            containers = Arrays.copyOf(containers, containers.length * 2);
+        }
+        containers[size] = start;
+        size += INTS;
+        return size - INTS;
+    }
+
+    /**
+     * @param handle handle returned by {@link #open(int)}
+     * @param end    end position of the container, exclusive
+     */
+    void close(int handle, int end) {
+        containers[handle + 1] = end;
+        containers[handle + 2] = size / INTS;
+    }
+
+    int start(int container) {
+        return containers[container * INTS];
+    }
+
+    int end(int container) {
+        return containers[container * INTS + 1];
+    }
+
+    /**
+     * @param container container number
+     * @return number of the first container after the container and its nested ones
+     */
+    int next(int container) {
+        return containers[container * INTS + 2];
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Helpers for the edits of {@link JSONObject} and {@link JSONArray}, which splice text into the source instead of rebuilding the document.<br>
+ * An edited object or array keeps the values it had. Each value stays readable from the source it was parsed from, and a shift per value
+ * maps its positions into the spliced source. Only an inserted value is parsed, from its own text.
+ */
+final class JSONEditor {
+    private JSONEditor() {
+    }
+
+    /**
+     * @param value JSONObject, JSONArray or JsonIndices
+     * @return start of the value in its source, the opening quote of a string
+     */
+    static int start(Object value) {
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).startIndex;
+        } else if (value instanceof JSONArray) {
+            return ((JSONArray) value).startIndex;
+        }
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value;
+        return isString(jsonIndices) ? jsonIndices.startIndex - 1 : jsonIndices.startIndex;
+    }
+
+    /**
+     * @param value JSONObject, JSONArray or JsonIndices
+     * @return end of the value in its source, exclusive, after the closing quote of a string
+     */
+    static int end(Object value) {
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).endIndex;
+        } else if (value instanceof JSONArray) {
+            return ((JSONArray) value).endIndex;
+        }
+        JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value;
+        return isString(jsonIndices) ? jsonIndices.endIndex + 1 : jsonIndices.endIndex;
+    }
+
+    /**
+     * @param value JSONObject, JSONArray or JsonIndices
+     * @return source of the value
+     */
+    static JSONSource source(Object value) {
+        if (value instanceof JSONObject) {
+            return ((JSONObject) value).source;
+        } else if (value instanceof JSONArray) {
+            return ((JSONArray) value).source;
+        }
+        return ((JSONTokenizer.JsonIndices) value).source;
+    }
+
+    private static boolean isString(JSONTokenizer.JsonIndices jsonIndices) {
+        return jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.VALUE_STRING || jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.KEY_NAME;
+    }
+
+    /**
+     * @param value   value to insert
+     * @param encoded true when inserting into a UTF-8 encoded source
+     * @return the value itself when it was parsed from a source of the same encoding, otherwise the value written and parsed
+     */
+    static Object parsed(Object value, boolean encoded) {
+        if ((value instanceof JSONObject || value instanceof JSONArray || value instanceof JSONTokenizer.JsonIndices)
+                && source(value) != null && source(value).isEncoded() == encoded) {
+            return value;
+        }
+        // a number ends at a delimiter, the closing bracket of the array the value is read from
+        String json = JSON.toJSONString(value) + "]";
+        byte[] utf8 = encoded ? json.getBytes(StandardCharsets.UTF_8) : null;
+        JSONSource source = encoded ? JSONSource.of(utf8, 0, utf8.length) : JSONSource.of(json);
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source);
+        jsonTokenizer.resumeArrayAfterComma();
+        JSONTokenizer.JsonIndices next = jsonTokenizer.next();
+        switch (next.jsonEventType) {
+            case START_OBJECT:
+                return new JSONObject(jsonTokenizer, next);
+            case START_ARRAY:
+                return new JSONArray(jsonTokenizer, next);
+            default:
+                return next;
+        }
+    }
+
+    /**
+     * @return the first position at or after index that is not whitespace
+     */
+    static int skipWhitespace(JSONSource source, int index) {
+        while (isWhitespace(source.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the last position at or before index that is not whitespace
+     */
+    static int skipWhitespaceBackward(JSONSource source, int index) {
+        while (isWhitespace(source.charAt(index))) {
+            index--;
+        }
+        return index;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * @param source     source of an object
+     * @param valueStart start of the value of a field
+     * @return position of the opening quote of the key of the field
+     */
+    static int keyStart(JSONSource source, int valueStart) {
+        int colon = skipWhitespaceBackward(source, valueStart - 1);
+        int index = skipWhitespaceBackward(source, colon - 1) - 1;
+        while (true) {
+            if (source.charAt(index) == '"') {
+                int backslashes = 0;
+                while (source.charAt(index - 1 - backslashes) == '\\') {
+                    backslashes++;
+                }
+                if (backslashes % 2 == 0) {
+                    return index;
+                }
+            }
+            index--;
+        }
+    }
+
+    /**
+     * Reads the fields of an object from its text, for an edit to see every field when a key appears more than once or when
+     * the object holds only the fields of a {@link Projection}.
+     *
+     * @param source     source of an object
+     * @param startIndex start of the object
+     * @return four positions per field: the opening quote of the key, the end of the key, the start and the end of the value
+     */
+    static int[] members(JSONSource source, int startIndex) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source, startIndex);
+        jsonTokenizer.nextEvent();
+        int[] members = new int[16];
+        int size = 0;
+        JSONTokenizer.JsonEventType eventType;
+        while ((eventType = jsonTokenizer.nextEvent()) != JSONTokenizer.JsonEventType.END_OBJECT) {
+            if (eventType != JSONTokenizer.JsonEventType.KEY_NAME) {
+                continue;
+            }
+            int keyStart = jsonTokenizer.tokenStart - 1;
+            int keyEnd = jsonTokenizer.tokenEnd;
+            // colon
+            jsonTokenizer.nextEvent();
+            eventType = jsonTokenizer.nextEvent();
+            int valueStart = jsonTokenizer.tokenStart;
+            if (eventType == JSONTokenizer.JsonEventType.START_OBJECT || eventType == JSONTokenizer.JsonEventType.START_ARRAY) {
+                jsonTokenizer.skipToEndOfContainer();
+            }
+            int valueEnd = jsonTokenizer.tokenEnd;
+            if (eventType == JSONTokenizer.JsonEventType.VALUE_STRING) {
+                valueStart--;
+                valueEnd++;
+            }
+            if (size + 4 > members.length) {
+                members = Arrays.copyOf(members, members.length * 2);
+            }
+            members[size++] = keyStart;
+            members[size++] = keyEnd;
+            members[size++] = valueStart;
+            members[size++] = valueEnd;
+        }
+        return Arrays.copyOf(members, size);
+    }
+
+    /**
+     * @param members fields as returned by {@link #members(JSONSource, int)}
+     * @param removed true for each field to remove
+     * @return two positions per range to remove, in order. A removed field takes the comma after it, or the comma before it when no field after it remains
+     */
+    static int[] removals(int[] members, boolean[] removed) {
+        int count = removed.length;
+        int lastKept = -1;
+        for (int i = count - 1; i >= 0; i--) {
+            if (!removed[i]) {
+                lastKept = i;
+                break;
+            }
+        }
+        int[] removals = new int[count * 2];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (!removed[i]) {
+                continue;
+            }
+            if (i < lastKept) {
+                // up to the key of the next field
+                removals[size++] = members[i * 4];
+                removals[size++] = members[(i + 1) * 4];
+            } else {
+                // the trailing fields, from the end of the last field that remains
+                removals[size++] = lastKept == -1 ? members[i * 4] : members[lastKept * 4 + 3];
+                removals[size++] = members[(count - 1) * 4 + 3];
+                break;
+            }
+        }
+        return Arrays.copyOf(removals, size);
+    }
+
+    /**
+     * @param edits    three values per range replaced in the source, in order: start, end, and the length of the replacement
+     * @param position position in the source, outside of the ranges
+     * @return the position in the edited source
+     */
+    static int shifted(int[] edits, int position) {
+        int shifted = position;
+        for (int i = 0; i < edits.length; i += 3) {
+            if (position >= edits[i + 1]) {
+                shifted += edits[i + 2] - (edits[i + 1] - edits[i]);
+            }
+        }
+        return shifted;
+    }
+
+    /**
+     * @param source source of a container
+     * @param start  start of a member: the key of a field, or a value of an array
+     * @param end    end of the member
+     * @return range to remove: the member with the comma after it, or with the comma before it when it is the last member
+     */
+    static int[] removal(JSONSource source, int start, int end) {
+        int next = skipWhitespace(source, end);
+        if (source.charAt(next) == ',') {
+            return new int[]{start, skipWhitespace(source, next + 1)};
+        }
+        int previous = skipWhitespaceBackward(source, start - 1);
+        if (source.charAt(previous) == ',') {
+            return new int[]{previous, end};
+        }
+        return new int[]{start, end};
+    }
+
+    /**
+     * @param source source of a container
+     * @param end    end of the container, exclusive
+     * @return position right after the last member, or after the opening bracket of an empty container
+     */
+    static int appendPosition(JSONSource source, int end) {
+        return skipWhitespaceBackward(source, end - 2) + 1;
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Non-blocking parser of UTF-8 encoded JSON fed in chunks of any size, for bodies read from NIO channels.<br>
+ * Each chunk is tokenized and validated as it arrives. A token cut by the end of a chunk, inside a string, an escape sequence,
+ * a number or a literal, is resumed from where it stopped when the next chunk arrives.
+ * Created by {@link JSON#feeder(JSONVisitor)}, the feeder calls the visitor as tokens are completed and keeps only the bytes of an unfinished token.
+ * Created by {@link JSON#feeder()}, it keeps the bytes, without decoding them to a String, and records where containers start and end,
+ * so the object or array returned once the input has ended reads its values lazily without parsing the document again.
+ */
+public final class JSONFeeder {
+    // what the bytes at position belong to
+    private static final int BETWEEN = 0;
+    private static final int STRING = 1;
+    private static final int NUMBER = 2;
+    private static final int LITERAL = 3;
+
+    // what may come next
+    private static final int VALUE = 0;
+    private static final int VALUE_OR_END = 1;
+    private static final int KEY_OR_END = 2;
+    private static final int KEY = 3;
+    private static final int COLON = 4;
+    private static final int COMMA_OR_END = 5;
+    private static final int DONE = 6;
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+
+    /**
+     * null when building a tree
+     */
+    private final JSONVisitor visitor;
+    private final SymbolTable symbols;
+    private final JSONVisitor.NumberToken number;
+    private final JSONBoundaries boundaries;
+
+    private byte[] buffer = new byte[1024];
+    private int filled = 0;
+    private int position = 0;
+    private JSONSource source;
+
+    private int state = BETWEEN;
+    private int expected = VALUE;
+    /**
+     * start of the token being read. For a string, the first position after the quote.
+     */
+    private int tokenStart;
+    private boolean key;
+    private boolean escape;
+    private int hexDigits;
+    private int continuationBytes;
+    private String literal;
+    private int literalIndex;
+
+    private byte[] containers = new byte[16];
+    /**
+     * handles of the open containers in boundaries
+     */
+    private int[] handles;
+    private int depth = 0;
+    /**
+     * depth of the container being skipped for the visitor, 0 when not skipping
+     */
+    private int skipDepth = 0;
+    private boolean skipValue;
+    private boolean ended;
+    /**
+     * the parsed object or array once the input has ended, null with a visitor
+     */
+    private Object value;
+
+    private JSONFeeder(JSONVisitor visitor) {
+        this.visitor = visitor;
+        if (visitor == null) {
+            symbols = null;
+            number = null;
+            boundaries = JSONBoundaries.recorder();
+            handles = new int[16];
+        } else {
+            symbols = new SymbolTable(256, 0);
+            number = new JSONVisitor.NumberToken();
+            boundaries = null;
+        }
+    }
+
+    static JSONFeeder of(JSONVisitor visitor) {
+        return new JSONFeeder(visitor);
+    }
+
+    /**
+     * Reads the remaining bytes of the chunk.
+     *
+     * @param chunk UTF-8 encoded bytes following the ones fed before. Its position is moved to its limit.
+     * @throws IllegalJSONFormatException if the JSON is invalid
+     * @throws IllegalStateException      after {@link #endOfInput()}
+     */
+    public void feed(@NotNull ByteBuffer chunk) {
+        if (ended) {
+            throw new IllegalStateException("The input has ended");
+        }
+        int length = chunk.remaining();
+        if (filled + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, filled + length));
+        }
+        chunk.get(buffer, filled, length);
+        filled += length;
+        source = JSONSource.of(buffer, 0, filled);
+        read();
+        if (visitor != null) {
+            // keep the unfinished token only
+            int keep = state == BETWEEN ? filled : tokenStart;
+            System.arraycopy(buffer, keep, buffer, 0, filled - keep);
+            filled -= keep;
+            position -= keep;
+            tokenStart -= keep;
+        }
+    }
+
+    /**
+     * Tells that all the bytes have been fed.
+     *
+     * @throws IllegalJSONFormatException if the JSON is incomplete
+     */
+    public void endOfInput() {
+        if (!ended) {
+            ended = true;
+            if (expected != DONE) {
+                throw new IllegalJSONFormatException("Unexpected end of JSON.");
+            }
+            if (boundaries != null) {
+                JSONBoundaries root = boundaries.withSource(source);
+                value = buffer[root.start(0)] == '{' ? new JSONObject(root, 0) : new JSONArray(root, 0);
+            }
+        }
+    }
+
+    /**
+     * @return true once the top-level object or array has been closed
+     */
+    public boolean isComplete() {
+        return expected == DONE;
+    }
+
+    /**
+     * @return the parsed object
+     * @throws IllegalStateException if the feeder has a visitor, the input has not ended, or the JSON is an array
+     */
+    public JSONObject getJSONObject() {
+        Object value = value();
+        if (!(value instanceof JSONObject)) {
+            throw new IllegalStateException("The JSON is an array");
+        }
+        return (JSONObject) value;
+    }
+
+    /**
+     * @return the parsed array
+     * @throws IllegalStateException if the feeder has a visitor, the input has not ended, or the JSON is an object
+     */
+    public JSONArray getJSONArray() {
+        Object value = value();
+        if (!(value instanceof JSONArray)) {
+            throw new IllegalStateException("The JSON is an object");
+        }
+        return (JSONArray) value;
+    }
+
+    private Object value() {
+        if (visitor != null) {
+            throw new IllegalStateException("The feeder calls a visitor");
+        }
+        if (value == null) {
+            throw new IllegalStateException("The input has not ended");
+        }
+        return value;
+    }
+
+    private void read() {
+        while (position < filled) {
+            switch (state) {
+                case BETWEEN:
+                    between(buffer[position]);
+                    break;
+                case STRING:
+                    string();
+                    break;
+                case NUMBER:
+                    number();
+                    break;
+                default:
+                    literal();
+                    break;
+            }
+        }
+    }
+
+    private void between(byte b) {
+        int start = position++;
+        if (expected == DONE && b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+            throw error("Illegal JSON format", start);
+        }
+        switch (b) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+                break;
+            case '{':
+                startContainer(OBJECT, start);
+                break;
+            case '[':
+                startContainer(ARRAY, start);
+                break;
+            case '}':
+                endContainer(OBJECT, start);
+                break;
+            case ']':
+                endContainer(ARRAY, start);
+                break;
+            case ':':
+                if (expected != COLON) {
+                    throw error("Illegal JSON format.", start);
+                }
+                expected = VALUE;
+                break;
+            case ',':
+                if (expected != COMMA_OR_END) {
+                    throw error("Illegal JSON format.", start);
+                }
+                expected = containers[depth - 1] == OBJECT ? KEY : VALUE;
+                break;
+            case '"':
+                key = expected == KEY || expected == KEY_OR_END;
+                if (!key) {
+                    scalar(start);
+                }
+                tokenStart = position;
+                state = STRING;
+                break;
+            case '.':
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                scalar(start);
+                tokenStart = start;
+                state = NUMBER;
+                break;
+            case 't':
+            case 'f':
+            case 'n':
+                scalar(start);
+                tokenStart = start;
+                literal = b == 't' ? "true" : b == 'f' ? "false" : "null";
+                literalIndex = 1;
+                state = LITERAL;
+                break;
+            default:
+                throw error(String.format("Unexpected character found: '%s'.", (char) (b & 0xFF)), start);
+        }
+    }
+
+    /**
+     * Checks that a scalar value may start at the position.
+     */
+    private void scalar(int start) {
+        if (expected != VALUE && expected != VALUE_OR_END || depth == 0) {
+            throw error("Illegal JSON format", start);
+        }
+    }
+
+    private void string() {
+        while (position < filled) {
+            int b = buffer[position] & 0xFF;
+            if (hexDigits != 0) {
+                if (!(b >= '0' && b <= '9' || b >= 'a' && b <= 'f' || b >= 'A' && b <= 'F')) {
+                    throw error(String.format("Invalid escape sequence. Expecting [a-fA-F0-9], got '%s'", (char) b), position);
+                }
+                hexDigits--;
+            } else if (escape) {
+                if (b == 'u') {
+                    hexDigits = 4;
+                } else if ("\"\\/bfnrt".indexOf(b) == -1) {
+                    throw error(String.format("Invalid escape sequence. Expecting [\"\\/bfnrtu], got '%s'", (char) b), position);
+                }
+                escape = false;
+            } else if (continuationBytes != 0) {
+                if ((b & 0xC0) != 0x80) {
+                    throw error("Illegal UTF-8 sequence.", position);
+                }
+                continuationBytes--;
+            } else if (b == '"') {
+                int end = position++;
+                state = BETWEEN;
+                if (key) {
+                    key(end);
+                } else {
+                    value(JSONTokenizer.JsonEventType.VALUE_STRING, end);
+                }
+                return;
+            } else if (b == '\\') {
+                escape = true;
+            } else if (b < 0x20) {
+                throw error("Unescaped control character.", position);
+            } else if (b >= 0x80) {
+                if (b >= 0xC2 && b <= 0xDF) {
+                    continuationBytes = 1;
+                } else if (b >= 0xE0 && b <= 0xEF) {
+                    continuationBytes = 2;
+                } else if (b >= 0xF0 && b <= 0xF4) {
+                    continuationBytes = 3;
+                } else {
+                    throw error("Illegal UTF-8 sequence.", position);
+                }
+            }
+            position++;
+        }
+    }
+
+    private void number() {
+        while (position < filled) {
+            byte b = buffer[position];
+            if (b >= '0' && b <= '9' || b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+                position++;
+            } else {
+                state = BETWEEN;
+                value(JSONTokenizer.JsonEventType.VALUE_NUMBER, position);
+                return;
+            }
+        }
+    }
+
+    private void literal() {
+        while (position < filled) {
+            if (buffer[position] != literal.charAt(literalIndex)) {
+                throw error(String.format("Expecting '%s', got '%s'.", literal, source.substring(tokenStart, position + 1)), position);
+            }
+            position++;
+            if (++literalIndex == literal.length()) {
+                state = BETWEEN;
+                value(literal.equals("true") ? JSONTokenizer.JsonEventType.VALUE_TRUE
+                        : literal.equals("false") ? JSONTokenizer.JsonEventType.VALUE_FALSE : JSONTokenizer.JsonEventType.VALUE_NULL, position);
+                return;
+            }
+        }
+    }
+
+    private void startContainer(byte kind, int start) {
+        if (expected != VALUE && expected != VALUE_OR_END) {
+            throw error("Illegal JSON format.", start);
+        }
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            if (handles != null) {
+                handles = Arrays.copyOf(handles, depth * 2);
+            }
+        }
+        containers[depth] = kind;
+        if (boundaries != null) {
+            handles[depth] = boundaries.open(start);
+        }
+        depth++;
+        expected = kind == OBJECT ? KEY_OR_END : VALUE_OR_END;
+        if (visitor == null) {
+            return;
+        }
+        if (skipDepth != 0) {
+            skipDepth++;
+        } else if (skipValue) {
+            skipValue = false;
+            skipDepth = 1;
+        } else if (!(kind == OBJECT ? visitor.startObject() : visitor.startArray())) {
+            skipDepth = 1;
+        }
+    }
+
+    private void endContainer(byte kind, int start) {
+        if (depth == 0 || containers[depth - 1] != kind) {
+            throw error(kind == OBJECT ? "Illegal JSON format. Got '}' without '{'" : "Illegal JSON format. Got ']' without '['", start);
+        }
+        if (expected != COMMA_OR_END && expected != (kind == OBJECT ? KEY_OR_END : VALUE_OR_END)) {
+            throw error("Illegal JSON format.", start);
+        }
+        depth--;
+        if (boundaries != null) {
+            boundaries.close(handles[depth], start + 1);
+        }
+        expected = depth == 0 ? DONE : COMMA_OR_END;
+        if (visitor == null) {
+            return;
+        }
+        if (skipDepth != 0) {
+            skipDepth--;
+        } else if (kind == OBJECT) {
+            visitor.endObject();
+        } else {
+            visitor.endArray();
+        }
+    }
+
+    private void key(int end) {
+        expected = COLON;
+        if (visitor != null && skipDepth == 0 && !visitor.key(symbols.symbol(source, tokenStart, end))) {
+            skipValue = true;
+        }
+    }
+
+    private void value(JSONTokenizer.JsonEventType eventType, int end) {
+        JSONTokenizer.NumberKind kind = eventType == JSONTokenizer.JsonEventType.VALUE_NUMBER ? JSONTokenizer.numberKind(source, tokenStart, end) : null;
+        expected = COMMA_OR_END;
+        if (visitor == null || skipDepth != 0) {
+            return;
+        }
+        if (skipValue) {
+            skipValue = false;
+            return;
+        }
+        switch (eventType) {
+            case VALUE_STRING:
+                visitor.stringValue(source.unescape(tokenStart, end));
+                break;
+            case VALUE_NUMBER:
+                number.set(source, tokenStart, end, kind);
+                visitor.numberValue(number);
+                break;
+            case VALUE_TRUE:
+                visitor.literal(Boolean.TRUE);
+                break;
+            case VALUE_FALSE:
+                visitor.literal(Boolean.FALSE);
+                break;
+            default:
+                visitor.literal(null);
+                break;
+        }
+    }
+
+    private IllegalJSONFormatException error(String message, int index) {
+        return new IllegalJSONFormatException(message, source, index);
+    }
+}
@@ -20,21 +20,37 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 public final class JSONObject {
 
-    private final Map<String, Object> map = new HashMap<>();
-    private final Map<String, JSONArray> arrayMap = new HashMap<>();
+    // scalars, objects and arrays. Assigned on the first access when this object is lazily parsed.
+    private volatile FieldTable fields;
 
-    private final String jsonString;
-    private final int startIndex;
-    private final int endIndex;
+    // null for the top-level object of a file parsed in windows, whose values are read from several mappings
+    final JSONSource source;
+    final int startIndex;
+    final int endIndex;
+
+    // non-null when this object is a view over a tape
+    private final JSONTape tape;
+    private final int tapePosition;
+
+    // non-null when this object is lazily parsed
+    private final JSONBoundaries boundaries;
+    private final int container;
+
+    // non-null when this object is the result of an edit: added to the positions of a value to get its position in source
+    private final int[] shifts;
 
     JSONObject(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonIndices next) {
-        jsonString = jsonTokenizer.jsonString;
+        FieldTable fields = new FieldTable();
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = jsonTokenizer.source;
         startIndex = next.startIndex;
         boolean first = true;
         String lastKey = null;
@@ -46,7 +62,7 @@ public final class JSONObject {
                     if (first) {
                         first = false;
                     } else {
-                        map.put(lastKey, new JSONObject(jsonTokenizer, next));
+                        fields.put(lastKey, new JSONObject(jsonTokenizer, next));
                     }
                     break;
                 case END_OBJECT:
@@ -54,7 +70,7 @@ public final class JSONObject {
                     endIndex = next.endIndex;
                     break;
                 case START_ARRAY:
-                    arrayMap.put(lastKey, new JSONArray(jsonTokenizer, next));
+                    fields.put(lastKey, new JSONArray(jsonTokenizer, next));
                     break;
                 case END_ARRAY:
                 case COLON:
@@ -68,7 +84,7 @@ public final class JSONObject {
                 case VALUE_TRUE:
                 case VALUE_FALSE:
                 case VALUE_NULL:
-                    map.put(lastKey, next);
+                    fields.put(lastKey, next);
                     break;
             }
             if (ended) {
@@ -77,11 +93,337 @@ public final class JSONObject {
             next = jsonTokenizer.next();
         }
         this.endIndex = endIndex;
+        this.fields = fields.trim();
+    }
+
+    /**
+     * Stores only the fields in the projection, and skips the others.
+     */
+    JSONObject(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonIndices next, Projection projection) {
+        FieldTable fields = new FieldTable();
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = jsonTokenizer.source;
+        startIndex = next.startIndex;
+        JSONTokenizer.JsonEventType eventType;
+        while ((eventType = jsonTokenizer.nextEvent()) != JSONTokenizer.JsonEventType.END_OBJECT) {
+            if (eventType != JSONTokenizer.JsonEventType.KEY_NAME) {
+                continue;
+            }
+            int field = projection.find(source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+            // colon
+            jsonTokenizer.nextEvent();
+            eventType = jsonTokenizer.nextEvent();
+            if (field == -1) {
+                Projection.skip(jsonTokenizer, eventType, projection);
+            } else {
+                fields.put(projection.name(field), Projection.value(jsonTokenizer, eventType, projection.child(field)));
+            }
+        }
+        this.endIndex = jsonTokenizer.tokenEnd;
+        fields.complete = false;
+        this.fields = fields.trim();
+    }
+
+    JSONObject(JSONTape tape, int tapePosition) {
+        fields = null;
+        this.tape = tape;
+        this.tapePosition = tapePosition;
+        boundaries = null;
+        container = -1;
+        shifts = null;
+        source = tape.source;
+        startIndex = tape.start(tapePosition);
+        endIndex = tape.end(tapePosition);
+    }
+
+    JSONObject(JSONBoundaries boundaries, int container) {
+        tape = null;
+        tapePosition = -1;
+        this.boundaries = boundaries;
+        this.container = container;
+        shifts = null;
+        source = boundaries.source;
+        startIndex = boundaries.start(container);
+        endIndex = boundaries.end(container);
+    }
+
+    /**
+     * The top-level object of a file parsed by {@link JSONWindowedParser}. It has no text of its own: it is written field by field.
+     */
+    JSONObject(FieldTable fields) {
+        this(null, -1, -1, fields.trim(), null);
+    }
+
+    private JSONObject(JSONSource source, int startIndex, int endIndex, FieldTable fields, int[] shifts) {
+        this.fields = fields;
+        tape = null;
+        tapePosition = -1;
+        boundaries = null;
+        container = -1;
+        this.shifts = shifts;
+        this.source = source;
+        this.startIndex = startIndex;
+        this.endIndex = endIndex;
+    }
+
+    /**
+     * Fills the fields of a lazily parsed object. Nested containers are created lazily as well and their contents are skipped.
+     */
+    private void materialize() {
+        if (fields != null || boundaries == null) {
+            return;
+        }
+        FieldTable fields = new FieldTable();
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source, startIndex);
+        jsonTokenizer.nextEvent();
+        int child = container + 1;
+        String lastKey = null;
+        JSONTokenizer.JsonEventType eventType;
+        while ((eventType = jsonTokenizer.nextEvent()) != JSONTokenizer.JsonEventType.END_OBJECT) {
+            switch (eventType) {
+                case START_OBJECT:
+                    fields.put(lastKey, new JSONObject(boundaries, child));
+                    jsonTokenizer.skipContainer(boundaries.end(child));
+                    child = boundaries.next(child);
+                    break;
+                case START_ARRAY:
+                    fields.put(lastKey, new JSONArray(boundaries, child));
+                    jsonTokenizer.skipContainer(boundaries.end(child));
+                    child = boundaries.next(child);
+                    break;
+                case KEY_NAME:
+                    lastKey = boundaries.symbols == null ? source.unescape(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd)
+                            : boundaries.symbols.symbol(source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+                    break;
+                case VALUE_STRING:
+                case VALUE_NUMBER:
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                case VALUE_NULL:
+                    fields.put(lastKey, new JSONTokenizer.JsonIndices(source, eventType, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind).share(boundaries.symbols));
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.fields = fields.trim();
+    }
+
+    /**
+     * @return the fields, read from the tape for a tape view
+     */
+    FieldTable fieldTable() {
+        if (tape == null) {
+            materialize();
+            return fields;
+        }
+        FieldTable fields = new FieldTable();
+        int end = tape.next(tapePosition);
+        int position = tapePosition + JSONTape.CONTAINER_WORDS;
+        while (position < end) {
+            int value = position + JSONTape.SCALAR_WORDS;
+            fields.put(source.unescape(tape.start(position), tape.end(position)), tape.value(value));
+            position = tape.next(value);
+        }
+        return fields.trim();
+    }
+
+    private int shift(int position) {
+        return shifts == null ? 0 : shifts[position];
+    }
+
+    /**
+     * Returns a copy of this object with the field added, or its value replaced. The text is spliced into the source without copying it
+     * and only the new value is parsed. The value is replaced at the position it was parsed from, so the cost is proportional to the number
+     * of fields and the size of the value, not to the size of the document or of the other values.<br>
+     * When the key appears more than once, the last field takes the value and the others are removed. Finding them, or the fields a
+     * {@link Projection} left out, takes reading the text of this object again.
+     *
+     * @param name  key name
+     * @param value JSONObject, JSONArray, Map, Iterable, array, String, Number, Boolean or null
+     * @return edited copy
+     */
+    public JSONObject with(@NotNull String name, @Nullable Object value) {
+        FieldTable fields = fieldTable();
+        if (source == null) {
+            FieldTable editedFields = new FieldTable();
+            for (int i = 0; i < fields.size(); i++) {
+                editedFields.put(fields.key(i), fields.value(i));
+            }
+            editedFields.put(name, JSONEditor.parsed(value, true));
+            return new JSONObject(editedFields);
+        }
+        int position = fields.indexOf(name);
+        // ranges of the fields with the key but the last
+        int[] removals;
+        boolean found;
+        boolean empty;
+        int start;
+        int end;
+        if (fields.complete) {
+            removals = new int[0];
+            found = position != -1;
+            empty = fields.size() == 0;
+            if (found) {
+                Object old = fields.value(position);
+                start = JSONEditor.start(old) + shift(position);
+                end = JSONEditor.end(old) + shift(position);
+            } else {
+                start = end = JSONEditor.appendPosition(source, endIndex);
+            }
+        } else {
+            int[] members = JSONEditor.members(source, startIndex);
+            boolean[] removed = new boolean[members.length / 4];
+            int last = -1;
+            for (int i = 0; i < removed.length; i++) {
+                if (source.unescapedEquals(members[i * 4] + 1, members[i * 4 + 1], name)) {
+                    if (last != -1) {
+                        removed[last] = true;
+                    }
+                    last = i;
+                }
+            }
+            removals = JSONEditor.removals(members, removed);
+            found = last != -1;
+            empty = removed.length == 0;
+            if (found) {
+                start = members[last * 4 + 2];
+                end = members[last * 4 + 3];
+            } else {
+                start = end = JSONEditor.appendPosition(source, endIndex);
+            }
+        }
+        boolean encoded = source.isEncoded();
+        Object parsed = JSONEditor.parsed(value, encoded);
+        JSONSource.Splicer splicer = new JSONSource.Splicer(encoded);
+        int[] edits = new int[removals.length / 2 * 3 + 3];
+        int copied = 0;
+        for (int i = 0; i < removals.length; i += 2) {
+            splicer.add(source, copied, removals[i]);
+            copied = removals[i + 1];
+            edits[i / 2 * 3] = removals[i];
+            edits[i / 2 * 3 + 1] = removals[i + 1];
+        }
+        splicer.add(source, copied, start);
+        int replacementStart = splicer.length();
+        if (!found) {
+            splicer.add((empty ? "" : ",") + JSON.toJSONString(name) + ":");
+        }
+        int valuePosition = splicer.length();
+        splicer.add(JSONEditor.source(parsed), JSONEditor.start(parsed), JSONEditor.end(parsed));
+        edits[edits.length - 3] = start;
+        edits[edits.length - 2] = end;
+        edits[edits.length - 1] = splicer.length() - replacementStart;
+        JSONSource edited = splicer.add(source, end, source.length()).build();
+
+        FieldTable editedFields = new FieldTable();
+        editedFields.complete = fields.complete;
+        int[] shifts = new int[position == -1 ? fields.size() + 1 : fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Object fieldValue = i == position ? parsed : fields.value(i);
+            editedFields.put(fields.key(i), fieldValue);
+            if (i == position) {
+                shifts[i] = valuePosition - JSONEditor.start(parsed);
+            } else {
+                shifts[i] = JSONEditor.shifted(edits, JSONEditor.start(fieldValue) + shift(i)) - JSONEditor.start(fieldValue);
+            }
+        }
+        if (position == -1) {
+            editedFields.put(name, parsed);
+            shifts[fields.size()] = valuePosition - JSONEditor.start(parsed);
+        }
+        return new JSONObject(edited, startIndex, JSONEditor.shifted(edits, endIndex), editedFields.trim(), shifts);
+    }
+
+    /**
+     * Returns a copy of this object without the field, removing its text from the source as {@link #with(String, Object)} splices it.
+     * When the key appears more than once, every field with the key is removed.
+     *
+     * @param name key name
+     * @return edited copy, or this object if it doesn't have the field
+     */
+    public JSONObject without(@NotNull String name) {
+        FieldTable fields = fieldTable();
+        if (source == null) {
+            if (!fields.containsKey(name)) {
+                return this;
+            }
+            FieldTable editedFields = new FieldTable();
+            for (int i = 0; i < fields.size(); i++) {
+                if (!fields.key(i).equals(name)) {
+                    editedFields.put(fields.key(i), fields.value(i));
+                }
+            }
+            return new JSONObject(editedFields);
+        }
+        int position = fields.indexOf(name);
+        int[] removals;
+        if (fields.complete) {
+            if (position == -1) {
+                return this;
+            }
+            Object old = fields.value(position);
+            int valueStart = JSONEditor.start(old) + shift(position);
+            removals = JSONEditor.removal(source, JSONEditor.keyStart(source, valueStart), JSONEditor.end(old) + shift(position));
+        } else {
+            int[] members = JSONEditor.members(source, startIndex);
+            boolean[] removed = new boolean[members.length / 4];
+            boolean found = false;
+            for (int i = 0; i < removed.length; i++) {
+                removed[i] = source.unescapedEquals(members[i * 4] + 1, members[i * 4 + 1], name);
+                found |= removed[i];
+            }
+            if (!found) {
+                return this;
+            }
+            removals = JSONEditor.removals(members, removed);
+        }
+        JSONSource.Splicer splicer = new JSONSource.Splicer(source.isEncoded());
+        int[] edits = new int[removals.length / 2 * 3];
+        int copied = 0;
+        for (int i = 0; i < removals.length; i += 2) {
+            splicer.add(source, copied, removals[i]);
+            copied = removals[i + 1];
+            edits[i / 2 * 3] = removals[i];
+            edits[i / 2 * 3 + 1] = removals[i + 1];
+        }
+        JSONSource edited = splicer.add(source, copied, source.length()).build();
+
+        FieldTable editedFields = new FieldTable();
+        editedFields.complete = fields.complete;
+        int[] shifts = new int[position == -1 ? fields.size() : fields.size() - 1];
+        int next = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (i != position) {
+                Object fieldValue = fields.value(i);
+                editedFields.put(fields.key(i), fieldValue);
+                shifts[next++] = JSONEditor.shifted(edits, JSONEditor.start(fieldValue) + shift(i)) - JSONEditor.start(fieldValue);
+            }
+        }
+        return new JSONObject(edited, startIndex, JSONEditor.shifted(edits, endIndex), editedFields.trim(), shifts);
+    }
+
+    /**
+     * @param name key name
+     * @return JsonIndices, JSONObject, JSONArray, or null if absent
+     */
+    @Nullable
+    private Object lookup(@NotNull String name) {
+        if (tape == null) {
+            materialize();
+            return fields.get(name);
+        }
+        int position = tape.find(tapePosition, name);
+        return position == -1 ? null : tape.value(position);
     }
 
     @Nullable
     public String getString(@NotNull String name) {
-        Object o = map.get(name);
+        Object o = lookup(name);
         if (o == null) {
             return null;
         } else if (o instanceof JSONTokenizer.JsonIndices) {
@@ -93,6 +435,10 @@ public final class JSONObject {
     }
 
     public int getInt(@NotNull String name) {
+        Object o = lookup(name);
+        if (o instanceof JSONTokenizer.JsonIndices && ((JSONTokenizer.JsonIndices) o).jsonEventType != JSONTokenizer.JsonEventType.VALUE_NULL) {
+            return ((JSONTokenizer.JsonIndices) o).intValue();
+        }
         String value = getString(name);
         if (value == null) {
             return -1;
@@ -101,6 +447,10 @@ public final class JSONObject {
     }
 
     public long getLong(@NotNull String name) {
+        Object o = lookup(name);
+        if (o instanceof JSONTokenizer.JsonIndices && ((JSONTokenizer.JsonIndices) o).jsonEventType != JSONTokenizer.JsonEventType.VALUE_NULL) {
+            return ((JSONTokenizer.JsonIndices) o).longValue();
+        }
         String value = getString(name);
         if (value == null) {
             return -1;
@@ -109,6 +459,10 @@ public final class JSONObject {
     }
 
     public double getDouble(@NotNull String name) {
+        Object o = lookup(name);
+        if (o instanceof JSONTokenizer.JsonIndices && ((JSONTokenizer.JsonIndices) o).jsonEventType != JSONTokenizer.JsonEventType.VALUE_NULL) {
+            return ((JSONTokenizer.JsonIndices) o).doubleValue();
+        }
         String value = getString(name);
         if (value == null) {
             return -1;
@@ -135,59 +489,28 @@ public final class JSONObject {
 
     @Nullable
     public JSONArray getJSONArray(@NotNull String name) {
-        return arrayMap.get(name);
+        Object o = lookup(name);
+        return o instanceof JSONArray ? (JSONArray) o : null;
     }
 
+    /**
+     * @param name key name
+     * @return String, Boolean, JSONObject, JSONArray or null, or a number as the smallest of Integer, Long and BigInteger that holds it.
+     * Numbers with a decimal point or an exponent are Doubles, or BigDecimals if they are beyond the range of double.
+     */
     @Nullable
     public Object get(@NotNull String name) {
-        Object o = map.get(name);
+        Object o = lookup(name);
         if (o instanceof JSONTokenizer.JsonIndices) {
-            JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) o;
-            JSONTokenizer.JsonEventType jsonEventType = jsonIndices.jsonEventType;
-            switch (jsonEventType) {
-                case START_OBJECT:
-                case KEY_NAME:
-                case COLON:
-                case COMMA:
-                case END_ARRAY:
-                case START_ARRAY:
-                case END_OBJECT:
-                    break;
-                case VALUE_STRING:
-                    return jsonIndices.getValue();
-                case VALUE_NUMBER:
-                    try {
-                        //noinspection DataFlowIssue
-                        return Integer.parseInt(jsonIndices.getValue());
-                    } catch (NumberFormatException nfe) {
-                        try {
-                            //noinspection DataFlowIssue
-                            return Long.valueOf(jsonIndices.getValue());
-                        } catch (NumberFormatException nfe2) {
-                            //noinspection DataFlowIssue
-                            return Double.parseDouble(jsonIndices.getValue());
-                        }
-                    }
-                case VALUE_TRUE:
-                    return Boolean.TRUE;
-                case VALUE_FALSE:
-                    return Boolean.FALSE;
-                case VALUE_NULL:
-                    return null;
-            }
-        }
-        if (o == null) {
-            // JSONArray
-            return arrayMap.get(name);
-        }else {
-            // JSONObject
-            return o;
+            return ((JSONTokenizer.JsonIndices) o).toObject();
         }
+        // JSONObject, JSONArray or null
+        return o;
     }
 
     @Nullable
     public JSONObject getJSONObject(@NotNull String name) {
-        Object o = map.get(name);
+        Object o = lookup(name);
         if (o instanceof JSONTokenizer.JsonIndices &&
                 ((JSONTokenizer.JsonIndices) o).jsonEventType == JSONTokenizer.JsonEventType.VALUE_NULL) {
             return null;
@@ -202,20 +525,27 @@ public final class JSONObject {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         JSONObject that = (JSONObject) o;
-        return startIndex == that.startIndex && endIndex == that.endIndex && Objects.equals(map, that.map) && Objects.equals(arrayMap, that.arrayMap) && Objects.equals(jsonString, that.jsonString);
+        materialize();
+        that.materialize();
+        return startIndex == that.startIndex && endIndex == that.endIndex && Objects.equals(fields, that.fields) && Objects.equals(source, that.source);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(map, arrayMap, jsonString, startIndex, endIndex);
+        materialize();
+        return Objects.hash(fields, source, startIndex, endIndex);
     }
 
     @Override
     public String toString() {
-        return jsonString.substring(startIndex, endIndex);
+        return source == null ? JSON.toJSONString(this) : source.substring(startIndex, endIndex);
     }
 
     public boolean has(@NotNull String name) {
-        return map.containsKey(name) || arrayMap.containsKey(name);
+        if (tape != null) {
+            return tape.find(tapePosition, name) != -1;
+        }
+        materialize();
+        return fields.containsKey(name);
     }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a top-level array on the ForkJoinPool the caller runs in, or on the common pool.<br>
+ * The array is cut into chunks scanned concurrently for commas. A chunk may start inside a string, so each scan keeps the commas found
+ * assuming it starts outside a string and assuming it starts inside one, along with the nesting depth relative to the chunk start.
+ * The scans are then combined in order, which settles the state at every chunk start and leaves the commas separating top-level elements.
+ * Runs of elements are parsed concurrently by tokenizers resuming the array just after a comma, so every token is validated as in
+ * {@link JSON#parseArray(String)}. When anything is wrong the document is parsed again sequentially to report the same error.
+ */
+final class JSONParallelParser {
+    /**
+     * characters per chunk scanned for commas, and roughly per run of elements parsed by a task
+     */
+    static final int CHUNK = 1 << 20;
+    private static final int BUFFER = 64 * 1024;
+
+    private JSONParallelParser() {
+    }
+
+    /**
+     * @param source    source
+     * @param chunkSize characters per chunk. Arrays shorter than two chunks, or any array when the pool has a single thread, are parsed on the calling thread.
+     * @return parsed array
+     */
+    static JSONArray parseArray(JSONSource source, int chunkSize) {
+        int length = source.length();
+        int open = 0;
+        while (open < length - 1 && isWhitespace(source.charAt(open))) {
+            open++;
+        }
+        int close = length - 1;
+        while (close > open && isWhitespace(source.charAt(close))) {
+            close--;
+        }
+        int parallelism = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        if (parallelism == 1 || close - open < chunkSize * 2 || source.charAt(open) != '[' || source.charAt(close) != ']') {
+            return JSON.parseArray(source);
+        }
+        try {
+            List<CommaScan> scans = new ArrayList<>();
+            for (int start = open + 1; start < close; ) {
+                int end = Math.min(close, start + chunkSize);
+                // a character right after a backslash may be escaped: don't start a chunk there
+                while (end < close && source.charAt(end - 1) == '\\') {
+                    end++;
+                }
+                scans.add(new CommaScan(source, start, end));
+                start = end;
+            }
+            ForkJoinTask.invokeAll(scans);
+            int[] commas = topLevelCommas(scans);
+
+            List<ElementsParse> parses = new ArrayList<>();
+            int from = 0;
+            for (int comma : commas) {
+                if (comma - from >= chunkSize) {
+                    parses.add(new ElementsParse(source, from, comma));
+                    from = comma + 1;
+                }
+            }
+            ElementsParse last = new ElementsParse(source, from, -1);
+            parses.add(last);
+            ForkJoinTask.invokeAll(parses);
+            List<Object> values = new ArrayList<>(commas.length + 1);
+            for (ElementsParse parse : parses) {
+                values.addAll(parse.join());
+            }
+            return new JSONArray(source, open, last.endIndex, values);
+        } catch (IllegalJSONFormatException e) {
+            return JSON.parseArray(source);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * @return positions of the commas separating the top-level elements
+     */
+    private static int[] topLevelCommas(List<CommaScan> scans) {
+        int[] commas = new int[1024];
+        int size = 0;
+        int depth = 1;
+        int inString = 0;
+        for (CommaScan scan : scans) {
+            int lowest = depth + scan.lowest[inString];
+            if (lowest < 1) {
+                throw new IllegalJSONFormatException("Illegal JSON format.");
+            }
+            if (lowest == 1) {
+                int count = scan.count[inString];
+                if (size + count > commas.length) {
+                    commas = Arrays.copyOf(commas, Math.max(commas.length * 2, size + count));
+                }
+                System.arraycopy(scan.commas[inString], 0, commas, size, count);
+                size += count;
+            }
+            depth += scan.depth[inString];
+            inString ^= scan.quotes;
+        }
+        if (depth != 1 || inString != 0) {
+            throw new IllegalJSONFormatException("Illegal JSON format.");
+        }
+        return Arrays.copyOf(commas, size);
+    }
+
+    /**
+     * Finds commas in a chunk under both assumptions, index 0 assuming the chunk starts outside a string and 1 assuming it starts inside one.
+     * Only commas at the lowest depth reached so far are kept, as the commas between top-level elements are at the lowest depth of the array.
+     */
+    private static final class CommaScan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final JSONSource source;
+        private final int start;
+        private final int end;
+        final int[][] commas = {new int[256], new int[256]};
+        final int[] count = new int[2];
+        final int[] depth = new int[2];
+        final int[] lowest = new int[2];
+        /**
+         * parity of the unescaped quotes in the chunk
+         */
+        int quotes = 0;
+
+        CommaScan(JSONSource source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            byte[] buffer = new byte[Math.min(BUFFER, end - start)];
+            boolean escaped = false;
+            for (int offset = start; offset < end; offset += buffer.length) {
+                int size = Math.min(buffer.length, end - offset);
+                source.copyTo(offset, buffer, 0, size);
+                for (int i = 0; i < size; i++) {
+                    if (escaped) {
+                        escaped = false;
+                        continue;
+                    }
+                    // with an even number of quotes so far, outside a string under assumption 0. Otherwise under assumption 1.
+                    int outside = quotes;
+                    switch (buffer[i]) {
+                        case '\\':
+                            escaped = true;
+                            break;
+                        case '"':
+                            quotes ^= 1;
+                            break;
+                        case '{':
+                        case '[':
+                            depth[outside]++;
+                            break;
+                        case '}':
+                        case ']':
+                            if (--depth[outside] < lowest[outside]) {
+                                lowest[outside] = depth[outside];
+                                count[outside] = 0;
+                            }
+                            break;
+                        case ',':
+                            if (depth[outside] == lowest[outside]) {
+                                if (count[outside] == commas[outside].length) {
+                                    commas[outside] = Arrays.copyOf(commas[outside], count[outside] * 2);
+                                }
+                                commas[outside][count[outside]++] = offset + i;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the elements from just after a comma up to the next comma at a given position, or up to the end of the array.
+     */
+    private static final class ElementsParse extends RecursiveTask<List<Object>> {
+        private static final long serialVersionUID = 1L;
+        private final JSONSource source;
+        private final int from;
+        /**
+         * position of the comma ending the run, or -1 for the last run
+         */
+        private final int to;
+        int endIndex = -1;
+
+        ElementsParse(JSONSource source, int from, int to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Object> compute() {
+            JSONTokenizer jsonTokenizer = new JSONTokenizer(source, from);
+            if (from == 0) {
+                if (jsonTokenizer.nextEvent() != JsonEventType.START_ARRAY) {
+                    throw new IllegalJSONFormatException("Illegal JSON format.", source, jsonTokenizer.tokenStart);
+                }
+            } else {
+                jsonTokenizer.resumeArrayAfterComma();
+            }
+            List<Object> values = new ArrayList<>();
+            while (true) {
+                JSONTokenizer.JsonIndices next = jsonTokenizer.next();
+                switch (next.jsonEventType) {
+                    case START_OBJECT:
+                        values.add(new JSONObject(jsonTokenizer, next));
+                        break;
+                    case START_ARRAY:
+                        values.add(new JSONArray(jsonTokenizer, next));
+                        break;
+                    case VALUE_STRING:
+                    case VALUE_NUMBER:
+                    case VALUE_TRUE:
+                    case VALUE_FALSE:
+                    case VALUE_NULL:
+                        values.add(next);
+                        break;
+                    default:
+                        throw new IllegalJSONFormatException("Illegal JSON format.", source, next.startIndex);
+                }
+                JsonEventType separator = jsonTokenizer.nextEvent();
+                if (separator == JsonEventType.COMMA && (to == -1 || jsonTokenizer.tokenStart < to)) {
+                    continue;
+                }
+                if (separator == JsonEventType.COMMA && jsonTokenizer.tokenStart == to) {
+                    return values;
+                }
+                if (separator == JsonEventType.END_ARRAY && to == -1) {
+                    endIndex = jsonTokenizer.tokenEnd;
+                    if (jsonTokenizer.nextEvent() != null) {
+                        throw new IllegalJSONFormatException("Illegal JSON format.", source, jsonTokenizer.tokenStart);
+                    }
+                    return values;
+                }
+                throw new IllegalJSONFormatException("Illegal JSON format.", source, jsonTokenizer.tokenStart);
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Extracts values at JSON Pointers (RFC 6901) without parsing the rest of the document.<br>
+ * The pointers are compiled into a tree of keys and indices. Extraction descends only into matching keys and indices,
+ * and skips other values by matching brackets outside strings, without validating them.
+ * The keys of an object are read to its end, so that the last value of a duplicated key wins as with {@link JSON#parseObject(String)}.
+ * An array is skipped to its end once every pointer through it has been found.
+ * A compiled pointer is immutable and can be shared between threads.
+ */
+public final class JSONPointer {
+    private static final int CACHE_SIZE = 256;
+    private static final ConcurrentHashMap<String, JSONPointer> CACHE = new ConcurrentHashMap<>();
+
+    private final String[] pointers;
+    private final Node root = new Node(null);
+    /**
+     * number of distinct paths
+     */
+    private final int paths;
+
+    private JSONPointer(String[] pointers) {
+        this.pointers = pointers;
+        int count = 0;
+        for (int i = 0; i < pointers.length; i++) {
+            Node node = root;
+            for (String token : tokens(pointers[i])) {
+                node = node.child(token);
+            }
+            if (node.id == -1) {
+                node.id = count++;
+            }
+            node.pointers = node.pointers == null ? new int[]{i} : append(node.pointers, i);
+        }
+        this.paths = count;
+    }
+
+    /**
+     * @param pointers JSON Pointers, like "/data/items/0/price". "" stands for the whole document.
+     * @return compiled pointers
+     * @throws IllegalArgumentException if a pointer is not a valid JSON Pointer
+     */
+    public static JSONPointer compile(@NotNull String... pointers) {
+        return new JSONPointer(pointers.clone());
+    }
+
+    /**
+     * @param pointer JSON Pointer
+     * @return compiled pointer, cached
+     */
+    static JSONPointer of(String pointer) {
+        JSONPointer compiled = CACHE.get(pointer);
+        if (compiled == null) {
+            compiled = compile(pointer);
+            if (CACHE.size() >= CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.put(pointer, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * @param json JSON object or array
+     * @return value at each pointer, in the order of the pointers: JSONObject, JSONArray, String, Number, Boolean, or null for null and missing values
+     */
+    public Object[] extract(@NotNull String json) {
+        return extract(JSONSource.of(json));
+    }
+
+    /**
+     * Extracts values from UTF-8 encoded JSON without decoding it to a String first. See {@link #extract(String)}.
+     *
+     * @param utf8 UTF-8 encoded JSON object or array. The array must not be modified while the returned values are in use.
+     * @return value at each pointer, in the order of the pointers
+     */
+    public Object[] extract(@NotNull byte[] utf8) {
+        return extract(JSONSource.of(utf8, 0, utf8.length));
+    }
+
+    Object[] extract(JSONSource source) {
+        Extraction extraction = new Extraction(new JSONTokenizer(source));
+        JsonEventType eventType = extraction.jsonTokenizer.nextEvent();
+        if (eventType == null) {
+            throw new IllegalJSONFormatException("Unexpected end of JSON.");
+        }
+        extraction.descend(root, eventType);
+        if (extraction.jsonTokenizer.nextEvent() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+        Object[] values = new Object[pointers.length];
+        collect(root, extraction.values, values);
+        return values;
+    }
+
+    private static void collect(Node node, Object[] found, Object[] values) {
+        if (node.pointers != null) {
+            for (int pointer : node.pointers) {
+                values[pointer] = found[node.id];
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, found, values);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JSONPointer" + Arrays.toString(pointers);
+    }
+
+    private final class Extraction {
+        private final JSONTokenizer jsonTokenizer;
+        private final Object[] values = new Object[paths];
+        private final boolean[] resolved = new boolean[paths];
+
+        private Extraction(JSONTokenizer jsonTokenizer) {
+            this.jsonTokenizer = jsonTokenizer;
+        }
+
+        /**
+         * Reads the value starting with the current token, or skips it if no pointer goes through it.
+         *
+         * @return number of paths newly found in the value
+         */
+        private int descend(Node node, JsonEventType eventType) {
+            if (node.id != -1 && !resolved[node.id]) {
+                // the whole value is needed: paths below are read from it
+                Object value = value(eventType);
+                return resolve(node, value);
+            }
+            int pending = node.unresolved(resolved);
+            if (pending == 0) {
+                skip(eventType);
+                return 0;
+            }
+            int foundHere = 0;
+            if (eventType == JsonEventType.START_OBJECT) {
+                JsonEventType next;
+                while ((next = jsonTokenizer.nextEvent()) != JsonEventType.END_OBJECT) {
+                    if (next != JsonEventType.KEY_NAME) {
+                        continue;
+                    }
+                    Node child = node.find(jsonTokenizer.source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+                    // colon
+                    jsonTokenizer.nextEvent();
+                    next = jsonTokenizer.nextEvent();
+                    if (child == null) {
+                        skip(next);
+                        continue;
+                    }
+                    // the last value of a duplicated key wins, as in parseObject
+                    foundHere -= reset(child);
+                    foundHere += descend(child, next);
+                }
+            } else if (eventType == JsonEventType.START_ARRAY) {
+                int index = 0;
+                JsonEventType next;
+                while (true) {
+                    if (index > node.maxIndex) {
+                        jsonTokenizer.skipToEndOfContainer();
+                        break;
+                    }
+                    next = jsonTokenizer.nextEvent();
+                    if (next == JsonEventType.END_ARRAY) {
+                        break;
+                    } else if (next == JsonEventType.COMMA) {
+                        continue;
+                    }
+                    Node child = node.find(index++);
+                    if (child == null) {
+                        skip(next);
+                        continue;
+                    }
+                    foundHere += descend(child, next);
+                    if (foundHere == pending) {
+                        jsonTokenizer.skipToEndOfContainer();
+                        break;
+                    }
+                }
+            }
+            return foundHere;
+        }
+
+        /**
+         * Forgets the paths found in the value of a key, before reading the value of the same key again.
+         *
+         * @return number of paths forgotten
+         */
+        private int reset(Node node) {
+            int forgotten = 0;
+            if (node.id != -1 && resolved[node.id]) {
+                values[node.id] = null;
+                resolved[node.id] = false;
+                forgotten++;
+            }
+            for (Node child : node.children) {
+                forgotten += reset(child);
+            }
+            return forgotten;
+        }
+
+        private void skip(JsonEventType eventType) {
+            if (eventType == JsonEventType.START_OBJECT || eventType == JsonEventType.START_ARRAY) {
+                jsonTokenizer.skipToEndOfContainer();
+            }
+        }
+
+        private Object value(JsonEventType eventType) {
+            JSONTokenizer.JsonIndices token = new JSONTokenizer.JsonIndices(jsonTokenizer.source, eventType, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind);
+            switch (eventType) {
+                case START_OBJECT:
+                    return new JSONObject(jsonTokenizer, token);
+                case START_ARRAY:
+                    return new JSONArray(jsonTokenizer, token);
+                default:
+                    return token.toObject();
+            }
+        }
+
+        /**
+         * Finds the node and the paths below it in a value already read.
+         *
+         * @return number of paths newly found
+         */
+        private int resolve(Node node, @Nullable Object value) {
+            int foundHere = 0;
+            if (node.id != -1 && !resolved[node.id]) {
+                values[node.id] = value;
+                resolved[node.id] = true;
+                foundHere++;
+            }
+            for (Node child : node.children) {
+                Object childValue = null;
+                if (value instanceof JSONObject) {
+                    childValue = ((JSONObject) value).get(child.name);
+                } else if (value instanceof JSONArray && child.index != -1 && child.index < ((JSONArray) value).length()) {
+                    childValue = ((JSONArray) value).get(child.index);
+                }
+                foundHere += resolve(child, childValue);
+            }
+            return foundHere;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /**
+         * reference token, unescaped. null for the root.
+         */
+        final String name;
+        /**
+         * array index the reference token stands for, or -1
+         */
+        final int index;
+        Node[] children = NO_CHILDREN;
+        int maxIndex = -1;
+        /**
+         * number of the path ending here, or -1
+         */
+        int id = -1;
+        /**
+         * pointers ending here
+         */
+        int[] pointers;
+
+        private Node(String name) {
+            this.name = name;
+            this.index = name == null ? -1 : index(name);
+        }
+
+        private Node child(String token) {
+            for (Node child : children) {
+                if (child.name.equals(token)) {
+                    return child;
+                }
+            }
+            Node child = new Node(token);
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+            maxIndex = Math.max(maxIndex, child.index);
+            return child;
+        }
+
+        private Node find(JSONSource source, int start, int end) {
+            for (Node child : children) {
+                if (source.unescapedEquals(start, end, child.name)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private Node find(int index) {
+            if (index > maxIndex) {
+                return null;
+            }
+            for (Node child : children) {
+                if (child.index == index) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return number of paths through this node, excluding its own, that are not found yet
+         */
+        private int unresolved(boolean[] resolved) {
+            int count = 0;
+            for (Node child : children) {
+                if (child.id != -1 && !resolved[child.id]) {
+                    count++;
+                }
+                count += child.unresolved(resolved);
+            }
+            return count;
+        }
+
+        /**
+         * @return the array index, or -1 if the token is not an array index. Leading zeros are not allowed.
+         */
+        private static int index(String token) {
+            if (token.isEmpty() || token.length() > 9 || token.length() > 1 && token.charAt(0) == '0') {
+                return -1;
+            }
+            for (int i = 0; i < token.length(); i++) {
+                if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                    return -1;
+                }
+            }
+            return Integer.parseInt(token);
+        }
+    }
+
+    /**
+     * @param pointer JSON Pointer
+     * @return unescaped reference tokens
+     */
+    static List<String> tokens(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("JSON Pointer must start with '/': " + pointer);
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 1; i <= pointer.length(); i++) {
+            char c = i < pointer.length() ? pointer.charAt(i) : '/';
+            if (c == '/') {
+                tokens.add(token.toString());
+                token.setLength(0);
+            } else if (c == '~') {
+                char escaped = ++i < pointer.length() ? pointer.charAt(i) : 0;
+                if (escaped != '0' && escaped != '1') {
+                    throw new IllegalArgumentException("Illegal escape in JSON Pointer: " + pointer);
+                }
+                token.append(escaped == '0' ? '~' : '/');
+            } else {
+                token.append(c);
+            }
+        }
+        return tokens;
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = value;
+        return appended;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Drives a {@link JSONVisitor} from the tokenizer loop. Keys are shared through a small symbol table per visit,
+ * and numbers are handed over as a reused {@link JSONVisitor.NumberToken}.
+ */
+final class JSONPushParser {
+    private static final int SYMBOLS = 256;
+    /**
+     * positions in a mapping are int: a larger file is mapped one window at a time
+     */
+    static final int WINDOW = Integer.MAX_VALUE;
+    /**
+     * bytes of a window fed to the feeder at once
+     */
+    private static final int CHUNK = 64 * 1024;
+
+    private JSONPushParser() {
+    }
+
+    /**
+     * @param window largest region of the file mapped at once
+     */
+    static void visit(Path path, JSONVisitor visitor, int window) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= window) {
+                visit(JSONSource.of(channel, 0, (int) size), visitor);
+                return;
+            }
+            // the feeder resumes a token cut by the end of a window
+            JSONFeeder feeder = JSONFeeder.of(visitor);
+            for (long base = 0; base < size; base += window) {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
+                while (mapped.hasRemaining()) {
+                    ByteBuffer chunk = mapped.duplicate();
+                    chunk.limit(Math.min(chunk.limit(), chunk.position() + CHUNK));
+                    feeder.feed(chunk);
+                    mapped.position(chunk.position());
+                }
+            }
+            feeder.endOfInput();
+        }
+    }
+
+    static void visit(JSONSource source, JSONVisitor visitor) {
+        SymbolTable symbols = new SymbolTable(SYMBOLS, 0);
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(source, 0, symbols);
+        JSONVisitor.NumberToken number = new JSONVisitor.NumberToken();
+        JsonEventType eventType = jsonTokenizer.nextEvent();
+        if (eventType == null) {
+            throw new IllegalJSONFormatException("Unexpected end of JSON.");
+        }
+        int depth = 0;
+        do {
+            switch (eventType) {
+                case START_OBJECT:
+                    if (visitor.startObject()) {
+                        depth++;
+                    } else {
+                        jsonTokenizer.skipToEndOfContainer();
+                    }
+                    break;
+                case END_OBJECT:
+                    depth--;
+                    visitor.endObject();
+                    break;
+                case START_ARRAY:
+                    if (visitor.startArray()) {
+                        depth++;
+                    } else {
+                        jsonTokenizer.skipToEndOfContainer();
+                    }
+                    break;
+                case END_ARRAY:
+                    depth--;
+                    visitor.endArray();
+                    break;
+                case KEY_NAME:
+                    if (!visitor.key(symbols.symbol(source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd))) {
+                        // colon
+                        jsonTokenizer.nextEvent();
+                        eventType = jsonTokenizer.nextEvent();
+                        if (eventType == JsonEventType.START_OBJECT || eventType == JsonEventType.START_ARRAY) {
+                            jsonTokenizer.skipToEndOfContainer();
+                        }
+                    }
+                    break;
+                case VALUE_STRING:
+                    visitor.stringValue(source.unescape(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd));
+                    break;
+                case VALUE_NUMBER:
+                    number.set(source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind);
+                    visitor.numberValue(number);
+                    break;
+                case VALUE_TRUE:
+                    visitor.literal(Boolean.TRUE);
+                    break;
+                case VALUE_FALSE:
+                    visitor.literal(Boolean.FALSE);
+                    break;
+                case VALUE_NULL:
+                    visitor.literal(null);
+                    break;
+                default:
+                    break;
+            }
+        } while (depth != 0 && (eventType = jsonTokenizer.nextEvent()) != null);
+        if (jsonTokenizer.nextEvent() != null) {
+            throw new IllegalJSONFormatException("Illegal JSON format");
+        }
+    }
+}
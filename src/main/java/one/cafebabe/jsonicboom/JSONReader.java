@@ -0,0 +1,208 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * Pull parser reading one token at a time. The accessors read the current token straight from the source, so numbers and booleans are read
+ * without allocating, and names can be compared with {@link #currentNameEquals(String)} without creating Strings.<br>
+ * Tokens are validated as {@link JSON#parseObject(String)} does, except for the contents skipped by {@link #skipChildren()} and {@link #skipValue()},
+ * which are passed over by matching brackets outside strings.
+ */
+public final class JSONReader {
+    private final JSONTokenizer jsonTokenizer;
+    private final JSONSource source;
+    private JsonEventType currentToken;
+    private int nameStart = -1;
+    private int nameEnd = -1;
+
+    JSONReader(JSONSource source) {
+        this.source = source;
+        this.jsonTokenizer = new JSONTokenizer(source);
+    }
+
+    /**
+     * Moves to the next token. Commas and colons are not returned.
+     *
+     * @return the next token, or null at the end of the input
+     * @throws IllegalJSONFormatException if the JSON is invalid
+     */
+    @Nullable
+    public JsonEventType nextToken() {
+        if (currentToken != JsonEventType.KEY_NAME) {
+            // the name belongs to the value following it only
+            nameStart = -1;
+        }
+        JsonEventType eventType;
+        do {
+            eventType = jsonTokenizer.nextEvent();
+        } while (eventType == JsonEventType.COMMA || eventType == JsonEventType.COLON);
+        if (eventType == JsonEventType.KEY_NAME) {
+            nameStart = jsonTokenizer.tokenStart;
+            nameEnd = jsonTokenizer.tokenEnd;
+        }
+        return currentToken = eventType;
+    }
+
+    /**
+     * @return the current token, or null before the first token and at the end of the input
+     */
+    @Nullable
+    public JsonEventType currentToken() {
+        return currentToken;
+    }
+
+    /**
+     * @return the name when the current token is a {@link JsonEventType#KEY_NAME} or the value following it, null otherwise
+     */
+    @Nullable
+    public String currentName() {
+        return nameStart == -1 ? null : source.unescape(nameStart, nameEnd);
+    }
+
+    /**
+     * Compares the name without creating a String.
+     *
+     * @param name name
+     * @return true if {@link #currentName()} equals the name
+     */
+    public boolean currentNameEquals(@NotNull String name) {
+        return nameStart != -1 && source.unescapedEquals(nameStart, nameEnd, name);
+    }
+
+    /**
+     * @return the string, or the text of a number, true or false. null for null.
+     * @throws IllegalJSONFormatException if the current token is not a value
+     */
+    @Nullable
+    public String getString() {
+        switch (value()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return source.unescape(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+            default:
+                return source.substring(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+        }
+    }
+
+    /**
+     * @return the number, or a string holding one
+     * @throws NumberFormatException if the value is not an integer within the range of int
+     */
+    public int getInt() {
+        if (value() == JsonEventType.VALUE_NUMBER) {
+            long value = source.parseLong(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+            if ((int) value != value) {
+                throw source.numberFormatException(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+            }
+            return (int) value;
+        }
+        return Integer.parseInt(getString());
+    }
+
+    /**
+     * @return the number, or a string holding one
+     * @throws NumberFormatException if the value is not an integer within the range of long
+     */
+    public long getLong() {
+        if (value() == JsonEventType.VALUE_NUMBER) {
+            return source.parseLong(jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+        }
+        return Long.parseLong(getString());
+    }
+
+    /**
+     * @return the number, or a string holding one
+     * @throws NumberFormatException if the value is not a number
+     */
+    public double getDouble() {
+        if (value() == JsonEventType.VALUE_NUMBER) {
+            return DoubleParser.parse(source, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd);
+        }
+        //noinspection DataFlowIssue
+        return Double.parseDouble(getString());
+    }
+
+    /**
+     * @return the number, or a string holding one. null for null.
+     * @throws NumberFormatException if the value is not a number
+     */
+    @Nullable
+    public BigDecimal getBigDecimal() {
+        String value = getString();
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    /**
+     * @return true for true, or a string equal to "true" ignoring case
+     */
+    public boolean getBoolean() {
+        switch (value()) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            default:
+                return Boolean.parseBoolean(getString());
+        }
+    }
+
+    /**
+     * Moves to the end of the current object or array without reading its contents. Does nothing on other tokens.
+     */
+    public void skipChildren() {
+        if (currentToken == JsonEventType.START_OBJECT || currentToken == JsonEventType.START_ARRAY) {
+            nameStart = -1;
+            jsonTokenizer.skipToEndOfContainer();
+            currentToken = source.charAt(jsonTokenizer.tokenStart) == '}' ? JsonEventType.END_OBJECT : JsonEventType.END_ARRAY;
+        }
+    }
+
+    /**
+     * Moves to the last token of the current value, skipping the contents of an object or an array.
+     * On a {@link JsonEventType#KEY_NAME}, skips the value following it.
+     */
+    public void skipValue() {
+        if (currentToken == JsonEventType.KEY_NAME) {
+            nextToken();
+        }
+        skipChildren();
+    }
+
+    private JsonEventType value() {
+        if (currentToken == null) {
+            throw new IllegalStateException("No current token");
+        }
+        switch (currentToken) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+                return currentToken;
+            default:
+                throw new IllegalJSONFormatException("Expecting a value, got " + currentToken + ".", source, jsonTokenizer.tokenStart);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads successive JSON objects and arrays, one per line as in JSON Lines / NDJSON, or simply concatenated with or without whitespace in between.<br>
+ * Records are cut from a read buffer reused from record to record by matching brackets outside strings, then parsed and validated as
+ * {@link JSON#parseObject(String)} / {@link JSON#parseArray(String)} do. Each value is a {@link JSONObject} or a {@link JSONArray}.
+ * Read errors are thrown as {@link UncheckedIOException}.
+ */
+public final class JSONSequenceReader implements Iterator<Object>, Closeable {
+    private static final int BUFFER = 64 * 1024;
+    /**
+     * positions in a mapping are int: a larger file is mapped one window at a time
+     */
+    private static final int WINDOW = Integer.MAX_VALUE;
+
+    private final Records records;
+
+    private JSONSequenceReader(Records records) {
+        this.records = records;
+    }
+
+    static JSONSequenceReader of(Reader reader) {
+        return new JSONSequenceReader(new CharRecords(reader));
+    }
+
+    static JSONSequenceReader of(InputStream in) {
+        return new JSONSequenceReader(new ByteRecords(in));
+    }
+
+    static JSONSequenceReader of(Path path) throws IOException {
+        return of(path, WINDOW);
+    }
+
+    /**
+     * @param window largest region of the file mapped at once, which bounds the size of a record
+     */
+    static JSONSequenceReader of(Path path, int window) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new JSONSequenceReader(new ByteRecords(channel, window));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return records.hasNext();
+    }
+
+    /**
+     * @return next {@link JSONObject} or {@link JSONArray}
+     */
+    @Override
+    public Object next() {
+        return parse(records.next());
+    }
+
+    /**
+     * @return values in order, parsed on the calling thread. Closing the stream closes this reader.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::closeUnchecked);
+    }
+
+    /**
+     * Records are still read on one thread, but handed to the worker threads of the stream in batches to be parsed.
+     *
+     * @param ordered true to keep the values in the order of the input for ordered terminal operations such as forEachOrdered and collect.
+     *                false lets the values be consumed in any order, which keeps fewer parsed values waiting
+     * @return values parsed in parallel. Closing the stream closes this reader.
+     */
+    public Stream<Object> parallelStream(boolean ordered) {
+        Stream<Object> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), true)
+                .map(JSONSequenceReader::parse);
+        return (ordered ? stream : stream.unordered()).onClose(this::closeUnchecked);
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object parse(Record record) {
+        JSONTokenizer jsonTokenizer = new JSONTokenizer(record.source, record.start);
+        JSONTokenizer.JsonIndices next = jsonTokenizer.next();
+        Object value = next.jsonEventType == JSONTokenizer.JsonEventType.START_OBJECT
+                ? new JSONObject(jsonTokenizer, next) : new JSONArray(jsonTokenizer, next);
+        if (jsonTokenizer.tokenEnd != record.end) {
+            throw new IllegalJSONFormatException("Illegal JSON format", record.source, jsonTokenizer.tokenEnd);
+        }
+        return value;
+    }
+
+    /**
+     * an object or array from start to end
+     */
+    private static final class Record {
+        final JSONSource source;
+        final int start;
+        final int end;
+
+        Record(JSONSource source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private abstract static class Records implements Iterator<Record>, Closeable {
+        private int depth = 0;
+        private boolean inString = false;
+        private boolean escaped = false;
+        private Record pending;
+
+        /**
+         * @return the next record, or null at the end of the input
+         */
+        abstract Record read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (pending == null) {
+                try {
+                    pending = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return pending != null;
+        }
+
+        @Override
+        public Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Record next = pending;
+            pending = null;
+            return next;
+        }
+
+        /**
+         * @param c character outside a record
+         * @return true if c starts a record, false if it is whitespace
+         */
+        static boolean startsRecord(int c) {
+            switch (c) {
+                case '{':
+                case '[':
+                    return true;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    return false;
+                default:
+                    throw new IllegalJSONFormatException(String.format("Unexpected character found: '%s'. Expecting '{' or '['.", (char) c));
+            }
+        }
+
+        /**
+         * @param c next character of the record
+         * @return true if c closes the record
+         */
+        final boolean closes(int c) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                return false;
+            }
+            switch (c) {
+                case '"':
+                    inString = true;
+                    return false;
+                case '{':
+                case '[':
+                    depth++;
+                    return false;
+                case '}':
+                case ']':
+                    return --depth == 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Records of UTF-8 encoded input. A record read from a stream is copied to an array of its own and parsed without decoding,
+     * a record of a mapped file refers to the mapping. A file larger than a window is mapped again from the start of the buffer
+     * when a record runs past the end of the window.
+     */
+    private static final class ByteRecords extends Records {
+        private final InputStream in;
+        /**
+         * open until the last window is mapped
+         */
+        private FileChannel channel;
+        private final long size;
+        private final int window;
+        /**
+         * position of the mapping in the file
+         */
+        private long base = 0;
+        private JSONSource mapped;
+        private byte[] buffer = new byte[BUFFER];
+        /**
+         * position of the buffer in the mapping
+         */
+        private int offset = 0;
+        private int start = 0;
+        private int position = 0;
+        private int limit = 0;
+
+        ByteRecords(InputStream in) {
+            this.in = in;
+            size = 0;
+            window = 0;
+        }
+
+        ByteRecords(FileChannel channel, int window) throws IOException {
+            in = null;
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = window;
+            map();
+        }
+
+        private void map() throws IOException {
+            mapped = JSONSource.of(channel, base, (int) Math.min(window, size - base));
+            if (base + mapped.length() == size) {
+                // the mapping stays valid after the channel is closed
+                channel.close();
+                channel = null;
+            }
+        }
+
+        @Override
+        Record read() throws IOException {
+            do {
+                if (position == limit) {
+                    start = position;
+                    if (!fill()) {
+                        return null;
+                    }
+                }
+            } while (!startsRecord(buffer[position++]));
+            start = position - 1;
+            closes(buffer[start]);
+            do {
+                if (position == limit && !fill()) {
+                    throw new IllegalJSONFormatException("Unexpected end of JSON.");
+                }
+            } while (!closes(buffer[position++]));
+            if (mapped != null) {
+                return new Record(mapped, offset + start, offset + position);
+            }
+            int length = position - start;
+            return new Record(JSONSource.of(Arrays.copyOfRange(buffer, start, position), 0, length), 0, length);
+        }
+
+        /**
+         * Keeps the bytes from start, moving them to the beginning of the buffer, and reads more after them.
+         *
+         * @return false at the end of the input
+         */
+        private boolean fill() throws IOException {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                offset += start;
+                position -= start;
+                limit -= start;
+                start = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read;
+            if (mapped != null) {
+                if (offset + limit == mapped.length() && channel != null) {
+                    if (offset == 0) {
+                        throw new IOException(String.format("A record is larger than %d bytes at position %d.", window, base));
+                    }
+                    base += offset;
+                    offset = 0;
+                    map();
+                }
+                read = Math.min(buffer.length - limit, mapped.length() - offset - limit);
+                if (read <= 0) {
+                    return false;
+                }
+                mapped.copyTo(offset + limit, buffer, limit, read);
+            } else {
+                read = in.read(buffer, limit, buffer.length - limit);
+                if (read <= 0) {
+                    return false;
+                }
+            }
+            limit += read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Records of a Reader, each copied to a String of its own.
+     */
+    private static final class CharRecords extends Records {
+        private final Reader reader;
+        private char[] buffer = new char[BUFFER];
+        private int start = 0;
+        private int position = 0;
+        private int limit = 0;
+
+        CharRecords(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Record read() throws IOException {
+            do {
+                if (position == limit) {
+                    start = position;
+                    if (!fill()) {
+                        return null;
+                    }
+                }
+            } while (!startsRecord(buffer[position++]));
+            start = position - 1;
+            closes(buffer[start]);
+            do {
+                if (position == limit && !fill()) {
+                    throw new IllegalJSONFormatException("Unexpected end of JSON.");
+                }
+            } while (!closes(buffer[position++]));
+            int length = position - start;
+            return new Record(JSONSource.of(new String(buffer, start, length)), 0, length);
+        }
+
+        /**
+         * Keeps the characters from start, moving them to the beginning of the buffer, and reads more after them.
+         *
+         * @return false at the end of the input
+         */
+        private boolean fill() throws IOException {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                position -= start;
+                limit -= start;
+                start = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read <= 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,770 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Text the tokenizer reads from. Indices are positions in the underlying storage: chars for a String, bytes for UTF-8 input.<br>
+ * Structural characters, numbers and literals are ASCII, so the tokenizer only needs {@link #charAt(int)}; text is decoded only when a value is requested.
+ */
+abstract class JSONSource {
+
+    static JSONSource of(String jsonString) {
+        return new OfString(jsonString);
+    }
+
+    /**
+     * @param path UTF-8 encoded file
+     * @return source reading the file through a read-only memory mapping
+     * @throws IOException when the file cannot be mapped, or is 2GiB or larger
+     */
+    static JSONSource of(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // token positions are int
+                throw new IOException(String.format("%s is too large: %d bytes. Up to %d bytes are supported.", path, size, Integer.MAX_VALUE));
+            }
+            // the mapping stays valid after the channel is closed
+            return of(channel, 0, (int) size);
+        }
+    }
+
+    /**
+     * @param channel  UTF-8 encoded file
+     * @param position start of the region in the file
+     * @param length   length of the region
+     * @return source reading the region through a read-only memory mapping, positions starting from 0 at the start of the region
+     * @throws IOException when the file cannot be mapped
+     */
+    static JSONSource of(FileChannel channel, long position, int length) throws IOException {
+        return new OfMappedFile(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+    }
+
+    static JSONSource of(byte[] utf8, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > utf8.length - length) {
+            throw new IndexOutOfBoundsException(String.format("offset: %d, length: %d, array length: %d", offset, length, utf8.length));
+        }
+        return new OfUTF8(utf8, offset, length);
+    }
+
+    abstract int length();
+
+    /**
+     * @param index position
+     * @return char at the position, or the unsigned byte value for UTF-8 input
+     */
+    abstract char charAt(int index);
+
+    /**
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @return decoded text
+     */
+    abstract String substring(int start, int end);
+
+    /**
+     * Copies positions as bytes for scanning the structure in bulk.
+     *
+     * @param start             start position
+     * @param destination       destination
+     * @param destinationOffset start in the destination
+     * @param length            number of positions to copy
+     */
+    abstract void copyTo(int start, byte[] destination, int destinationOffset, int length);
+
+    /**
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @param out   receives the decoded text
+     * @throws IOException when out fails
+     */
+    void appendTo(int start, int end, Appendable out) throws IOException {
+        out.append(substring(start, end));
+    }
+
+    /**
+     * Validates an encoded non-ASCII character.
+     *
+     * @param index position of a char or byte greater than 0x7F
+     * @return position of the last char or byte belonging to the character
+     */
+    int skipEncodedCharacter(int index) {
+        return index;
+    }
+
+    /**
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @return the text with JSON escape sequences resolved
+     */
+    String unescape(int start, int end) {
+        String text = substring(start, end);
+        return unescape(text, 0, text.length());
+    }
+
+    /**
+     * Compares without decoding as long as the text has no escape sequence.
+     *
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @param value value to compare with
+     * @return true if the unescaped text equals to the value
+     */
+    boolean unescapedEquals(int start, int end, String value) {
+        int length = end - start;
+        for (int i = 0; i < length; i++) {
+            char c = charAt(start + i);
+            if (c == '\\' || (c > 0x7F && isEncoded())) {
+                return unescape(start, end).equals(value);
+            }
+            if (i >= value.length() || c != value.charAt(i)) {
+                return false;
+            }
+        }
+        return length == value.length();
+    }
+
+    /**
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @return hash of the text as it is stored in the source, escape sequences included
+     */
+    int hash(int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Parses an integer from the source without creating a String, accumulating negatively as {@link Long#parseLong(String)} does
+     * so that {@link Long#MIN_VALUE} doesn't overflow.
+     *
+     * @param start start position, inclusive
+     * @param end   end position, exclusive
+     * @return the value
+     * @throws NumberFormatException if the text is not an integer within the range of long
+     */
+    long parseLong(int start, int end) {
+        int i = start;
+        boolean negative = i < end && charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw numberFormatException(start, end);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value < Long.MIN_VALUE / 10) {
+                throw numberFormatException(start, end);
+            }
+            value *= 10;
+            if (value < Long.MIN_VALUE + digit) {
+                throw numberFormatException(start, end);
+            }
+            value -= digit;
+        }
+        if (negative) {
+            return value;
+        }
+        if (value == Long.MIN_VALUE) {
+            throw numberFormatException(start, end);
+        }
+        return -value;
+    }
+
+    NumberFormatException numberFormatException(int start, int end) {
+        return new NumberFormatException("For input string: \"" + substring(start, end) + "\"");
+    }
+
+    /**
+     * @return true if a non-ASCII character spans more than one position
+     */
+    boolean isEncoded() {
+        return false;
+    }
+
+    boolean regionMatches(int index, String ascii) {
+        if (index + ascii.length() > length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (charAt(index + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String composeMessage(String message, int index) {
+        int excerptStart = Math.max(0, index - 40);
+        // index + 40 overflows near the end of a 2GiB mapping
+        int excerptEnd = index > length() - 40 ? length() : index + 40;
+        return IllegalJSONFormatException.composeMessage(message, substring(excerptStart, excerptEnd), index - excerptStart);
+    }
+
+    /**
+     * Returns a substring when there is no backslash. Otherwise copies the runs between
+     * escape sequences in bulk. Escape sequences are expected to be validated by the tokenizer. A surrogate pair written as two hex escape sequences
+     * becomes two adjacent chars, i.e. the pair.
+     */
+    static String unescape(String text, int startIndex, int endIndex) {
+        int backslash = indexOfBackslash(text, startIndex, endIndex);
+        if (backslash == -1) {
+            return text.substring(startIndex, endIndex);
+        }
+        // unescaped text is never longer
+        char[] output = new char[endIndex - startIndex];
+        int length = backslash - startIndex;
+        text.getChars(startIndex, backslash, output, 0);
+        int plain = 0;
+        for (int i = backslash; i < endIndex; ) {
+            char c = text.charAt(i++);
+            if (c != '\\') {
+                output[length++] = c;
+                if (++plain == 16) {
+                    // a long run: copy up to the next backslash in bulk
+                    int next = indexOfBackslash(text, i, endIndex);
+                    if (next == -1) {
+                        next = endIndex;
+                    }
+                    text.getChars(i, next, output, length);
+                    length += next - i;
+                    i = next;
+                    plain = 0;
+                }
+                continue;
+            }
+            plain = 0;
+            c = text.charAt(i++);
+            switch (c) {
+                case 'b':
+                    output[length++] = '\b';
+                    break;
+                case 'f':
+                    output[length++] = '\f';
+                    break;
+                case 'n':
+                    output[length++] = '\n';
+                    break;
+                case 'r':
+                    output[length++] = '\r';
+                    break;
+                case 't':
+                    output[length++] = '\t';
+                    break;
+                case 'u':
+                    output[length++] = (char) (hexDigit(text.charAt(i)) << 12 | hexDigit(text.charAt(i + 1)) << 8
+                            | hexDigit(text.charAt(i + 2)) << 4 | hexDigit(text.charAt(i + 3)));
+                    i += 4;
+                    break;
+                default:
+                    // '"', '\\' and '/' stand for themselves
+                    output[length++] = c;
+                    break;
+            }
+        }
+        return new String(output, 0, length);
+    }
+
+    /**
+     * String.indexOf can't be bounded and would scan the rest of the document.
+     *
+     * @return position of the first backslash from start up to end, or -1
+     */
+    private static int indexOfBackslash(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\\') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param c one of [0-9a-fA-F]
+     * @return value of the hex digit
+     */
+    private static int hexDigit(char c) {
+        // letters have bit 6 set and their low 4 bits are 1 to 6
+        return (c & 0xF) + (c >> 6) * 9;
+    }
+
+    static final class OfString extends JSONSource {
+        private final String jsonString;
+
+        OfString(String jsonString) {
+            this.jsonString = jsonString;
+        }
+
+        @Override
+        int length() {
+            return jsonString.length();
+        }
+
+        @Override
+        char charAt(int index) {
+            return jsonString.charAt(index);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            return jsonString.substring(start, end);
+        }
+
+        @Override
+        void copyTo(int start, byte[] destination, int destinationOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                char c = jsonString.charAt(start + i);
+                // bulk scans look for structural characters only, and a letter stands in for any other character
+                destination[destinationOffset + i] = c < 0x80 ? (byte) c : (byte) 'a';
+            }
+        }
+
+        @Override
+        void appendTo(int start, int end, Appendable out) throws IOException {
+            out.append(jsonString, start, end);
+        }
+
+        @Override
+        String unescape(int start, int end) {
+            return unescape(jsonString, start, end);
+        }
+
+        @Override
+        boolean regionMatches(int index, String ascii) {
+            return jsonString.startsWith(ascii, index);
+        }
+
+        @Override
+        String composeMessage(String message, int index) {
+            return IllegalJSONFormatException.composeMessage(message, jsonString, index);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return jsonString.equals(((OfString) o).jsonString);
+        }
+
+        @Override
+        public int hashCode() {
+            return jsonString.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return jsonString;
+        }
+    }
+
+    /**
+     * UTF-8 encoded source. {@link #charAt(int)} returns the unsigned byte value.
+     */
+    abstract static class OfBytes extends JSONSource {
+        private int hash;
+
+        @Override
+        int skipEncodedCharacter(int index) {
+            int lead = charAt(index);
+            int continuationBytes;
+            // smallest and largest allowed value of the first continuation byte, excluding overlong forms and surrogates
+            int min = 0x80;
+            int max = 0xBF;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                continuationBytes = 1;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                continuationBytes = 2;
+                if (lead == 0xE0) {
+                    min = 0xA0;
+                } else if (lead == 0xED) {
+                    max = 0x9F;
+                }
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                continuationBytes = 3;
+                if (lead == 0xF0) {
+                    min = 0x90;
+                } else if (lead == 0xF4) {
+                    max = 0x8F;
+                }
+            } else {
+                throw new IllegalJSONFormatException(String.format("Invalid UTF-8 start byte 0x%02X.", lead), this, index);
+            }
+            if (index + continuationBytes >= length()) {
+                throw new IllegalJSONFormatException("Unexpected end of JSON.", this, length() - 1);
+            }
+            for (int i = 1; i <= continuationBytes; i++) {
+                int continuation = charAt(index + i);
+                if (continuation < min || continuation > max) {
+                    throw new IllegalJSONFormatException(String.format("Invalid UTF-8 continuation byte 0x%02X.", continuation), this, index + i);
+                }
+                min = 0x80;
+                max = 0xBF;
+            }
+            return index + continuationBytes;
+        }
+
+        @Override
+        boolean isEncoded() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            OfBytes that = (OfBytes) o;
+            int length = length();
+            if (length != that.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (charAt(i) != that.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                int length = length();
+                for (int i = 0; i < length; i++) {
+                    h = 31 * h + charAt(i);
+                }
+                hash = h;
+            }
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            return substring(0, length());
+        }
+    }
+
+    static final class OfUTF8 extends OfBytes {
+        private final byte[] utf8;
+        private final int offset;
+        private final int length;
+
+        OfUTF8(byte[] utf8, int offset, int length) {
+            this.utf8 = utf8;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        char charAt(int index) {
+            return (char) (utf8[offset + index] & 0xFF);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            return new String(utf8, offset + start, end - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void copyTo(int start, byte[] destination, int destinationOffset, int length) {
+            System.arraycopy(utf8, offset + start, destination, destinationOffset, length);
+        }
+    }
+
+    /**
+     * UTF-8 encoded file mapped into memory. The bytes stay in the OS page cache; only decoded values occupy the heap.
+     */
+    static final class OfMappedFile extends OfBytes {
+        private final ByteBuffer buffer;
+        private final int length;
+
+        OfMappedFile(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.length = buffer.limit();
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            copyTo(start, bytes, 0, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void copyTo(int start, byte[] destination, int destinationOffset, int length) {
+            ByteBuffer duplicate = buffer.duplicate();
+            duplicate.position(start);
+            duplicate.get(destination, destinationOffset, length);
+        }
+    }
+
+    /**
+     * Ranges of other sources joined without copying them: the result of editing a document.
+     * All segments have the same encoding, and a segment boundary never splits a character.
+     */
+    static final class Spliced extends JSONSource {
+        private final JSONSource[] sources;
+        /**
+         * start of every segment in its source
+         */
+        private final int[] starts;
+        /**
+         * position of every segment in this source, followed by the length
+         */
+        private final int[] positions;
+        private final boolean encoded;
+        // segment of the last access. Reads are mostly sequential.
+        private int last = 0;
+        private int hash;
+
+        private Spliced(JSONSource[] sources, int[] starts, int[] positions, boolean encoded) {
+            this.sources = sources;
+            this.starts = starts;
+            this.positions = positions;
+            this.encoded = encoded;
+        }
+
+        private int segment(int index) {
+            int segment = last;
+            if (index < positions[segment] || index >= positions[segment + 1]) {
+                segment = Arrays.binarySearch(positions, 0, sources.length, index);
+                if (segment < 0) {
+                    segment = -segment - 2;
+                }
+                last = segment;
+            }
+            return segment;
+        }
+
+        @Override
+        int length() {
+            return positions[sources.length];
+        }
+
+        @Override
+        char charAt(int index) {
+            int segment = segment(index);
+            return sources[segment].charAt(index - positions[segment] + starts[segment]);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            if (encoded) {
+                byte[] bytes = new byte[end - start];
+                copyTo(start, bytes, 0, bytes.length);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            StringBuilder sb = new StringBuilder(end - start);
+            try {
+                appendTo(start, end, sb);
+            } catch (IOException e) {
+                // StringBuilder doesn't throw
+                throw new UncheckedIOException(e);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        void copyTo(int start, byte[] destination, int destinationOffset, int length) {
+            int end = start + length;
+            for (int segment = segment(start); start < end; segment++) {
+                int count = Math.min(end, positions[segment + 1]) - start;
+                sources[segment].copyTo(start - positions[segment] + starts[segment], destination, destinationOffset, count);
+                start += count;
+                destinationOffset += count;
+            }
+        }
+
+        @Override
+        void appendTo(int start, int end, Appendable out) throws IOException {
+            for (int segment = segment(start); start < end; segment++) {
+                int segmentEnd = Math.min(end, positions[segment + 1]);
+                int offset = starts[segment] - positions[segment];
+                sources[segment].appendTo(start + offset, segmentEnd + offset, out);
+                start = segmentEnd;
+            }
+        }
+
+        @Override
+        int skipEncodedCharacter(int index) {
+            int segment = segment(index);
+            int offset = starts[segment] - positions[segment];
+            return sources[segment].skipEncodedCharacter(index + offset) - offset;
+        }
+
+        @Override
+        boolean isEncoded() {
+            return encoded;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Spliced that = (Spliced) o;
+            int length = length();
+            if (encoded != that.encoded || length != that.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (charAt(i) != that.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                h = hash(0, length());
+                hash = h;
+            }
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            return substring(0, length());
+        }
+    }
+
+    /**
+     * Builds a {@link Spliced} source from ranges, merging adjacent ranges of the same source.
+     * Segments of a spliced source are added as the ranges they refer to, so edits of edits don't nest.
+     */
+    static final class Splicer {
+        /**
+         * more segments than this are copied into a single source
+         */
+        private static final int MAX_SEGMENTS = 64;
+        private final boolean encoded;
+        private JSONSource[] sources = new JSONSource[8];
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int count = 0;
+        private int length = 0;
+
+        /**
+         * @param encoded true for UTF-8 encoded segments
+         */
+        Splicer(boolean encoded) {
+            this.encoded = encoded;
+        }
+
+        /**
+         * @param source source in the encoding of this splicer
+         * @param start  start position, inclusive
+         * @param end    end position, exclusive
+         * @return this
+         */
+        Splicer add(JSONSource source, int start, int end) {
+            if (start == end) {
+                return this;
+            }
+            if (source instanceof Spliced) {
+                Spliced spliced = (Spliced) source;
+                for (int segment = spliced.segment(start); start < end; segment++) {
+                    int segmentEnd = Math.min(end, spliced.positions[segment + 1]);
+                    int offset = spliced.starts[segment] - spliced.positions[segment];
+                    add(spliced.sources[segment], start + offset, segmentEnd + offset);
+                    start = segmentEnd;
+                }
+                return this;
+            }
+            length += end - start;
+            if (count != 0 && sources[count - 1] == source && ends[count - 1] == start) {
+                ends[count - 1] = end;
+                return this;
+            }
+            if (count == sources.length) {
+                sources = Arrays.copyOf(sources, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            sources[count] = source;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+            return this;
+        }
+
+        /**
+         * @param text text, encoded to UTF-8 if this splicer is
+         * @return this
+         */
+        Splicer add(String text) {
+            byte[] utf8 = encoded ? text.getBytes(StandardCharsets.UTF_8) : null;
+            JSONSource source = encoded ? new OfUTF8(utf8, 0, utf8.length) : of(text);
+            return add(source, 0, source.length());
+        }
+
+        int length() {
+            return length;
+        }
+
+        JSONSource build() {
+            if (count == 1 && starts[0] == 0 && ends[0] == sources[0].length()) {
+                return sources[0];
+            }
+            int[] positions = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                positions[i + 1] = positions[i] + ends[i] - starts[i];
+            }
+            Spliced spliced = new Spliced(Arrays.copyOf(sources, count), Arrays.copyOf(starts, count), positions, encoded);
+            if (count <= MAX_SEGMENTS) {
+                return spliced;
+            }
+            if (encoded) {
+                byte[] bytes = new byte[length];
+                spliced.copyTo(0, bytes, 0, length);
+                return new OfUTF8(bytes, 0, length);
+            }
+            return of(spliced.substring(0, length));
+        }
+    }
+}
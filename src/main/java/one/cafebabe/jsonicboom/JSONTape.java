@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+import one.cafebabe.jsonicboom.JSONTokenizer.NumberKind;
+
+import java.util.Arrays;
+
+/**
+ * Tokens of a document packed into a long[]. Commas, colons and closing brackets are not recorded.<br>
+ * A key or a scalar value takes 2 words: {@code type << 32 | start} and {@code kind << 32 | end} where kind is the {@link NumberKind} of a number.<br>
+ * A container takes 3 words: {@code type << 32 | start}, {@code next << 32 | end} and {@code nested << 32 | count}
+ * where next is the tape position right after the container, count is the number of values, and nested is 1 if a value is a container.<br>
+ * Values of an array without nested containers are laid out at a fixed stride and can be accessed by index directly.
+ */
+final class JSONTape {
+    private static final JsonEventType[] TYPES = JsonEventType.values();
+    private static final NumberKind[] NUMBER_KINDS = NumberKind.values();
+    private static final long INT_MASK = 0xFFFFFFFFL;
+    static final int SCALAR_WORDS = 2;
+    static final int CONTAINER_WORDS = 3;
+
+    final JSONSource source;
+    private final SymbolTable symbols;
+    private long[] words;
+    private int size = 0;
+
+    private JSONTape(JSONSource source, SymbolTable symbols) {
+        this.source = source;
+        this.symbols = symbols;
+        this.words = new long[Math.max(16, source.length() / 8)];
+    }
+
+    /**
+     * Records tokens until the first top-level container is closed.
+     *
+     * @param tokenizer tokenizer positioned at the start of a container
+     * @param root      expected type of the root container
+     * @return tape whose root container is at position 0
+     */
+    static JSONTape parse(JSONTokenizer tokenizer, JsonEventType root) {
+        JSONTape tape = new JSONTape(tokenizer.source, tokenizer.symbols);
+        int[] open = new int[16];
+        int depth = 0;
+        JsonEventType eventType;
+        while ((eventType = tokenizer.nextEvent()) != null) {
+            switch (eventType) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    if (depth != 0) {
+                        tape.addValue(open[depth - 1], true);
+                    }
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = tape.size;
+                    tape.add(eventType, tokenizer.tokenStart, 0, 0);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    int position = open[--depth];
+                    tape.words[position + 1] = (long) tape.size << 32 | tokenizer.tokenEnd;
+                    if (depth == 0) {
+                        if (tape.type(0) != root) {
+                            throw new IllegalJSONFormatException("Illegal JSON format");
+                        }
+                        return tape;
+                    }
+                    break;
+                case COMMA:
+                case COLON:
+                    break;
+                case KEY_NAME:
+                    tape.add(eventType, tokenizer.tokenStart, tokenizer.tokenEnd);
+                    break;
+                default:
+                    tape.addValue(open[depth - 1], false);
+                    tape.add(eventType, tokenizer.tokenStart, tokenizer.tokenEnd);
+                    if (eventType == JsonEventType.VALUE_NUMBER) {
+                        tape.words[tape.size - 1] |= (long) tokenizer.numberKind.ordinal() << 32;
+                    }
+                    break;
+            }
+        }
+        throw new IllegalJSONFormatException("Unexpected end of JSON.");
+    }
+
+    private void add(JsonEventType eventType, int start, int end) {
+        ensureCapacity(SCALAR_WORDS);
+        words[size++] = (long) eventType.ordinal() << 32 | start;
+        words[size++] = end;
+    }
+
+    private void add(JsonEventType eventType, int start, long second, long third) {
+        ensureCapacity(CONTAINER_WORDS);
+        words[size++] = (long) eventType.ordinal() << 32 | start;
+        words[size++] = second;
+        words[size++] = third;
+    }
+
+    private void addValue(int container, boolean nested) {
+        words[container + 2] = (words[container + 2] + 1) | (nested ? 1L << 32 : 0);
+    }
+
+    private void ensureCapacity(int required) {
+        if (size + required > words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, size + required));
+        }
+    }
+
+    JsonEventType type(int position) {
+        return TYPES[(int) (words[position] >>> 32)];
+    }
+
+    int start(int position) {
+        return (int) words[position];
+    }
+
+    int end(int position) {
+        return (int) (words[position + 1] & INT_MASK);
+    }
+
+    /**
+     * @param position position of a scalar value
+     * @return kind of the number, meaningless for other values
+     */
+    NumberKind numberKind(int position) {
+        return NUMBER_KINDS[(int) (words[position + 1] >>> 32)];
+    }
+
+    /**
+     * @param position position of a value
+     * @return position right after the value, skipping nested tokens of a container
+     */
+    int next(int position) {
+        JsonEventType type = type(position);
+        return type == JsonEventType.START_OBJECT || type == JsonEventType.START_ARRAY ? (int) (words[position + 1] >>> 32) : position + SCALAR_WORDS;
+    }
+
+    int count(int container) {
+        return (int) (words[container + 2] & INT_MASK);
+    }
+
+    boolean hasNestedContainer(int container) {
+        return (words[container + 2] >>> 32) != 0;
+    }
+
+    /**
+     * @param object position of an object
+     * @param name   key name
+     * @return position of the last value with the key, or -1 if the object doesn't have the key
+     */
+    int find(int object, String name) {
+        int end = next(object);
+        int position = object + CONTAINER_WORDS;
+        int found = -1;
+        while (position < end) {
+            int value = position + SCALAR_WORDS;
+            if (source.unescapedEquals(start(position), end(position), name)) {
+                found = value;
+            }
+            position = next(value);
+        }
+        return found;
+    }
+
+    /**
+     * @param array position of an array
+     * @return positions of the values
+     */
+    int[] elements(int array) {
+        int[] elements = new int[count(array)];
+        int position = array + CONTAINER_WORDS;
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = position;
+            position = next(position);
+        }
+        return elements;
+    }
+
+    /**
+     * @param position position of a value
+     * @return JSONObject or JSONArray view for a container, JsonIndices otherwise
+     */
+    Object value(int position) {
+        switch (type(position)) {
+            case START_OBJECT:
+                return new JSONObject(this, position);
+            case START_ARRAY:
+                return new JSONArray(this, position);
+            default:
+                return new JSONTokenizer.JsonIndices(source, type(position), start(position), end(position), numberKind(position)).share(symbols);
+        }
+    }
+}
@@ -18,185 +18,139 @@ package one.cafebabe.jsonicboom;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Objects;
 
 public class JSONTokenizer {
-    final String jsonString;
+    final JSONSource source;
+    private final int length;
     private final JsonNestState state = new JsonNestState();
-
+    int tokenStart;
+    int tokenEnd;
+    /**
+     * kind of the last {@link JsonEventType#VALUE_NUMBER}
+     */
+    NumberKind numberKind;
+    final SymbolTable symbols;
+
+    /**
+     * Validates the token order. Memory is proportional to the nesting depth and every token is checked in constant time.
+     */
     class JsonNestState {
-
-        boolean insideObject = false;
-        boolean insideArray = false;
-        private final Deque<JsonEventType> queue = new ArrayDeque<>();
+        private static final byte OBJECT = 1;
+        private static final byte ARRAY = 2;
+
+        /**
+         * kinds of the enclosing containers, the innermost one at depth - 1
+         */
+        private byte[] containers = new byte[16];
+        private int depth = 0;
+        /**
+         * last token at the current nesting level, null at the top level. A closed container counts as VALUE_STRING.
+         */
+        private JsonEventType previous = null;
 
         void push(JsonEventType eventType) {
             switch (eventType) {
                 case START_OBJECT:
-                    if (insideArray) {
-                        ensurePreviousTokenIs(false, JsonEventType.START_ARRAY, JsonEventType.COMMA);
-                    } else {
-                        ensurePreviousTokenIs(true, JsonEventType.COLON);
+                case START_ARRAY:
+                    if (insideArray()) {
+                        ensurePreviousTokenIs(JsonEventType.START_ARRAY, JsonEventType.COMMA);
+                    } else if (insideObject()) {
+                        ensurePreviousTokenIs(JsonEventType.COLON);
+                    }
+                    if (depth == containers.length) {
+                        containers = Arrays.copyOf(containers, depth * 2);
                     }
-                    insideArray = false;
-                    insideObject = true;
+                    containers[depth++] = eventType == JsonEventType.START_OBJECT ? OBJECT : ARRAY;
                     break;
                 case END_OBJECT:
-                    if (insideArray) {
-                        throw new IllegalJSONFormatException("Illegal JSON format. Expecting ']', got '}'", jsonString, currentIndex);
+                    if (insideArray()) {
+                        throw new IllegalJSONFormatException("Illegal JSON format. Expecting ']', got '}'", source, currentIndex);
                     }
-                    if (!insideObject) {
-                        throw new IllegalJSONFormatException("Illegal JSON format. Got '}' without '{'", jsonString, currentIndex);
-                    }
-                    ensurePreviousTokenIs(false,
-                            JsonEventType.START_OBJECT,
-                            JsonEventType.VALUE_STRING,
-                            JsonEventType.VALUE_NUMBER,
-                            JsonEventType.VALUE_TRUE,
-                            JsonEventType.VALUE_FALSE,
-                            JsonEventType.VALUE_NULL);
-                    // remove stack until START_OBJECT event
-                    //noinspection StatementWithEmptyBody
-                    while (queue.pop() != JsonEventType.START_OBJECT) {
-                        // do nothing
-                    }
-                    if (isLastToken(JsonEventType.COLON) || isLastToken(JsonEventType.COMMA)) {
-                        // put VALUE_STRING instead of OBJECT
-                        queue.push(JsonEventType.VALUE_STRING);
-                    }
-                    checkInsideObjectOrArray();
-                    break;
-                case START_ARRAY:
-                    if (insideArray) {
-                        ensurePreviousTokenIs(false, JsonEventType.START_ARRAY, JsonEventType.COMMA);
-                    } else {
-                        ensurePreviousTokenIs(true, JsonEventType.COLON);
+                    if (!insideObject()) {
+                        throw new IllegalJSONFormatException("Illegal JSON format. Got '}' without '{'", source, currentIndex);
                     }
-                    insideObject = false;
-                    insideArray = true;
-                    break;
+                    ensurePreviousTokenIs(JsonEventType.START_OBJECT, JsonEventType.VALUE_STRING);
+                    close();
+                    return;
                 case END_ARRAY:
-                    if (insideObject) {
-                        throw new IllegalJSONFormatException("Illegal JSON format. Expecting '}', got ']'", jsonString, currentIndex);
-                    }
-                    if (!insideArray) {
-                        throw new IllegalJSONFormatException("Illegal JSON format. Got ']' without '['", jsonString, currentIndex);
+                    if (insideObject()) {
+                        throw new IllegalJSONFormatException("Illegal JSON format. Expecting '}', got ']'", source, currentIndex);
                     }
-                    ensurePreviousTokenIs(false,
-                            JsonEventType.START_ARRAY,
-                            JsonEventType.VALUE_STRING,
-                            JsonEventType.VALUE_NUMBER,
-                            JsonEventType.VALUE_TRUE,
-                            JsonEventType.VALUE_FALSE,
-                            JsonEventType.VALUE_NULL);
-
-                    // remove stack until START_ARRAY event
-                    //noinspection StatementWithEmptyBody
-                    while (queue.pop() != JsonEventType.START_ARRAY) {
-                        // do nothing
+                    if (!insideArray()) {
+                        throw new IllegalJSONFormatException("Illegal JSON format. Got ']' without '['", source, currentIndex);
                     }
-                    if (isLastToken(JsonEventType.COLON) || isLastToken(JsonEventType.COMMA)) {
-                        // put VALUE_STRING instead of OBJECT
-                        queue.push(JsonEventType.VALUE_STRING);
-                    }
-                    checkInsideObjectOrArray();
-
-                    break;
+                    ensurePreviousTokenIs(JsonEventType.START_ARRAY, JsonEventType.VALUE_STRING);
+                    close();
+                    return;
                 case COMMA:
-                    if (insideArray) {
-                        ensurePreviousTokenIs(false,
-                                JsonEventType.START_ARRAY,
-                                JsonEventType.VALUE_STRING,
-                                JsonEventType.VALUE_NUMBER,
-                                JsonEventType.VALUE_TRUE,
-                                JsonEventType.VALUE_FALSE,
-                                JsonEventType.VALUE_NULL);
-                    } else if (insideObject) {
-                        ensurePreviousTokenIs(false,
-                                JsonEventType.VALUE_STRING,
-                                JsonEventType.VALUE_NUMBER,
-                                JsonEventType.VALUE_TRUE,
-                                JsonEventType.VALUE_FALSE,
-                                JsonEventType.VALUE_NULL);
-                    } else {
-                        throw new IllegalJSONFormatException("Illegal JSON format", jsonString, currentIndex);
+                    if (depth == 0) {
+                        throw new IllegalJSONFormatException("Illegal JSON format", source, currentIndex);
                     }
+                    ensurePreviousTokenIs(JsonEventType.VALUE_STRING);
                     break;
                 case COLON:
-                    ensurePreviousTokenIs(false, JsonEventType.KEY_NAME);
+                    ensurePreviousTokenIs(JsonEventType.KEY_NAME);
                     break;
                 case KEY_NAME:
-                    if (!insideObject) {
-                        throw new IllegalJSONFormatException("Illegal JSON format", jsonString, currentIndex);
+                    if (!insideObject()) {
+                        throw new IllegalJSONFormatException("Illegal JSON format", source, currentIndex);
                     }
-                    ensurePreviousTokenIs(false, JsonEventType.START_OBJECT, JsonEventType.COMMA);
+                    ensurePreviousTokenIs(JsonEventType.START_OBJECT, JsonEventType.COMMA);
                     break;
                 case VALUE_STRING:
                 case VALUE_NUMBER:
                 case VALUE_TRUE:
                 case VALUE_FALSE:
                 case VALUE_NULL:
-                    if (insideArray) {
-                        ensurePreviousTokenIs(false, JsonEventType.START_ARRAY, JsonEventType.COMMA);
-                    } else if (insideObject) {
-                        ensurePreviousTokenIs(false, JsonEventType.COLON);
+                    if (insideArray()) {
+                        ensurePreviousTokenIs(JsonEventType.START_ARRAY, JsonEventType.COMMA);
+                    } else if (insideObject()) {
+                        ensurePreviousTokenIs(JsonEventType.COLON);
                     } else {
-                        throw new IllegalJSONFormatException("Illegal JSON format", jsonString, currentIndex);
+                        throw new IllegalJSONFormatException("Illegal JSON format", source, currentIndex);
                     }
-                    queue.push(JsonEventType.VALUE_STRING);
-                    break;
-            }
-            if (eventType != JsonEventType.END_OBJECT && eventType != JsonEventType.END_ARRAY) {
-                queue.push(eventType);
+                    previous = JsonEventType.VALUE_STRING;
+                    return;
             }
+            previous = eventType;
+        }
 
+        private void close() {
+            depth--;
+            // the closed container is a value of the enclosing one
+            previous = depth == 0 ? null : JsonEventType.VALUE_STRING;
         }
 
-        private void checkInsideObjectOrArray() {
-            insideObject = false;
-            insideArray = false;
-            if (queue.size() == 0) {
-                return;
-            }
-            Iterator<JsonEventType> iterator = queue.iterator();
-            JsonEventType next;
-            while (null != (next = iterator.next())) {
-                if (next == JsonEventType.START_OBJECT) {
-                    insideObject = true;
-                    break;
-                }
-                if (next == JsonEventType.START_ARRAY) {
-                    insideArray = true;
-                    break;
-                }
-            }
+        boolean insideObject() {
+            return depth != 0 && containers[depth - 1] == OBJECT;
         }
 
-        void ensurePreviousTokenIs(boolean acceptEmpty, JsonEventType... eventTypes) {
-            if (queue.size() == 0) {
-                if (acceptEmpty) {
-                    return;
-                } else {
-                    throw new IllegalJSONFormatException("Illegal JSON format.", jsonString, currentIndex);
-                }
+        boolean insideArray() {
+            return depth != 0 && containers[depth - 1] == ARRAY;
+        }
+
+        private void ensurePreviousTokenIs(JsonEventType eventType) {
+            if (previous != eventType) {
+                throw new IllegalJSONFormatException("Illegal JSON format.", source, currentIndex);
             }
-            for (JsonEventType eventType : eventTypes) {
-                if (queue.getFirst() == eventType) {
-                    return;
-                }
+        }
+
+        private void ensurePreviousTokenIs(JsonEventType eventType1, JsonEventType eventType2) {
+            if (previous != eventType1 && previous != eventType2) {
+                throw new IllegalJSONFormatException("Illegal JSON format.", source, currentIndex);
             }
-            throw new IllegalJSONFormatException("Illegal JSON format.", jsonString, currentIndex);
         }
 
         public int size() {
-            return queue.size();
+            return depth;
         }
 
         boolean isLastToken(JsonEventType eventType) {
-            return queue.size() != 0 && queue.getFirst() == eventType;
+            return previous == eventType;
         }
 
     }
@@ -205,26 +159,80 @@ public class JSONTokenizer {
     private char currentChar;
 
     JSONTokenizer(String jsonString) {
-        this.jsonString = jsonString;
+        this(JSONSource.of(jsonString));
+    }
+
+    JSONTokenizer(JSONSource source) {
+        this(source, 0);
+    }
+
+    /**
+     * @param source     source
+     * @param startIndex position to start reading from
+     */
+    JSONTokenizer(JSONSource source, int startIndex) {
+        this(source, startIndex, null);
+    }
+
+    /**
+     * @param source     source
+     * @param startIndex position to start reading from
+     * @param symbols    table sharing the Strings of keys and short string values, or null
+     */
+    JSONTokenizer(JSONSource source, int startIndex, SymbolTable symbols) {
+        this.source = source;
+        this.length = source.length();
+        this.currentIndex = startIndex;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Continues an array from just after one of its commas, as if the array had been read up to there.
+     */
+    void resumeArrayAfterComma() {
+        resume(JsonEventType.START_ARRAY, true);
+    }
+
+    /**
+     * Continues a container from just after its opening bracket or one of its commas, as if the container had been read up to there.
+     *
+     * @param container  START_OBJECT or START_ARRAY
+     * @param afterComma true to continue after a comma, false after the opening bracket
+     */
+    void resume(JsonEventType container, boolean afterComma) {
+        state.push(container);
+        if (afterComma) {
+            state.previous = JsonEventType.COMMA;
+        }
     }
 
     void ensureFullyClosed() throws IllegalJSONFormatException {
         if (state.size() != 0) {
-            if (state.insideObject) {
-                throw new IllegalJSONFormatException("Unexpected end of JSON string: expected '}' but not found.", jsonString, currentIndex);
+            if (state.insideObject()) {
+                throw new IllegalJSONFormatException("Unexpected end of JSON string: expected '}' but not found.", source, currentIndex);
             } else {
-                throw new IllegalJSONFormatException("Unexpected end of JSON string: expected ']' but not found.", jsonString, currentIndex);
+                throw new IllegalJSONFormatException("Unexpected end of JSON string: expected ']' but not found.", source, currentIndex);
             }
         }
     }
 
     public JsonIndices next() {
-        if (currentIndex >= jsonString.length()) {
+        JsonEventType eventType = nextEvent();
+        return eventType == null ? null : new JsonIndices(source, eventType, tokenStart, tokenEnd, numberKind).share(symbols);
+    }
+
+    /**
+     * Reads the next token without allocating. Its position is left in {@link #tokenStart} and {@link #tokenEnd}.
+     *
+     * @return type of the next token, or null at the end of the input
+     */
+    JsonEventType nextEvent() {
+        if (currentIndex >= length) {
             ensureFullyClosed();
             return null;
         }
         skipWhitespaces();
-        if (currentIndex >= jsonString.length()) {
+        if (currentIndex >= length) {
             ensureFullyClosed();
             return null;
         }
@@ -244,24 +252,9 @@ public class JSONTokenizer {
             case ',':
                 return checkTokenOrderValidity(startIndex, JsonEventType.COMMA, ++currentIndex);
             case '\"':
-                do {
-                    if (getNextChar() == '\\') {
-                        //'"' '\' '/' 'b' 'f' 'n' 'r' 't' 'u' hex hex hex hex
-                        if (getNextChar() == 'u') {
-                            for (int i = 0; i < 4; i++) {
-                                getNextChar();
-                                if (!((currentChar >= '0' && currentChar <= '9') || (currentChar >= 'a' && currentChar <= 'f') || (currentChar >= 'A' && currentChar <= 'F'))) {
-                                    throw new IllegalJSONFormatException(String.format("Invalid escape sequence. Expecting [a-fA-F0-9], got '%s'", currentChar), jsonString, currentIndex);
-                                }
-                            }
-                        } else if ("\"\\/bfnrtu".indexOf(currentChar) == -1) {
-                            throw new IllegalJSONFormatException(String.format("Invalid escape sequence. Expecting [\"\\/bfnrtu], got '%s'", currentChar), jsonString, currentIndex);
-                        }
-                        getNextChar();
-                    }
-                } while (currentChar != '\n' && currentChar != '\"');
+                scanString();
                 return checkTokenOrderValidity(startIndex + 1,
-                        state.isLastToken(JsonEventType.COLON) || state.insideArray ? JsonEventType.VALUE_STRING : JsonEventType.KEY_NAME
+                        state.isLastToken(JsonEventType.COLON) || state.insideArray() ? JsonEventType.VALUE_STRING : JsonEventType.KEY_NAME
                         , currentIndex++);
             case '0':
             case '1':
@@ -275,41 +268,10 @@ public class JSONTokenizer {
             case '9':
             case '.':
             case '-':
-                boolean decimalPointAlreadyFound = currentChar == '.';
-                boolean checkNextCharIsDecimalPoint = currentChar == '0';
-                boolean exponentFound = false;
-                boolean isFloatingPointNumber = false;
+                //noinspection StatementWithEmptyBody
                 while (" \t\n\r,]}".indexOf(getNextChar()) == -1) {
-                    // current character must be number, comma
-                    if (currentChar == '.') {
-                        if (decimalPointAlreadyFound) {
-                            throw new IllegalJSONFormatException("Too many decimal points.", jsonString, currentIndex);
-                        }
-                        decimalPointAlreadyFound = true;
-                        checkNextCharIsDecimalPoint = false;
-                    } else if(currentChar == 'E' || currentChar == 'e'){
-                        if (exponentFound) {
-                            throw new IllegalJSONFormatException("Invalid number expression.", jsonString, currentIndex);
-                        }
-                        exponentFound = true;
-                    }else if(currentChar == '-' || currentChar == '+'){
-                        if (isFloatingPointNumber || !exponentFound) {
-                            throw new IllegalJSONFormatException("Invalid number expression.", jsonString, currentIndex);
-                        }
-                        isFloatingPointNumber = true;
-                    } else if (checkNextCharIsDecimalPoint) {
-                        throw new IllegalJSONFormatException("Leading zeros are not allowed.", jsonString, currentIndex - 1);
-                    }else if(currentChar >= '0' && '9' >= currentChar){
-                        if(exponentFound && !isFloatingPointNumber){
-                            isFloatingPointNumber = true;
-                        }
-                    } else {
-                        throw new IllegalJSONFormatException("Expecting 'number', got '" + currentChar + "'.", jsonString, currentIndex);
-                    }
-                }
-                if (exponentFound && !isFloatingPointNumber) {
-                    throw new IllegalJSONFormatException("Invalid number expression.", jsonString, currentIndex);
                 }
+                numberKind = numberKind(source, startIndex, currentIndex);
                 return checkTokenOrderValidity(startIndex, JsonEventType.VALUE_NUMBER, currentIndex);
             case 't':
                 return checkToken("true", startIndex, JsonEventType.VALUE_TRUE);
@@ -318,46 +280,231 @@ public class JSONTokenizer {
             case 'n':
                 return checkToken("null", startIndex, JsonEventType.VALUE_NULL);
             default:
-                throw new IllegalJSONFormatException(String.format("Unexpected character found: '%s'.", currentChar), jsonString, currentIndex);
+                throw new IllegalJSONFormatException(String.format("Unexpected character found: '%s'.", currentChar), source, currentIndex);
+        }
+    }
+
+    /**
+     * Validates a string from the opening quote at currentIndex, stopping at the closing quote.
+     */
+    private void scanString() {
+        while (getNextChar() != '\"' && currentChar != '\n') {
+            if (currentChar == '\\') {
+                //'"' '\' '/' 'b' 'f' 'n' 'r' 't' 'u' hex hex hex hex
+                if (getNextChar() == 'u') {
+                    for (int i = 0; i < 4; i++) {
+                        getNextChar();
+                        if (!((currentChar >= '0' && currentChar <= '9') || (currentChar >= 'a' && currentChar <= 'f') || (currentChar >= 'A' && currentChar <= 'F'))) {
+                            throw new IllegalJSONFormatException(String.format("Invalid escape sequence. Expecting [a-fA-F0-9], got '%s'", currentChar), source, currentIndex);
+                        }
+                    }
+                } else if ("\"\\/bfnrtu".indexOf(currentChar) == -1) {
+                    throw new IllegalJSONFormatException(String.format("Invalid escape sequence. Expecting [\"\\/bfnrtu], got '%s'", currentChar), source, currentIndex);
+                }
+            } else if (currentChar > 0x7F) {
+                currentIndex = source.skipEncodedCharacter(currentIndex);
+            }
+        }
+    }
+
+    /**
+     * Validates a number. The rules are shared with {@link JSONFeeder}, so that both accept the same numbers.
+     *
+     * @param source source
+     * @param start  start of the number
+     * @param end    end of the number: a delimiter, or the end of the input
+     * @return the smallest kind that holds the number
+     */
+    static NumberKind numberKind(JSONSource source, int start, int end) {
+        char c = source.charAt(start);
+        boolean decimalPointAlreadyFound = c == '.';
+        int integerDigits = c >= '0' ? 1 : 0;
+        boolean checkNextCharIsDecimalPoint = c == '0';
+        boolean exponentFound = false;
+        boolean isFloatingPointNumber = false;
+        for (int i = start + 1; i < end; i++) {
+            // current character must be number, comma
+            c = source.charAt(i);
+            if (c == '.') {
+                if (decimalPointAlreadyFound) {
+                    throw new IllegalJSONFormatException("Too many decimal points.", source, i);
+                }
+                decimalPointAlreadyFound = true;
+                checkNextCharIsDecimalPoint = false;
+            } else if (c == 'E' || c == 'e') {
+                if (exponentFound) {
+                    throw new IllegalJSONFormatException("Invalid number expression.", source, i);
+                }
+                exponentFound = true;
+            } else if (c == '-' || c == '+') {
+                if (isFloatingPointNumber || !exponentFound) {
+                    throw new IllegalJSONFormatException("Invalid number expression.", source, i);
+                }
+                isFloatingPointNumber = true;
+            } else if (checkNextCharIsDecimalPoint) {
+                throw new IllegalJSONFormatException("Leading zeros are not allowed.", source, i - 1);
+            } else if (c >= '0' && '9' >= c) {
+                if (exponentFound && !isFloatingPointNumber) {
+                    isFloatingPointNumber = true;
+                }
+                if (!decimalPointAlreadyFound && !exponentFound) {
+                    integerDigits++;
+                }
+            } else {
+                throw new IllegalJSONFormatException("Expecting 'number', got '" + c + "'.", source, i);
+            }
+        }
+        if (exponentFound && !isFloatingPointNumber) {
+            throw new IllegalJSONFormatException("Invalid number expression.", source, end);
         }
+        return decimalPointAlreadyFound || exponentFound ? NumberKind.FLOATING : integerKind(source, start, integerDigits);
+    }
+
+    /**
+     * @param source     source
+     * @param startIndex start of an integer
+     * @param digits     number of digits
+     * @return the smallest kind that holds the integer
+     */
+    static NumberKind integerKind(JSONSource source, int startIndex, int digits) {
+        if (digits < 10) {
+            return NumberKind.INT;
+        } else if (digits == 10) {
+            return notAbove(source, startIndex, "2147483647") ? NumberKind.INT : NumberKind.LONG;
+        } else if (digits < 19) {
+            return NumberKind.LONG;
+        } else if (digits == 19) {
+            return notAbove(source, startIndex, "9223372036854775807") ? NumberKind.LONG : NumberKind.BIG_INTEGER;
+        }
+        return NumberKind.BIG_INTEGER;
+    }
+
+    /**
+     * @param source     source
+     * @param startIndex start of an integer with as many digits as max
+     * @param max        maximum positive value. Negative integers may be one larger.
+     * @return true if the integer is within the range
+     */
+    private static boolean notAbove(JSONSource source, int startIndex, String max) {
+        boolean negative = source.charAt(startIndex) == '-';
+        int digitsStart = negative ? startIndex + 1 : startIndex;
+        for (int i = 0; i < max.length(); i++) {
+            int difference = source.charAt(digitsStart + i) - max.charAt(i);
+            if (difference != 0) {
+                return difference < 0 || negative && i == max.length() - 1 && difference == 1;
+            }
+        }
+        return true;
     }
 
     private char getNextChar() {
-        try {
-            return currentChar = jsonString.charAt(++currentIndex);
-        }catch(StringIndexOutOfBoundsException e){
-            throw new IllegalJSONFormatException("Unexpected end of JSON.", jsonString, currentIndex - 1);
+        if (++currentIndex >= length) {
+            throw new IllegalJSONFormatException("Unexpected end of JSON.", source, currentIndex - 1);
+        }
+        return currentChar = source.charAt(currentIndex);
+    }
+
+    /**
+     * Continues after the container whose start token was just returned, without reading its contents.
+     *
+     * @param endIndex end position of the container, exclusive
+     */
+    void skipContainer(int endIndex) {
+        state.close();
+        currentIndex = endIndex;
+    }
+
+    /**
+     * Reads up to the end of the container whose start token was just returned, validating its contents.
+     * The closing token is left in {@link #tokenStart} and {@link #tokenEnd}.
+     */
+    void skipChildren() {
+        int depth = 1;
+        while (depth != 0) {
+            JsonEventType eventType = nextEvent();
+            if (eventType == null) {
+                throw new IllegalJSONFormatException("Unexpected end of JSON.", source, length - 1);
+            }
+            switch (eventType) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                default:
+            }
+        }
+    }
+
+    /**
+     * Continues after the end of the innermost open container by matching brackets outside strings. What is skipped is not validated.
+     * The closing bracket is left in {@link #tokenStart} and {@link #tokenEnd}.
+     */
+    void skipToEndOfContainer() {
+        int depth = 1;
+        int i = currentIndex;
+        while (depth != 0) {
+            if (i >= length) {
+                throw new IllegalJSONFormatException("Unexpected end of JSON.", source, length - 1);
+            }
+            switch (source.charAt(i++)) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    break;
+                case '"':
+                    char c;
+                    while (i < length && (c = source.charAt(i++)) != '"') {
+                        if (c == '\\') {
+                            i++;
+                        }
+                    }
+                    break;
+                default:
+            }
         }
+        tokenStart = i - 1;
+        tokenEnd = i;
+        skipContainer(i);
     }
 
     @NotNull
-    private JsonIndices checkTokenOrderValidity(int startIndex, JsonEventType eventType, int endIndex) {
+    private JsonEventType checkTokenOrderValidity(int startIndex, JsonEventType eventType, int endIndex) {
         state.push(eventType);
-        return new JsonIndices(eventType, startIndex, endIndex);
+        tokenStart = startIndex;
+        tokenEnd = endIndex;
+        return eventType;
     }
 
-    JsonIndices checkToken(String expectedToken, int startIndex, JsonEventType successEventType) {
-        if (jsonString.indexOf(expectedToken, currentIndex++) == -1) {
+    JsonEventType checkToken(String expectedToken, int startIndex, JsonEventType successEventType) {
+        if (!source.regionMatches(currentIndex++, expectedToken)) {
             throw new IllegalJSONFormatException(String.format("Expecting '%s', got '%s'.",
                     expectedToken,
-                    jsonString.substring(currentIndex - 1, currentIndex + expectedToken.length() - 1)), jsonString, currentIndex);
+                    source.substring(currentIndex - 1, Math.min(length, currentIndex + expectedToken.length() - 1))), source, currentIndex);
         }
         currentIndex += expectedToken.length() - 1;
         return checkTokenOrderValidity(startIndex, successEventType, currentIndex);
     }
 
     private void skipWhitespaces() {
-        currentChar = jsonString.charAt(currentIndex);
+        currentChar = source.charAt(currentIndex);
         while (currentChar == '\r' ||
                 currentChar == '\n' ||
                 currentChar == '\t' ||
                 currentChar == ' '
         ) {
             currentIndex++;
-            if (currentIndex >= jsonString.length()) {
+            if (currentIndex >= length) {
                 break;
             }
-            currentChar = jsonString.charAt(currentIndex);
+            currentChar = source.charAt(currentIndex);
         }
     }
 
@@ -375,81 +522,134 @@ public class JSONTokenizer {
         VALUE_FALSE, VALUE_NULL
     }
 
-    public final class JsonIndices {
+    /**
+     * Smallest type holding a {@link JsonEventType#VALUE_NUMBER}, known once the tokenizer has seen the whole number
+     */
+    enum NumberKind {
+        INT,
+        LONG,
+        BIG_INTEGER,
+        /**
+         * has a decimal point or an exponent
+         */
+        FLOATING
+    }
+
+    public static final class JsonIndices {
+        final JSONSource source;
         final JsonEventType jsonEventType;
         final int startIndex;
         final int endIndex;
+        /**
+         * kind of a number, null for other tokens
+         */
+        final NumberKind numberKind;
         private String value = null;
 
-        JsonIndices(JsonEventType jsonEventType, int startIndex, int endIndex) {
+        /**
+         * @param numberKind kind of the number, ignored unless jsonEventType is VALUE_NUMBER
+         */
+        JsonIndices(JSONSource source, JsonEventType jsonEventType, int startIndex, int endIndex, NumberKind numberKind) {
+            this.source = source;
             this.jsonEventType = jsonEventType;
             this.startIndex = startIndex;
             this.endIndex = endIndex;
+            this.numberKind = jsonEventType == JsonEventType.VALUE_NUMBER ? numberKind : null;
         }
 
-        public String getValue() {
-            if (jsonEventType == JsonEventType.VALUE_NULL) {
-                return null;
+        /**
+         * Takes the value of a key, or of a short string value, from the symbol table.
+         *
+         * @param symbols symbol table, or null
+         * @return this
+         */
+        JsonIndices share(SymbolTable symbols) {
+            if (symbols != null && (jsonEventType == JsonEventType.KEY_NAME
+                    || jsonEventType == JsonEventType.VALUE_STRING && endIndex - startIndex <= symbols.maxValueLength)) {
+                value = symbols.symbol(source, startIndex, endIndex);
             }
-            if (value == null) {
-                value = unescapeString(startIndex, endIndex);
+            return this;
+        }
+
+        /**
+         * @return the value, parsed from the source without creating a String when this is a number
+         * @throws NumberFormatException if the value is not an integer within the range of long
+         */
+        long longValue() {
+            if (jsonEventType == JsonEventType.VALUE_NUMBER) {
+                return source.parseLong(startIndex, endIndex);
             }
-            return value;
+            //noinspection DataFlowIssue
+            return Long.parseLong(getValue());
         }
 
-        private String unescapeString(int startIndex, int endIndex) {
-            StringBuilder output = new StringBuilder();
-            boolean escape = false;
-
-            for (int i = startIndex; i < endIndex; i++) {
-                char c = jsonString.charAt(i);
-
-                if (!escape && c == '\\') {
-                    escape = true;
-                } else {
-                    if (escape) {
-                        escape = false;
-                        switch (c) {
-                            case '\"':
-                                output.append('\"');
-                                break;
-                            case '\\':
-                                output.append('\\');
-                                break;
-                            case '/':
-                                output.append('/');
-                                break;
-                            case 'b':
-                                output.append('\b');
-                                break;
-                            case 'f':
-                                output.append('\f');
-                                break;
-                            case 'n':
-                                output.append('\n');
-                                break;
-                            case 'r':
-                                output.append('\r');
-                                break;
-                            case 't':
-                                output.append('\t');
-                                break;
-                            case 'u':
-                                String unicode = jsonString.substring(i + 1, i + 5);
-                                int unicodeValue = Integer.parseInt(unicode, 16);
-                                output.append((char) unicodeValue);
-                                i += 4;
-                                break;
-                            default:
-                                break;
-                        }
-                    } else {
-                        output.append(c);
-                    }
+        /**
+         * @return the value, parsed from the source without creating a String when this is a number
+         * @throws NumberFormatException if the value is not an integer within the range of int
+         */
+        int intValue() {
+            if (jsonEventType == JsonEventType.VALUE_NUMBER) {
+                long value = source.parseLong(startIndex, endIndex);
+                if ((int) value != value) {
+                    throw source.numberFormatException(startIndex, endIndex);
                 }
+                return (int) value;
+            }
+            //noinspection DataFlowIssue
+            return Integer.parseInt(getValue());
+        }
+
+        /**
+         * @return the value, parsed from the source without creating a String when this is a number
+         * @throws NumberFormatException if the value is not a number
+         */
+        double doubleValue() {
+            if (jsonEventType == JsonEventType.VALUE_NUMBER) {
+                return DoubleParser.parse(source, startIndex, endIndex);
+            }
+            //noinspection DataFlowIssue
+            return Double.parseDouble(getValue());
+        }
+
+        /**
+         * @return String, Boolean or Number for a value token, null for null. A number is an Integer, Long or BigInteger by its {@link NumberKind},
+         * otherwise a Double, or a BigDecimal if it is beyond the range of double.
+         */
+        Object toObject() {
+            switch (jsonEventType) {
+                case VALUE_STRING:
+                    return getValue();
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_NUMBER:
+                    break;
+                default:
+                    return null;
             }
+            switch (numberKind) {
+                case INT:
+                    return intValue();
+                case LONG:
+                    return longValue();
+                case BIG_INTEGER:
+                    return new BigInteger(source.substring(startIndex, endIndex));
+                default:
+                    double value = doubleValue();
+                    //noinspection DataFlowIssue
+                    return Double.isInfinite(value) ? new BigDecimal(getValue()) : (Object) value;
+            }
+        }
 
-            return output.toString();
+        public String getValue() {
+            if (jsonEventType == JsonEventType.VALUE_NULL) {
+                return null;
+            }
+            if (value == null) {
+                value = source.unescape(startIndex, endIndex);
+            }
+            return value;
         }
 
         @Override
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Callbacks of {@link JSON#visit(String, JSONVisitor)}, called in document order as the tokens are read, without building a tree.<br>
+ * Returning false from {@link #startObject()}, {@link #startArray()} or {@link #key(String)} skips the container or the value,
+ * which is then passed over by matching brackets outside strings without being validated. Everything else is validated as {@link JSON#parseObject(String)} does.
+ * All methods do nothing by default.
+ */
+public interface JSONVisitor {
+    /**
+     * @return false to skip the object. {@link #endObject()} is not called for a skipped object.
+     */
+    default boolean startObject() {
+        return true;
+    }
+
+    /**
+     * @param name name of the field. Repeated names are the same String instance within a visit.
+     * @return false to skip the value of the field
+     */
+    default boolean key(@NotNull String name) {
+        return true;
+    }
+
+    default void endObject() {
+    }
+
+    /**
+     * @return false to skip the array. {@link #endArray()} is not called for a skipped array.
+     */
+    default boolean startArray() {
+        return true;
+    }
+
+    default void endArray() {
+    }
+
+    default void stringValue(@NotNull String value) {
+    }
+
+    /**
+     * @param value the number, valid during this call only
+     */
+    default void numberValue(@NotNull NumberToken value) {
+    }
+
+    /**
+     * @param value true, false, or null for null
+     */
+    default void literal(@Nullable Boolean value) {
+    }
+
+    /**
+     * A number read from the source on request, reused from number to number.
+     */
+    final class NumberToken {
+        private JSONSource source;
+        private int start;
+        private int end;
+        private JSONTokenizer.NumberKind kind;
+
+        NumberToken() {
+        }
+
+        void set(JSONSource source, int start, int end, JSONTokenizer.NumberKind kind) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.kind = kind;
+        }
+
+        /**
+         * @return true if the number has neither a decimal point nor an exponent
+         */
+        public boolean isIntegral() {
+            return kind != JSONTokenizer.NumberKind.FLOATING;
+        }
+
+        /**
+         * @throws NumberFormatException if the number is not an integer within the range of int
+         */
+        public int intValue() {
+            if (kind != JSONTokenizer.NumberKind.INT) {
+                throw source.numberFormatException(start, end);
+            }
+            return (int) source.parseLong(start, end);
+        }
+
+        /**
+         * @throws NumberFormatException if the number is not an integer within the range of long
+         */
+        public long longValue() {
+            return source.parseLong(start, end);
+        }
+
+        public double doubleValue() {
+            return DoubleParser.parse(source, start, end);
+        }
+
+        public BigDecimal bigDecimalValue() {
+            return new BigDecimal(toString());
+        }
+
+        /**
+         * @return Integer, Long or BigInteger for an integer depending on its size, Double otherwise
+         */
+        public Number toNumber() {
+            switch (kind) {
+                case INT:
+                    return intValue();
+                case LONG:
+                    return longValue();
+                case BIG_INTEGER:
+                    return new BigInteger(toString());
+                default:
+                    return doubleValue();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return source.substring(start, end);
+        }
+    }
+}
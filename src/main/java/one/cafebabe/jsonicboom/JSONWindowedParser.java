@@ -0,0 +1,243 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a file through read-only memory mappings. Token positions are int, so a file larger than a window is read one window at a time:
+ * the members of the top-level object or array are parsed from the current mapping, and a member cut by the end of the window is parsed again
+ * from a mapping starting at the member. Every member has to fit in a window.<br>
+ * The top-level container of such a file holds its values, each referring to the mapping it was parsed from, but no text of its own.
+ */
+final class JSONWindowedParser {
+    /**
+     * positions in a mapping are int: a larger file is mapped one window at a time
+     */
+    static final int WINDOW = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int window;
+    private final ParseOptions options;
+    /**
+     * position of the mapping in the file
+     */
+    private long base = 0;
+    private JSONSource mapped;
+    private JSONTokenizer tokenizer;
+
+    private JSONWindowedParser(FileChannel channel, long size, int window, ParseOptions options) {
+        this.channel = channel;
+        this.size = size;
+        this.window = window;
+        this.options = options;
+    }
+
+    /**
+     * @param window largest region of the file mapped at once, which bounds the size of a member of the object
+     */
+    static JSONObject parseObject(Path path, ParseOptions options, int window) throws IOException {
+        return (JSONObject) parse(path, options, window, JsonEventType.START_OBJECT);
+    }
+
+    /**
+     * @param window largest region of the file mapped at once, which bounds the size of a value of the array
+     */
+    static JSONArray parseArray(Path path, ParseOptions options, int window) throws IOException {
+        return (JSONArray) parse(path, options, window, JsonEventType.START_ARRAY);
+    }
+
+    private static Object parse(Path path, ParseOptions options, int window, JsonEventType root) throws IOException {
+        // the mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= window) {
+                JSONSource source = JSONSource.of(channel, 0, (int) size);
+                return root == JsonEventType.START_OBJECT ? JSON.parseObject(source, options) : JSON.parseArray(source, options);
+            }
+            return new JSONWindowedParser(channel, size, window, options).parse(root);
+        }
+    }
+
+    private Object parse(JsonEventType root) throws IOException {
+        map(0);
+        tokenizer = new JSONTokenizer(mapped, 0, options.symbols);
+        if (tokenizer.nextEvent() != root) {
+            throw new IllegalJSONFormatException("Illegal JSON format", mapped, tokenizer.tokenStart);
+        }
+        boolean object = root == JsonEventType.START_OBJECT;
+        JsonEventType end = object ? JsonEventType.END_OBJECT : JsonEventType.END_ARRAY;
+        FieldTable fields = new FieldTable();
+        List<Object> values = new ArrayList<>();
+        // start of the member being read: just after the opening bracket or a comma
+        int from = tokenizer.tokenEnd;
+        boolean first = true;
+        while (true) {
+            String key = null;
+            Object value = null;
+            JsonEventType separator;
+            try {
+                JSONTokenizer.JsonIndices next = tokenizer.next();
+                if (first && next.jsonEventType == end) {
+                    separator = end;
+                } else {
+                    if (object) {
+                        key = next.getValue();
+                        // colon
+                        tokenizer.nextEvent();
+                        next = tokenizer.next();
+                    }
+                    value = value(next);
+                    separator = tokenizer.nextEvent();
+                }
+            } catch (IllegalJSONFormatException e) {
+                if (base + mapped.length() == size || ends(mapped, from)) {
+                    throw e;
+                }
+                // cut by the end of the window
+                int start = from;
+                while (start < mapped.length() && isWhitespace(mapped.charAt(start))) {
+                    start++;
+                }
+                if (start == 0) {
+                    throw new IOException(String.format("A value is larger than %d bytes at position %d.", window, base));
+                }
+                map(base + start);
+                tokenizer = new JSONTokenizer(mapped, 0, options.symbols);
+                tokenizer.resume(root, !first);
+                from = 0;
+                continue;
+            }
+            if (value != null) {
+                if (object) {
+                    fields.put(key, value);
+                } else {
+                    values.add(value);
+                }
+                first = false;
+            }
+            if (separator == end) {
+                break;
+            }
+            from = tokenizer.tokenEnd;
+        }
+        // only whitespace may follow, up to the end of the file
+        while (tokenizer.nextEvent() == null) {
+            if (base + mapped.length() == size) {
+                return object ? new JSONObject(fields) : new JSONArray(values);
+            }
+            map(base + mapped.length());
+            tokenizer = new JSONTokenizer(mapped, 0);
+        }
+        throw new IllegalJSONFormatException("Illegal JSON format", mapped, tokenizer.tokenStart);
+    }
+
+    private void map(long position) throws IOException {
+        base = position;
+        mapped = JSONSource.of(channel, base, (int) Math.min(window, size - base));
+    }
+
+    /**
+     * @param next first token of a value
+     * @return the value, parsed as the options say
+     */
+    private Object value(JSONTokenizer.JsonIndices next) {
+        switch (next.jsonEventType) {
+            case START_OBJECT:
+            case START_ARRAY:
+                boolean object = next.jsonEventType == JsonEventType.START_OBJECT;
+                if (options.mode == ParseOptions.Mode.TREE) {
+                    return object ? new JSONObject(tokenizer, next) : new JSONArray(tokenizer, next);
+                }
+                // the tape or boundaries of this value alone
+                JSONTokenizer container = new JSONTokenizer(mapped, next.startIndex, options.symbols);
+                Object value;
+                if (options.mode == ParseOptions.Mode.TAPE) {
+                    JSONTape tape = JSONTape.parse(container, next.jsonEventType);
+                    value = object ? new JSONObject(tape, 0) : new JSONArray(tape, 0);
+                } else {
+                    JSONBoundaries boundaries = JSONBoundaries.scan(container, next.jsonEventType);
+                    value = object ? new JSONObject(boundaries, 0) : new JSONArray(boundaries, 0);
+                }
+                tokenizer.skipContainer(container.tokenEnd);
+                return value;
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+                return next;
+            default:
+                throw new IllegalJSONFormatException("Illegal JSON format.", mapped, next.startIndex);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Matches brackets outside strings without validating, as {@link JSONTokenizer#skipToEndOfContainer()} does.
+     *
+     * @param source mapping
+     * @param from   start of a member of the top-level container
+     * @return true if the comma or the closing bracket after the member is in the mapping
+     */
+    private static boolean ends(JSONSource source, int from) {
+        int length = source.length();
+        int depth = 0;
+        int i = from;
+        while (i < length) {
+            switch (source.charAt(i++)) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (depth-- == 0) {
+                        return true;
+                    }
+                    break;
+                case ',':
+                    if (depth == 0) {
+                        return true;
+                    }
+                    break;
+                case '"':
+                    char c;
+                    while (i < length && (c = source.charAt(i++)) != '"') {
+                        if (c == '\\') {
+                            i++;
+                        }
+                    }
+                    break;
+                default:
+            }
+        }
+        return false;
+    }
+}
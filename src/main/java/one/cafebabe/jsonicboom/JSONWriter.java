@@ -0,0 +1,275 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Map;
+
+/**
+ * Writes values as JSON text. JSONObject, JSONArray and parsed scalars are copied from the source range they were parsed from,
+ * so only Maps, Iterables, arrays, Strings, Numbers, Booleans and classes with a {@link GeneratedCodec} built by the application are encoded.
+ */
+final class JSONWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    final Appendable out;
+    /**
+     * non-null when writing bytes
+     */
+    private final UTF8Output utf8;
+
+    JSONWriter(Appendable out) {
+        this.out = out;
+        this.utf8 = null;
+    }
+
+    JSONWriter(OutputStream out) {
+        this.utf8 = new UTF8Output(out);
+        this.out = utf8;
+    }
+
+    void write(Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof JSONObject) {
+            JSONObject jsonObject = (JSONObject) value;
+            if (jsonObject.source == null) {
+                // the top-level object of a file parsed in windows
+                FieldTable fields = jsonObject.fieldTable();
+                out.append('{');
+                for (int i = 0; i < fields.size(); i++) {
+                    if (i != 0) {
+                        out.append(',');
+                    }
+                    string(fields.key(i));
+                    out.append(':');
+                    write(fields.value(i));
+                }
+                out.append('}');
+            } else {
+                verbatim(jsonObject.source, jsonObject.startIndex, jsonObject.endIndex);
+            }
+        } else if (value instanceof JSONArray) {
+            JSONArray jsonArray = (JSONArray) value;
+            if (jsonArray.source == null) {
+                // the top-level array of a file parsed in windows
+                write(jsonArray.values());
+            } else {
+                verbatim(jsonArray.source, jsonArray.startIndex, jsonArray.endIndex);
+            }
+        } else if (value instanceof JSONTokenizer.JsonIndices) {
+            JSONTokenizer.JsonIndices jsonIndices = (JSONTokenizer.JsonIndices) value;
+            // the range of a string is between the quotes
+            boolean string = jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.VALUE_STRING || jsonIndices.jsonEventType == JSONTokenizer.JsonEventType.KEY_NAME;
+            if (string) {
+                out.append('"');
+            }
+            verbatim(jsonIndices.source, jsonIndices.startIndex, jsonIndices.endIndex);
+            if (string) {
+                out.append('"');
+            }
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            string(value.toString());
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                throw new IllegalArgumentException("JSON can't represent " + value);
+            }
+            out.append(value.toString());
+        } else if (value instanceof Number) {
+            out.append(value.toString());
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                string(String.valueOf(entry.getKey()));
+                out.append(':');
+                write(entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(element);
+            }
+            out.append(']');
+        } else if (value.getClass().isArray()) {
+            out.append('[');
+            for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                if (i != 0) {
+                    out.append(',');
+                }
+                write(Array.get(value, i));
+            }
+            out.append(']');
+        } else {
+            @SuppressWarnings("unchecked")
+            GeneratedCodec<Object> codec = (GeneratedCodec<Object>) GeneratedCodec.of(value.getClass());
+            if (codec == null) {
+                throw new IllegalArgumentException("Unsupported type: " + value.getClass().getName());
+            }
+            codec.encode(value, new GeneratedCodec.Output(this));
+        }
+    }
+
+    void flush() throws IOException {
+        if (utf8 != null) {
+            utf8.flush();
+        }
+    }
+
+    private void verbatim(JSONSource source, int start, int end) throws IOException {
+        if (utf8 != null && source.isEncoded()) {
+            utf8.write(source, start, end);
+        } else {
+            source.appendTo(start, end, out);
+        }
+    }
+
+    void string(String value) throws IOException {
+        out.append('"');
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, run, i);
+            run = i + 1;
+            out.append('\\');
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.append(c);
+                    break;
+                case '\b':
+                    out.append('b');
+                    break;
+                case '\f':
+                    out.append('f');
+                    break;
+                case '\n':
+                    out.append('n');
+                    break;
+                case '\r':
+                    out.append('r');
+                    break;
+                case '\t':
+                    out.append('t');
+                    break;
+                default:
+                    out.append("u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    break;
+            }
+        }
+        out.append(value, run, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Encodes chars into a buffer and copies UTF-8 encoded sources into it as they are.
+     */
+    private static final class UTF8Output implements Appendable {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int count = 0;
+
+        UTF8Output(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(JSONSource source, int start, int end) throws IOException {
+            while (start < end) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                int length = Math.min(end - start, buffer.length - count);
+                source.copyTo(start, buffer, count, length);
+                count += length;
+                start += length;
+            }
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                if (buffer.length - count < 4) {
+                    flushBuffer();
+                }
+                char c = csq.charAt(i);
+                if (c < 0x80) {
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[count++] = (byte) (0xC0 | c >> 6);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(csq.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, csq.charAt(++i));
+                    buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired, replaced as String.getBytes does
+                    buffer[count++] = '?';
+                } else {
+                    buffer[count++] = (byte) (0xE0 | c >> 12);
+                    buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            if (c < 0x80 && count < buffer.length) {
+                buffer[count++] = (byte) c;
+                return this;
+            }
+            return append(String.valueOf(c), 0, 1);
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@link GeneratedCodec} for the class or record at compile time, when the jsonicboom-processor annotation processor is on the processor path.<br>
+ * The codec of {@code com.example.Outer.User} is {@code com.example.Outer_UserJsonCodec.INSTANCE}. It reads and writes the accessible fields,
+ * or the setters and getters of inaccessible ones, or the components of a record, without reflection.
+ * {@link JSON#parse(String, Class)} and {@link JSON#toJSONString(Object)} use the codec when it is present.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.util.Objects;
+
+/**
+ * How {@link JSON#parseObject(String, ParseOptions)} and {@link JSON#parseArray(String, ParseOptions)} tokenize and represent the parsed document.
+ */
+public final class ParseOptions {
+    enum Mode {
+        TREE,
+        TAPE,
+        LAZY
+    }
+
+    /**
+     * Builds a JSONObject / JSONArray per container holding every value, the same as {@link JSON#parseObject(String)}.
+     */
+    public static final ParseOptions DEFAULT = new ParseOptions(Mode.TREE, null);
+
+    /**
+     * Records the tokens in a single packed long[]. JSONObject / JSONArray are views over it created when accessed,
+     * so the parsed document costs a handful of objects regardless of its size.<br>
+     * Key lookup is a linear scan of the object, which suits documents read once or objects with a modest number of keys.
+     * When a key appears more than once, the last value is returned, as in the other modes.
+     */
+    public static final ParseOptions TAPE = new ParseOptions(Mode.TAPE, null);
+
+    /**
+     * Validates the whole document but records only where each container starts and ends.
+     * A JSONObject / JSONArray reads its own values the first time one of them is accessed, skipping nested containers,
+     * so reading a few fields of a large document costs about one scan of the text.
+     */
+    public static final ParseOptions LAZY = new ParseOptions(Mode.LAZY, null);
+
+    final Mode mode;
+    final SymbolTable symbols;
+
+    private ParseOptions(Mode mode, SymbolTable symbols) {
+        this.mode = mode;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Keys, and string values as short as {@link SymbolTable} is configured for, are the String instances kept in the table
+     * instead of new ones per parse. Share one table across parses of similar documents.
+     *
+     * @param symbols symbol table
+     * @return options that share Strings through the table
+     */
+    public ParseOptions withSymbolTable(SymbolTable symbols) {
+        return new ParseOptions(mode, Objects.requireNonNull(symbols));
+    }
+
+    JSONTokenizer tokenizer(JSONSource source) {
+        return new JSONTokenizer(source, 0, symbols);
+    }
+
+    @Override
+    public String toString() {
+        return "ParseOptions{" +
+                "mode=" + mode +
+                ", symbols=" + symbols +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fields to keep when parsing with {@link JSON#parseObject(String, Projection)}, as a tree of field names compiled once and reused.<br>
+ * Other fields are skipped without being stored, and containers are built only where the projection goes.
+ * A path through an array applies to every object in it. Skipped values are validated unless {@link #withoutValidation()} is used.<br>
+ * A projected object keeps the text of the skipped fields: its string form is the original text, and its edits see every field.
+ * A projection is immutable and can be shared between threads.
+ */
+public final class Projection {
+    private final String[] names;
+    /**
+     * projection of the value of each name, null to keep the whole value
+     */
+    private final Projection[] children;
+    private final boolean validating;
+
+    private Projection(String[] names, Projection[] children, boolean validating) {
+        this.names = names;
+        this.children = children;
+        this.validating = validating;
+    }
+
+    /**
+     * @param paths field names, with dots separating the names of nested fields, like "user.address.city". A path ending at a container keeps all of it.
+     * @return projection keeping the fields
+     * @throws IllegalArgumentException if a path is empty or has an empty name
+     */
+    public static Projection of(@NotNull String... paths) {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (String path : paths) {
+            add(tree, path, path.split("\\.", -1), 0);
+        }
+        return compile(tree, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(Map<String, Object> tree, String path, String[] names, int index) {
+        String name = names[index];
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Empty field name in " + path);
+        }
+        if (index == names.length - 1) {
+            // the whole value
+            tree.put(name, null);
+            return;
+        }
+        if (tree.containsKey(name) && tree.get(name) == null) {
+            return;
+        }
+        Map<String, Object> subtree = (Map<String, Object>) tree.get(name);
+        if (subtree == null) {
+            subtree = new LinkedHashMap<>();
+            tree.put(name, subtree);
+        }
+        add(subtree, path, names, index + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Projection compile(Map<String, Object> tree, boolean validating) {
+        String[] names = new String[tree.size()];
+        Projection[] children = new Projection[tree.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : tree.entrySet()) {
+            names[i] = entry.getKey();
+            children[i++] = entry.getValue() == null ? null : compile((Map<String, Object>) entry.getValue(), validating);
+        }
+        return new Projection(names, children, validating);
+    }
+
+    /**
+     * Skipped values are passed over by matching brackets outside strings, without validating them. Kept values are validated as usual.
+     *
+     * @return projection that doesn't validate skipped values
+     */
+    public Projection withoutValidation() {
+        Projection[] children = new Projection[this.children.length];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = this.children[i] == null ? null : this.children[i].withoutValidation();
+        }
+        return new Projection(names, children, false);
+    }
+
+    /**
+     * @param source source
+     * @param start  start of a key, excluding the quote
+     * @param end    end of the key, excluding the quote
+     * @return number of the field, or -1 if the key is not in the projection
+     */
+    int find(JSONSource source, int start, int end) {
+        for (int i = 0; i < names.length; i++) {
+            if (source.unescapedEquals(start, end, names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String name(int field) {
+        return names[field];
+    }
+
+    /**
+     * @return projection of the value of the field, or null to keep the whole value
+     */
+    Projection child(int field) {
+        return children[field];
+    }
+
+    /**
+     * @param jsonTokenizer tokenizer positioned at the first token of a value
+     * @param eventType     type of the first token
+     * @param projection    projection of the value, or null to keep the whole value
+     * @return JSONObject, JSONArray or JsonIndices of a scalar
+     */
+    static Object value(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonEventType eventType, Projection projection) {
+        JSONTokenizer.JsonIndices token = new JSONTokenizer.JsonIndices(jsonTokenizer.source, eventType, jsonTokenizer.tokenStart, jsonTokenizer.tokenEnd, jsonTokenizer.numberKind);
+        switch (eventType) {
+            case START_OBJECT:
+                return projection == null ? new JSONObject(jsonTokenizer, token) : new JSONObject(jsonTokenizer, token, projection);
+            case START_ARRAY:
+                return projection == null ? new JSONArray(jsonTokenizer, token) : new JSONArray(jsonTokenizer, token, projection);
+            default:
+                return token;
+        }
+    }
+
+    /**
+     * Skips a value, the contents of a container included.
+     */
+    static void skip(JSONTokenizer jsonTokenizer, JSONTokenizer.JsonEventType eventType, Projection projection) {
+        if (eventType == JSONTokenizer.JsonEventType.START_OBJECT || eventType == JSONTokenizer.JsonEventType.START_ARRAY) {
+            if (projection.validating) {
+                jsonTokenizer.skipChildren();
+            } else {
+                jsonTokenizer.skipToEndOfContainer();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        List<String> paths = new ArrayList<>();
+        paths(paths, "");
+        return "Projection" + paths + (validating ? "" : " without validation");
+    }
+
+    private void paths(List<String> paths, String prefix) {
+        for (int i = 0; i < names.length; i++) {
+            if (children[i] == null) {
+                paths.add(prefix + names[i]);
+            } else {
+                children[i].paths(paths, prefix + names[i] + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+/**
+ * Shares the Strings of object keys, and optionally of short string values, across parses. See {@link ParseOptions#withSymbolTable(SymbolTable)}.<br>
+ * The table is a fixed size cache of two entries per hash bucket. A string is looked up by a hash of the source text and compared with the source
+ * without allocating, and a miss replaces the older entry of its bucket, so the table never grows.
+ * Threads may share a table: entries are Strings, which are safe to publish through a race, and a lost update only costs a later miss.
+ */
+public final class SymbolTable {
+    private final String[] symbols;
+    private final int mask;
+    final int maxValueLength;
+
+    /**
+     * Shares keys only, with room for 4096 of them.
+     */
+    public SymbolTable() {
+        this(4096, 0);
+    }
+
+    /**
+     * @param capacity       number of Strings kept, rounded up to a power of two
+     * @param maxValueLength string values up to this length, as written in the document, are shared as well. 0 shares keys only.
+     */
+    public SymbolTable(int capacity, int maxValueLength) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30: " + capacity);
+        }
+        if (maxValueLength < 0) {
+            throw new IllegalArgumentException("maxValueLength must not be negative: " + maxValueLength);
+        }
+        this.symbols = new String[Integer.highestOneBit(capacity - 1) << 1];
+        this.mask = symbols.length - 1;
+        this.maxValueLength = maxValueLength;
+    }
+
+    /**
+     * @param source source
+     * @param start  start position of the text, inclusive
+     * @param end    end position of the text, exclusive
+     * @return the unescaped text, the same instance as the last time if it is still in the table
+     */
+    String symbol(JSONSource source, int start, int end) {
+        int hash = source.hash(start, end);
+        int bucket = (hash ^ hash >>> 16) & mask & ~1;
+        String first = symbols[bucket];
+        if (first != null && source.unescapedEquals(start, end, first)) {
+            return first;
+        }
+        String second = symbols[bucket + 1];
+        if (second != null && source.unescapedEquals(start, end, second)) {
+            return second;
+        }
+        String symbol = source.unescape(start, end);
+        // the older entry makes room
+        symbols[bucket + 1] = first;
+        symbols[bucket] = symbol;
+        return symbol;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolTable{" +
+                "capacity=" + symbols.length +
+                ", maxValueLength=" + maxValueLength +
+                '}';
+    }
+}
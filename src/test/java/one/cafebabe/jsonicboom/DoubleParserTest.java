@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleParserTest {
+    @Test
+    void edgeCases() {
+        for (String number : new String[]{"0", "-0", "0.0", "-0.0e5", "1", "-1", "0.1", "1.65", "123456789012345678", "9007199254740993",
+                "9007199254740992.5", "1e22", "1e23", "8.41e21", "5e-324", "2e-324", "2.4703282292062327e-324", "2.4703282292062328e-324",
+                "4.9e-324", "2.2250738585072011e-308", "2.2250738585072012e-308", "2.2250738585072014e-308", "1.7976931348623157e308",
+                "1.7976931348623158e308", "1.7976931348623159e308", "1e309", "-1e400", "1e-400", "0e999999999", "7.2057594037927933e16",
+                "9223372036854775807", "9223372036854775808", "18446744073709551615", "18446744073709551616", "9999999999999999999",
+                "99999999999999999999", "1.00000000000000011102230246251565404236316680908203125",
+                "1.00000000000000011102230246251565404236316680908203124", "0.000000000000000000000000000000000000001",
+                "1E+2", "1e-2", "12345678901234567890123456789e-20", "3.141592653589793238462643383279502884197"}) {
+            assertSame(number);
+        }
+    }
+
+    @Test
+    void randomDoubles() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                assertSame(Double.toString(value));
+                assertSame(new BigDecimal(value).toString());
+            }
+            assertSame(Float.toString(random.nextFloat()));
+            assertSame(Double.toString(random.nextGaussian() * 1e3));
+        }
+    }
+
+    @Test
+    void randomDigits() {
+        Random random = new Random(2);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            int digits = 1 + random.nextInt(random.nextBoolean() ? 20 : 40);
+            int decimalPoint = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == decimalPoint && d != 0) {
+                    sb.append('.');
+                }
+                sb.append(d == 0 && digits > 1 && decimalPoint != 1 ? 1 + random.nextInt(9) : random.nextInt(10));
+            }
+            if (random.nextBoolean()) {
+                sb.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(700) - 350);
+            }
+            assertSame(sb.toString());
+        }
+    }
+
+    @Test
+    void halfway() {
+        // exactly halfway between two adjacent doubles, and one unit in the 30th digit either side of it
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            double value = Math.abs(Double.longBitsToDouble(random.nextLong()));
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            BigDecimal halfway = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+            assertSame(halfway.toString());
+            BigDecimal unit = BigDecimal.ONE.movePointLeft(30 - halfway.precision() + halfway.scale());
+            assertSame(halfway.add(unit).round(new MathContext(30)).toString());
+            assertSame(halfway.subtract(unit).round(new MathContext(30)).toString());
+        }
+    }
+
+    @Test
+    void invalid() {
+        for (String number : new String[]{"", "-", ".", "1e", "1e+", "1.2.3", "1x", "--1", "0x10"}) {
+            assertThrows(NumberFormatException.class, () -> DoubleParser.parse(JSONSource.of(number), 0, number.length()), number);
+        }
+        // lenient the same way as Double.parseDouble
+        assertSame("1.");
+        assertSame(".5");
+    }
+
+    @Test
+    void getters() {
+        String json = "[1.5, -0.0, 1e-7, 12345678901234567890, null, \"2.5\", 3, 4.35, 1.7976931348623157e308]";
+        for (JSONArray jsonArray : new JSONArray[]{JSON.parseArray(json), JSON.parseArray(json.getBytes(StandardCharsets.UTF_8)),
+                JSON.parseArray(json, ParseOptions.TAPE)}) {
+            assertArrayEquals(new double[]{1.5, -0.0, 1e-7, 12345678901234567890d, -1, 2.5, 3, 4.35, Double.MAX_VALUE}, jsonArray.getDoubleArray());
+        }
+        JSONObject jsonObject = JSON.parseObject("{\"a\": 0.1, \"b\": null, \"c\": \"1e3\", \"d\": 1e400}");
+        assertEquals(0.1, jsonObject.getDouble("a"));
+        assertEquals(-1, jsonObject.getDouble("b"));
+        assertEquals(1000, jsonObject.getDouble("c"));
+        assertEquals(Double.POSITIVE_INFINITY, jsonObject.getDouble("d"));
+        assertEquals(new BigDecimal("1e400"), jsonObject.get("d"));
+    }
+
+    private static void assertSame(String number) {
+        long expected = Double.doubleToRawLongBits(Double.parseDouble(number));
+        assertEquals(expected, Double.doubleToRawLongBits(DoubleParser.parse(JSONSource.of(number), 0, number.length())), number);
+        byte[] utf8 = number.getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected, Double.doubleToRawLongBits(DoubleParser.parse(JSONSource.of(utf8, 0, utf8.length), 0, utf8.length)), number);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the calls of a {@link JSONVisitor} as strings, for comparing {@link JSON#visit(String, JSONVisitor)} and {@link JSONFeeder}.
+ */
+final class EventRecorder implements JSONVisitor {
+    final List<String> events = new ArrayList<>();
+    /**
+     * value skipped after this key, or null
+     */
+    private final String skippedKey;
+
+    EventRecorder() {
+        this(null);
+    }
+
+    EventRecorder(String skippedKey) {
+        this.skippedKey = skippedKey;
+    }
+
+    @Override
+    public boolean startObject() {
+        events.add("{");
+        return true;
+    }
+
+    @Override
+    public boolean key(String name) {
+        events.add("key:" + name);
+        return !name.equals(skippedKey);
+    }
+
+    @Override
+    public void endObject() {
+        events.add("}");
+    }
+
+    @Override
+    public boolean startArray() {
+        events.add("[");
+        return true;
+    }
+
+    @Override
+    public void endArray() {
+        events.add("]");
+    }
+
+    @Override
+    public void stringValue(String value) {
+        events.add("'" + value + "'");
+    }
+
+    @Override
+    public void numberValue(NumberToken value) {
+        events.add(value.toString());
+    }
+
+    @Override
+    public void literal(Boolean value) {
+        events.add(String.valueOf(value));
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", events);
+    }
+}
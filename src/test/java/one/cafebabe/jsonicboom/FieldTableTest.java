@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldTableTest {
+    @Test
+    void linearScanAndIndex() {
+        for (int fields : new int[]{0, 1, FieldTable.LINEAR_SCAN_MAX, FieldTable.LINEAR_SCAN_MAX + 1, 100, 1000}) {
+            FieldTable table = new FieldTable();
+            for (int i = 0; i < fields; i++) {
+                table.put("key" + i, i);
+            }
+            // colliding hash codes: "Aa" and "BB"
+            table.put("Aa", "Aa");
+            table.put("BB", "BB");
+            table.trim();
+            assertEquals(fields + 2, table.size());
+            for (int i = 0; i < fields; i++) {
+                assertEquals(i, table.get("key" + i));
+                assertTrue(table.containsKey("key" + i));
+            }
+            assertEquals("Aa", table.get("Aa"));
+            assertEquals("BB", table.get("BB"));
+            assertNull(table.get("key" + fields));
+            assertFalse(table.containsKey("C#"));
+        }
+    }
+
+    @Test
+    void duplicateKeyReplaces() {
+        FieldTable table = new FieldTable();
+        for (int i = 0; i < 20; i++) {
+            table.put("key" + i % 10, i);
+        }
+        assertEquals(10, table.size());
+        assertEquals(19, table.get("key9"));
+    }
+
+    @Test
+    void equalsRegardlessOfOrder() {
+        FieldTable table1 = new FieldTable();
+        FieldTable table2 = new FieldTable();
+        for (int i = 0; i < 20; i++) {
+            table1.put("key" + i, i);
+            table2.put("key" + (19 - i), 19 - i);
+        }
+        assertEquals(table1, table2);
+        assertEquals(table1.hashCode(), table2.hashCode());
+        table2.put("key0", -1);
+        assertNotEquals(table1, table2);
+    }
+
+    @Test
+    void jsonObject() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 50; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":")
+                    .append(i % 3 == 0 ? "[" + i + "]" : i % 3 == 1 ? "{\"v\":" + i + "}" : String.valueOf(i));
+        }
+        String json = sb.append("}").toString();
+        for (JSONObject jsonObject : new JSONObject[]{JSON.parseObject(json), JSON.parseObject(json, ParseOptions.LAZY)}) {
+            for (int i = 0; i < 50; i++) {
+                String key = "k" + i;
+                assertTrue(jsonObject.has(key));
+                if (i % 3 == 0) {
+                    //noinspection DataFlowIssue
+                    assertEquals(i, jsonObject.getJSONArray(key).getInt(0));
+                    assertEquals(JSONArray.class, jsonObject.get(key).getClass());
+                    assertNull(jsonObject.getJSONArray("k" + (i + 1)));
+                } else if (i % 3 == 1) {
+                    //noinspection DataFlowIssue
+                    assertEquals(i, jsonObject.getJSONObject(key).getInt("v"));
+                } else {
+                    assertEquals(i, jsonObject.getInt(key));
+                }
+            }
+            assertFalse(jsonObject.has("k50"));
+            assertEquals(JSON.parseObject(json), jsonObject);
+        }
+        // the last of duplicate keys wins, whatever the type of the values
+        JSONObject duplicates = JSON.parseObject("{\"a\": [1], \"a\": 2, \"b\": 3, \"b\": {\"c\": 4}}");
+        assertEquals(2, duplicates.get("a"));
+        assertNull(duplicates.getJSONArray("a"));
+        //noinspection DataFlowIssue
+        assertEquals(4, duplicates.getJSONObject("b").getInt("c"));
+    }
+}
@@ -207,6 +207,11 @@ public class InvalidJSONTest   {
         assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("""
                 {"key": ture}
                 """));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("""
+                {"key": tru, "key2": true}
+                """));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("""
+                {"key": fals"""));
     }
     @Test
     void keywordWithTypoNull() {
@@ -257,6 +262,26 @@ public class InvalidJSONTest   {
                 """));
     }
 
+    @Test
+    void withoutCommaAfterContainer() {
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("""
+                [{} 1]"""));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("""
+                [[] []]"""));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("""
+                [{"key1": "value1"} {"key2": "value2"}]"""));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("""
+                {"key1": {} "key2": []}"""));
+    }
+
+    @Test
+    void leadingCommaInArray() {
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("""
+                [,1]"""));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("""
+                [1,[,2]]"""));
+    }
+
     @Test
     void invalidUnicodeEscapeSequence() {
         assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("""
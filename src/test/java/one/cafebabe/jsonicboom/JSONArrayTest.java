@@ -18,7 +18,14 @@ package one.cafebabe.jsonicboom;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class JSONArrayTest {
     @Test
@@ -55,4 +62,55 @@ public class JSONArrayTest {
         assertEquals("""
                 [-3,"foo","bar",-4,{"name":"yusuke"}]""", jsonArray1.toString());
     }
+
+    @Test
+    public void testIntegers() {
+        String json = """
+                [0, -0, 2147483647, -2147483648, 9223372036854775807, -9223372036854775808, null, "12", 1.5, 1e3, 9223372036854775808]""";
+        for (JSONArray jsonArray : new JSONArray[]{JSON.parseArray(json), JSON.parseArray(json.getBytes(StandardCharsets.UTF_8)),
+                JSON.parseArray(json, ParseOptions.TAPE)}) {
+            assertEquals(0, jsonArray.getInt(0));
+            assertEquals(0, jsonArray.getInt(1));
+            assertEquals(Integer.MAX_VALUE, jsonArray.getInt(2));
+            assertEquals(Integer.MIN_VALUE, jsonArray.getInt(3));
+            assertEquals(Long.MAX_VALUE, jsonArray.getLong(4));
+            assertEquals(Long.MIN_VALUE, jsonArray.getLong(5));
+            assertEquals(-1, jsonArray.getInt(6));
+            assertEquals(-1, jsonArray.getLong(6));
+            assertEquals(12, jsonArray.getInt(7));
+            assertEquals(Integer.MAX_VALUE, jsonArray.getLong(2));
+            // same exceptions as Integer.parseInt / Long.parseLong
+            assertEquals("For input string: \"9223372036854775807\"", assertThrows(NumberFormatException.class, () -> jsonArray.getInt(4)).getMessage());
+            assertEquals("For input string: \"1.5\"", assertThrows(NumberFormatException.class, () -> jsonArray.getLong(8)).getMessage());
+            assertThrows(NumberFormatException.class, () -> jsonArray.getLong(9));
+            assertThrows(NumberFormatException.class, () -> jsonArray.getLong(10));
+            assertEquals(new BigInteger("9223372036854775808"), JSON.parseObject("{\"a\": 9223372036854775808}").get("a"));
+            assertEquals(Long.MIN_VALUE, JSON.parseObject("{\"a\": -9223372036854775808}").get("a"));
+            assertEquals(-2147483648, JSON.parseObject("{\"a\": -2147483648}").get("a"));
+        }
+        assertArrayEquals(new int[]{1, -2, 3}, JSON.parseArray("[1, -2, 3]").getIntArray());
+        assertArrayEquals(new long[]{1, -2, 30000000000L}, JSON.parseArray("[1, -2, 30000000000]").getLongArray());
+    }
+
+    @Test
+    public void testGet() {
+        String json = """
+                [0, -7, 999999999, 2147483647, 2147483648, -2147483648, -2147483649, 1000000000000000000,
+                 9223372036854775807, 9223372036854775808, -9223372036854775808, -9223372036854775809, 123456789012345678901234567890,
+                 1.5, -0.0, 1e3, 2E-2, 1e400, "1", true, false, null, [1], {"a": 1}]""";
+        Object[] expected = {0, -7, 999999999, Integer.MAX_VALUE, 2147483648L, Integer.MIN_VALUE, -2147483649L, 1000000000000000000L,
+                Long.MAX_VALUE, new BigInteger("9223372036854775808"), Long.MIN_VALUE, new BigInteger("-9223372036854775809"),
+                new BigInteger("123456789012345678901234567890"), 1.5, -0.0, 1000d, 0.02, new BigDecimal("1e400"), "1", true, false, null};
+        for (JSONArray jsonArray : new JSONArray[]{JSON.parseArray(json), JSON.parseArray(json.getBytes(StandardCharsets.UTF_8)),
+                JSON.parseArray(json, ParseOptions.TAPE), JSON.parseArray(json, ParseOptions.LAZY)}) {
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], jsonArray.get(i), "index " + i);
+            }
+            assertEquals(JSONArray.class, jsonArray.get(expected.length).getClass());
+            assertEquals(JSONObject.class, jsonArray.get(expected.length + 1).getClass());
+            //noinspection DataFlowIssue
+            assertEquals(1, jsonArray.getJSONObject(expected.length + 1).get("a"));
+        }
+        assertNull(JSON.parseArray("[null]").get(0));
+    }
 }
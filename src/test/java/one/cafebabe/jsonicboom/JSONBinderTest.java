@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONBinderTest {
+    enum Role {
+        ADMIN, USER
+    }
+
+    static class Base {
+        long id;
+    }
+
+    static class User extends Base {
+        String name;
+        int age;
+        double score;
+        boolean active;
+        Integer rank;
+        char initial;
+        BigDecimal balance;
+        Role role;
+        List<String> tags;
+        Set<Role> roles;
+        Map<String, Integer> counts;
+        int[] codes;
+        Address[] addresses;
+        Address address;
+        JSONObject extra;
+        Object any;
+        transient String ignored = "ignored";
+        private String nickname;
+        boolean nicknameFromSetter;
+
+        public void setNickname(String nickname) {
+            this.nickname = nickname;
+            nicknameFromSetter = true;
+        }
+    }
+
+    static class Address {
+        String city;
+        String zip;
+    }
+
+    record Point(int x, int y, String label, List<Point> children) {
+    }
+
+    record Primitives(boolean z, byte b, short s, char c, int i, long l, float f, double d, Integer boxed) {
+    }
+
+    static class Node {
+        int value;
+        Node next;
+    }
+
+    static final String USER = """
+            {"id": 9007199254740993, "name": "東京 \\"taro\\"", "age": 42, "score": 3.5, "active": true, "rank": null, "initial": "t",
+             "balance": 12345678901234567890.5, "role": "ADMIN", "tags": ["a", "b"], "roles": ["USER", "ADMIN", "USER"],
+             "counts": {"x": 1, "y": 2}, "codes": [1, 2, 3], "addresses": [{"city": "Tokyo"}, null],
+             "unknown": {"deep": [1, {"x": [true]}]}, "address": {"zip": "100", "city": "Osaka", "country": "JP"},
+             "extra": {"k": [1]}, "any": [1, "s"], "ignored": "set", "nickname": "tt"}
+            """;
+
+    @Test
+    void pojo() {
+        byte[] utf8 = USER.getBytes(StandardCharsets.UTF_8);
+        for (User user : new User[]{JSON.parse(USER, User.class), JSON.parse(utf8, User.class)}) {
+            assertEquals(9007199254740993L, user.id);
+            assertEquals("東京 \"taro\"", user.name);
+            assertEquals(42, user.age);
+            assertEquals(3.5, user.score);
+            assertTrue(user.active);
+            assertNull(user.rank);
+            assertEquals('t', user.initial);
+            assertEquals(new BigDecimal("12345678901234567890.5"), user.balance);
+            assertEquals(Role.ADMIN, user.role);
+            assertEquals(Arrays.asList("a", "b"), user.tags);
+            assertEquals(Arrays.asList(Role.USER, Role.ADMIN), List.copyOf(user.roles));
+            assertEquals(Map.of("x", 1, "y", 2), user.counts);
+            assertArrayEquals(new int[]{1, 2, 3}, user.codes);
+            assertEquals("Tokyo", user.addresses[0].city);
+            assertNull(user.addresses[1]);
+            assertEquals("Osaka", user.address.city);
+            assertEquals("100", user.address.zip);
+            assertEquals(1, user.extra.getJSONArray("k").getInt(0));
+            assertEquals("[1, \"s\"]", user.any.toString());
+            assertEquals("ignored", user.ignored);
+            assertEquals("tt", user.nickname);
+            assertTrue(user.nicknameFromSetter);
+        }
+    }
+
+    @Test
+    void record() {
+        Point point = JSON.parse("{\"label\":\"p\",\"y\":2,\"x\":1,\"children\":[{\"x\":3},{\"y\":4,\"label\":null}]}", Point.class);
+        assertEquals(new Point(1, 2, "p", List.of(new Point(3, 0, null, null), new Point(0, 4, null, null))), point);
+        assertEquals(new Point(0, 0, null, null), JSON.parse("{\"x\":null}", Point.class));
+        // primitive components go through typed slots
+        assertEquals(new Primitives(true, (byte) -128, (short) 32767, 'c', -2147483648, 9007199254740993L, 1.5f, -0.1, 7),
+                JSON.parse("{\"z\":true,\"b\":-128,\"s\":32767,\"c\":\"c\",\"i\":-2147483648,\"l\":9007199254740993,\"f\":1.5,\"d\":-0.1,\"boxed\":7}",
+                        Primitives.class));
+        assertEquals(new Primitives(false, (byte) 0, (short) 0, '\0', 0, 0, 0, 0, null), JSON.parse("{\"d\":null,\"boxed\":null}", Primitives.class));
+    }
+
+    @Test
+    void list() {
+        List<Node> nodes = JSON.parseList("[{\"value\":1,\"next\":{\"value\":2,\"next\":null}}, null, {}]", Node.class);
+        assertEquals(3, nodes.size());
+        assertEquals(2, nodes.get(0).next.value);
+        assertNull(nodes.get(0).next.next);
+        assertNull(nodes.get(1));
+        assertEquals(0, nodes.get(2).value);
+        assertEquals(Collections.emptyList(), JSON.parseList("[]", Point.class));
+        assertEquals(Arrays.asList("a", null), JSON.parseList("[\"a\", null]", String.class));
+    }
+
+    @Test
+    void mismatch() {
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{\"age\":\"42\"}", User.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{\"name\":42}", User.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{\"role\":\"GUEST\"}", User.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("[]", User.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{\"age\":1} {}", User.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{\"age\":1", User.class));
+        assertThrows(NumberFormatException.class, () -> JSON.parse("{\"age\":4294967296}", User.class));
+        assertThrows(NumberFormatException.class, () -> JSON.parse("{\"age\":1.5}", User.class));
+        assertThrows(IllegalArgumentException.class, () -> JSON.parse("{}", Runnable.class));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parse("{}", Integer.class));
+    }
+}
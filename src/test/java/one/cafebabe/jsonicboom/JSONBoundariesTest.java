@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONBoundariesTest {
+    private static final String PERSON = """
+            {
+              "name": "Yusuke Yamamoto",
+              "street": "東京都\\u4E2D\\u592E\\u533A",
+              "age": 30,
+              "isMarried": true,
+              "notes": null,
+              "hobbies": ["programing", "アーチェリー"],
+              "address": {"zip": "1700012", "geo": {"lat": 35.6, "lon": 139.7}, "tags": [{}, []]},
+              "matrix": [[1, 2], [], [3, [4]]],
+              "last": "end"
+            }""";
+
+    @Test
+    void object() {
+        for (JSONObject jsonObject : new JSONObject[]{JSON.parseObject(PERSON, ParseOptions.LAZY),
+                JSON.parseObject(PERSON.getBytes(StandardCharsets.UTF_8), ParseOptions.LAZY)}) {
+            assertEquals("Yusuke Yamamoto", jsonObject.getString("name"));
+            assertEquals("東京都中央区", jsonObject.getString("street"));
+            assertEquals(30, jsonObject.getInt("age"));
+            assertTrue(jsonObject.getBoolean("isMarried"));
+            assertNull(jsonObject.getString("notes"));
+            assertTrue(jsonObject.has("notes"));
+            assertTrue(jsonObject.has("hobbies"));
+            assertFalse(jsonObject.has("zip"));
+            assertEquals("end", jsonObject.getString("last"));
+            //noinspection DataFlowIssue
+            assertEquals(List.of("programing", "アーチェリー"), jsonObject.getJSONArray("hobbies").getStringList());
+            JSONObject address = jsonObject.getJSONObject("address");
+            //noinspection DataFlowIssue
+            assertEquals("1700012", address.getString("zip"));
+            //noinspection DataFlowIssue
+            assertEquals(35.6, address.getJSONObject("geo").getDouble("lat"));
+            //noinspection DataFlowIssue
+            assertEquals("{}", address.getJSONArray("tags").getJSONObject(0).toString());
+            JSONArray matrix = jsonObject.getJSONArray("matrix");
+            //noinspection DataFlowIssue
+            assertEquals(3, matrix.length());
+            assertArrayEquals(new int[]{1, 2}, matrix.getJSONArray(0).getIntArray());
+            //noinspection DataFlowIssue
+            assertEquals(0, matrix.getJSONArray(1).length());
+            //noinspection DataFlowIssue
+            assertEquals(4, matrix.getJSONArray(2).getJSONArray(1).getInt(0));
+            assertEquals(PERSON, jsonObject.toString());
+        }
+    }
+
+    @Test
+    void sameAsTree() {
+        String json = Arrays.toString(new int[1000]).replace("0", "{\"a\":[1,{\"b\":\"c\"}],\"d\":{\"e\":[]}}");
+        JSONArray tree = JSON.parseArray(json);
+        JSONArray lazy = JSON.parseArray(json, ParseOptions.LAZY);
+        assertEquals(tree.length(), lazy.length());
+        for (int i = 0; i < tree.length(); i++) {
+            JSONObject treeObject = tree.getJSONObject(i);
+            JSONObject lazyObject = lazy.getJSONObject(i);
+            //noinspection DataFlowIssue
+            assertEquals(treeObject.getJSONArray("a").getJSONObject(1).getString("b"), lazyObject.getJSONArray("a").getJSONObject(1).getString("b"));
+            //noinspection DataFlowIssue
+            assertEquals(treeObject.getJSONObject("d").toString(), lazyObject.getJSONObject("d").toString());
+        }
+        assertEquals(JSON.parseArray(json, ParseOptions.LAZY), lazy);
+        assertEquals(JSON.parseArray(json, ParseOptions.LAZY).hashCode(), lazy.hashCode());
+    }
+
+    @Test
+    void invalid() {
+        // the whole document is validated up front, including containers never accessed
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": 1, \"b\": {\"c\": [1 2]}}", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": 1, \"b\": {\"c\": tru}}", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": [1}", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{} {}", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("[{}]", ParseOptions.LAZY));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("{}", ParseOptions.LAZY));
+    }
+}
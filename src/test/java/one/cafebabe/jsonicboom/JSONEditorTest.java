@@ -0,0 +1,236 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONEditorTest {
+    private static final String DOCUMENT = "{\"user\": {\"name\": \"東京\", \"password\": \"secret\", \"id\": 42},\n \"tags\": [\"a\", \"b\" ], \"empty\": {}, \"none\": [ ]}";
+    private static final ParseOptions[] OPTIONS = {ParseOptions.DEFAULT, ParseOptions.TAPE, ParseOptions.LAZY};
+
+    private static JSONObject[] parse(String json) {
+        byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+        JSONObject[] parsed = new JSONObject[OPTIONS.length * 2];
+        for (int i = 0; i < OPTIONS.length; i++) {
+            parsed[i * 2] = JSON.parseObject(json, OPTIONS[i]);
+            parsed[i * 2 + 1] = JSON.parseObject(utf8, OPTIONS[i]);
+        }
+        return parsed;
+    }
+
+    @Test
+    void objectWith() {
+        for (JSONObject root : parse(DOCUMENT)) {
+            JSONObject replaced = root.with("tags", Arrays.asList(1, "x"));
+            assertEquals("{\"user\": {\"name\": \"東京\", \"password\": \"secret\", \"id\": 42},\n \"tags\": [1,\"x\"], \"empty\": {}, \"none\": [ ]}", replaced.toString());
+            assertEquals(1, replaced.getJSONArray("tags").getInt(0));
+            assertEquals("東京", replaced.getJSONObject("user").getString("name"));
+
+            JSONObject added = replaced.with("count", 3).with("empty", Collections.singletonMap("k", null));
+            assertEquals("{\"user\": {\"name\": \"東京\", \"password\": \"secret\", \"id\": 42},\n \"tags\": [1,\"x\"], \"empty\": {\"k\":null}, \"none\": [ ],\"count\":3}", added.toString());
+            assertEquals(3, added.getInt("count"));
+            assertTrue(added.getJSONObject("empty").has("k"));
+            assertNull(added.getJSONObject("empty").get("k"));
+            JSONObject reparsed = JSON.parseObject(added.toString());
+            assertEquals(3, reparsed.getInt("count"));
+            assertEquals("東京", reparsed.getJSONObject("user").getString("name"));
+            // the edited copy doesn't change the original
+            assertEquals(DOCUMENT, root.toString());
+            assertFalse(root.has("count"));
+        }
+    }
+
+    @Test
+    void objectWithout() {
+        for (JSONObject root : parse(DOCUMENT)) {
+            JSONObject user = root.getJSONObject("user");
+            assertEquals("{\"name\": \"東京\", \"id\": 42}", user.without("password").toString());
+            assertEquals("{\"name\": \"東京\", \"password\": \"secret\"}", user.without("id").toString());
+            assertEquals("{}", user.without("name").without("password").without("id").toString());
+            assertSame(user, user.without("absent"));
+
+            JSONObject edited = root.with("user", user.without("password"));
+            assertEquals("{\"user\": {\"name\": \"東京\", \"id\": 42},\n \"tags\": [\"a\", \"b\" ], \"empty\": {}, \"none\": [ ]}", edited.toString());
+            assertFalse(edited.getJSONObject("user").has("password"));
+            assertEquals(42, edited.getJSONObject("user").getInt("id"));
+            assertEquals(JSON.toJSONString(edited), edited.toString());
+
+            JSONObject removed = edited.without("none").without("user").with("user", "replaced");
+            assertEquals("{\"tags\": [\"a\", \"b\" ], \"empty\": {},\"user\":\"replaced\"}", removed.toString());
+            assertEquals("replaced", removed.getString("user"));
+        }
+    }
+
+    @Test
+    void arrayEdits() {
+        for (JSONObject root : parse(DOCUMENT)) {
+            JSONArray tags = root.getJSONArray("tags");
+            assertEquals("[\"a\", \"z\" ]", tags.set(1, "z").toString());
+            assertEquals("[\"a\", \"b\",true ]", tags.with(true).toString());
+            assertEquals("[\"b\" ]", tags.without(0).toString());
+            assertEquals("[\"a\" ]", tags.without(1).toString());
+            assertEquals("[ ]", tags.without(1).without(0).toString());
+            assertEquals("[1 ]", root.getJSONArray("none").with(1).toString());
+            assertThrows(IndexOutOfBoundsException.class, () -> tags.set(2, 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> tags.without(-1));
+
+            JSONArray edited = tags.without(0).with(root.getJSONObject("user")).set(0, null);
+            assertEquals("[null,{\"name\": \"東京\", \"password\": \"secret\", \"id\": 42} ]", edited.toString());
+            assertNull(edited.get(0));
+            assertEquals("secret", edited.getJSONObject(1).getString("password"));
+            assertEquals(2, edited.length());
+
+            JSONObject nested = root.with("tags", edited.set(1, edited.getJSONObject(1).with("id", 7)));
+            assertEquals(7, nested.getJSONArray("tags").getJSONObject(1).getInt("id"));
+            assertEquals(42, JSON.parseObject(nested.toString()).getJSONObject("user").getInt("id"));
+            assertEquals(7, JSON.parseObject(nested.toString()).getJSONArray("tags").getJSONObject(1).getInt("id"));
+        }
+    }
+
+    @Test
+    void escapedKeys() {
+        for (JSONObject root : parse("{\"a\\\"\": 1, \"b\\\\\" : 2, \"c\":3}")) {
+            assertEquals("{\"b\\\\\" : 2, \"c\":3}", root.without("a\"").toString());
+            assertEquals("{\"a\\\"\": 1, \"c\":3}", root.without("b\\").toString());
+            assertEquals("{\"a\\\"\": 1, \"b\\\\\" : 2,\"d\\\"\":4}", root.without("c").with("d\"", 4).toString());
+        }
+    }
+
+    @Test
+    void duplicateKeys() {
+        for (JSONObject root : parse("{\"password\":\"secret\",\"user\":\"u\",\"password\":\"x\"}")) {
+            JSONObject removed = root.without("password");
+            assertEquals("{\"user\":\"u\"}", removed.toString());
+            assertFalse(removed.has("password"));
+            assertEquals("u", removed.getString("user"));
+
+            JSONObject replaced = root.with("password", "***");
+            assertEquals("{\"user\":\"u\",\"password\":\"***\"}", replaced.toString());
+            assertEquals("***", replaced.getString("password"));
+            assertEquals("u", replaced.getString("user"));
+            for (ParseOptions options : OPTIONS) {
+                assertEquals("***", JSON.parseObject(replaced.toString(), options).getString("password"));
+            }
+        }
+        for (JSONObject root : parse("{\"a\": 1, \"b\": [2], \"a\": {}, \"a\": 3}")) {
+            assertEquals("{\"b\": [2]}", root.without("a").toString());
+            assertEquals("{\"a\": 1, \"a\": {}, \"a\": 3}", root.without("b").toString());
+            assertEquals("{\"b\": [2], \"a\": 4}", root.with("a", 4).toString());
+            assertEquals(2, root.without("a").getJSONArray("b").getInt(0));
+        }
+        for (JSONObject root : parse("{\"a\": 1, \"a\": 2}")) {
+            assertEquals("{}", root.without("a").toString());
+            assertFalse(root.without("a").has("a"));
+        }
+    }
+
+    @Test
+    void editCostDoesNotGrowWithSiblings() {
+        String small = "{\"a\": 1, \"big\": [[0]], \"password\": \"secret\", \"z\": 2}";
+        String large = "{\"a\": 1, \"big\": [" + "[0, {\"k\": \"v\"}],".repeat(10_000) + "[0]], \"password\": \"secret\", \"z\": 2}";
+        for (ParseOptions options : OPTIONS) {
+            CountingSource smallSource = new CountingSource(small);
+            CountingSource largeSource = new CountingSource(large);
+            JSONObject smallRoot = JSON.parseObject(smallSource, options);
+            JSONObject largeRoot = JSON.parseObject(largeSource, options);
+            smallSource.reads = 0;
+            largeSource.reads = 0;
+            JSONObject smallEdited = smallRoot.without("password").with("traceId", "abc").with("a", 3);
+            JSONObject largeEdited = largeRoot.without("password").with("traceId", "abc").with("a", 3);
+            assertEquals(smallSource.reads, largeSource.reads, options.toString());
+            assertEquals("{\"a\": 3, \"big\": [[0]], \"z\": 2,\"traceId\":\"abc\"}", smallEdited.toString());
+            assertEquals(2, largeEdited.getInt("z"));
+            assertEquals(10_001, JSON.parseObject(largeEdited.toString()).getJSONArray("big").length());
+        }
+    }
+
+    /**
+     * counts the characters read from the source
+     */
+    private static final class CountingSource extends JSONSource {
+        private final JSONSource source;
+        int reads;
+
+        CountingSource(String json) {
+            source = JSONSource.of(json);
+        }
+
+        @Override
+        int length() {
+            return source.length();
+        }
+
+        @Override
+        char charAt(int index) {
+            reads++;
+            return source.charAt(index);
+        }
+
+        @Override
+        String substring(int start, int end) {
+            reads += end - start;
+            return source.substring(start, end);
+        }
+
+        @Override
+        void copyTo(int start, byte[] destination, int destinationOffset, int length) {
+            reads += length;
+            source.copyTo(start, destination, destinationOffset, length);
+        }
+    }
+
+    @Test
+    void manyEdits() {
+        for (JSONObject root : parse("{\"values\":[]}")) {
+            JSONArray values = root.getJSONArray("values");
+            for (int i = 0; i < 200; i++) {
+                values = values.with(i);
+                if (i % 3 == 0) {
+                    values = values.set(i / 2, "s" + i);
+                }
+            }
+            JSONObject edited = root.with("values", values);
+            JSONArray reparsed = JSON.parseObject(edited.toString()).getJSONArray("values");
+            assertEquals(200, values.length());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(reparsed.get(i), values.get(i));
+            }
+            assertEquals(reparsed.toString(), edited.getJSONArray("values").toString());
+        }
+    }
+
+    @Test
+    void splicedSource() {
+        JSONSource.Splicer splicer = new JSONSource.Splicer(true);
+        byte[] utf8 = "[\"é\", 1]".getBytes(StandardCharsets.UTF_8);
+        JSONSource bytes = JSONSource.of(utf8, 0, utf8.length);
+        splicer.add(bytes, 0, 5).add(",\"東京\"").add(bytes, 5, utf8.length);
+        JSONSource spliced = splicer.build();
+        assertEquals("[\"é\",\"東京\", 1]", spliced.substring(0, spliced.length()));
+        assertEquals(Arrays.asList("é", "東京"), JSON.parseArray(spliced.substring(0, spliced.length())).getStringList().subList(0, 2));
+        assertEquals(',', spliced.charAt(5));
+        assertEquals('"', spliced.charAt(6));
+        assertEquals(spliced.length(), utf8.length + 9);
+    }
+}
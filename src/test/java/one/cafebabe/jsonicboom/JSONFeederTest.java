@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONFeederTest {
+    private static final String JSON_TEXT = """
+            {"id": 1, "name": "東京\\t\\u00e9👍", "tags": ["a", null, true, false], "n": {"x": -2.5e-3, "big": 12345678901234567890, "long": 4294967296},
+             "skip": {"a": [1, "]}", {"b": "\\"{"}]}, "empty": [], "o": {}, "ok": false}""";
+
+    @Test
+    void anyChunkSize() {
+        byte[] utf8 = JSON_TEXT.getBytes(StandardCharsets.UTF_8);
+        EventRecorder expected = new EventRecorder();
+        JSON.visit(utf8, expected);
+        for (int chunk = 1; chunk <= utf8.length; chunk++) {
+            EventRecorder events = new EventRecorder();
+            JSONFeeder feeder = JSON.feeder(events);
+            feed(feeder, utf8, chunk);
+            assertTrue(feeder.isComplete());
+            feeder.endOfInput();
+            assertEquals(expected.events, events.events, "chunk " + chunk);
+
+            JSONFeeder tree = JSON.feeder();
+            feed(tree, utf8, chunk);
+            tree.endOfInput();
+            JSONObject object = tree.getJSONObject();
+            assertEquals(JSON_TEXT, object.toString());
+            assertEquals("東京\té👍", object.getString("name"));
+            assertEquals(-2.5e-3, object.getJSONObject("n").getDouble("x"));
+            assertEquals("\"{", object.getJSONObject("skip").getJSONArray("a").getJSONObject(2).getString("b"));
+            assertEquals(0, object.getJSONArray("empty").length());
+        }
+    }
+
+    @Test
+    void eventsAsChunksArrive() {
+        EventRecorder recorder = new EventRecorder();
+        List<String> events = recorder.events;
+        JSONFeeder feeder = JSON.feeder(recorder);
+        feeder.feed(ByteBuffer.wrap("[{\"a\": \"hel".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of("[", "{", "key:a"), events);
+        feeder.feed(ByteBuffer.wrap("lo\", \"b\": 12".getBytes(StandardCharsets.UTF_8)));
+        // the number may continue in the next chunk
+        assertEquals(List.of("[", "{", "key:a", "'hello'", "key:b"), events);
+        feeder.feed(ByteBuffer.wrap("3}, tr".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of("[", "{", "key:a", "'hello'", "key:b", "123", "}"), events);
+        assertFalse(feeder.isComplete());
+        ByteBuffer direct = ByteBuffer.allocateDirect(8);
+        direct.put("ue]\n".getBytes(StandardCharsets.UTF_8)).flip();
+        feeder.feed(direct);
+        assertEquals(0, direct.remaining());
+        assertTrue(feeder.isComplete());
+        feeder.endOfInput();
+        assertEquals(List.of("[", "{", "key:a", "'hello'", "key:b", "123", "}", "true", "]"), events);
+        assertThrows(IllegalStateException.class, () -> feeder.feed(ByteBuffer.allocate(0)));
+        assertThrows(IllegalStateException.class, feeder::getJSONObject);
+    }
+
+    @Test
+    void skip() {
+        List<String> events = new ArrayList<>();
+        JSONFeeder feeder = JSON.feeder(new JSONVisitor() {
+            @Override
+            public boolean key(String name) {
+                events.add(name);
+                return !name.equals("skip");
+            }
+
+            @Override
+            public boolean startArray() {
+                return false;
+            }
+
+            @Override
+            public void numberValue(NumberToken value) {
+                events.add(value.toString());
+            }
+        });
+        feed(feeder, "{\"skip\": {\"a\": 1}, \"b\": [2, {\"c\": 3}], \"d\": 4}".getBytes(StandardCharsets.UTF_8), 3);
+        feeder.endOfInput();
+        assertEquals(List.of("skip", "b", "d", "4"), events);
+    }
+
+    @Test
+    void tree() {
+        JSONFeeder feeder = JSON.feeder();
+        assertThrows(IllegalStateException.class, feeder::getJSONArray);
+        feed(feeder, "[1, {\"a\": [true]}, \"x\"]".getBytes(StandardCharsets.UTF_8), 2);
+        feeder.endOfInput();
+        JSONArray array = feeder.getJSONArray();
+        assertSame(array, feeder.getJSONArray());
+        assertEquals(1, array.getInt(0));
+        assertTrue(array.getJSONObject(1).getJSONArray("a").getBoolean(0));
+        assertEquals("x", array.getString(2));
+        assertThrows(IllegalStateException.class, feeder::getJSONObject);
+    }
+
+    @Test
+    void invalid() {
+        for (String json : new String[]{"", "1", "\"a\"", "{", "[1 2]", "[truex]", "[tru]", "[nul]", "{\"a\" 1}", "{\"a\":1,}", "[1,]", "[,1]",
+                "[01]", "[0e000001]", "[1e]", "[1.5.5]", "[\"\\x\"]", "[\"a\nb\"]", "[\"\\u12g4\"]", "{}}", "{} {}", "{}x", "[}", "{]",
+                "{\"a\":1 \"b\":2}", "{1:2}", "[\"abc"}) {
+            for (int chunk = 1; chunk <= Math.max(1, json.length()); chunk++) {
+                int size = chunk;
+                assertThrows(IllegalJSONFormatException.class, () -> {
+                    JSONFeeder feeder = JSON.feeder(new JSONVisitor() {
+                    });
+                    feed(feeder, json.getBytes(StandardCharsets.UTF_8), size);
+                    feeder.endOfInput();
+                }, json);
+                assertThrows(IllegalJSONFormatException.class, () -> {
+                    JSONFeeder feeder = JSON.feeder();
+                    feed(feeder, json.getBytes(StandardCharsets.UTF_8), size);
+                    feeder.endOfInput();
+                }, json);
+            }
+        }
+        // invalid UTF-8
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.feeder().feed(ByteBuffer.wrap(new byte[]{'[', '"', (byte) 0xC3, '"', ']'})));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.feeder().feed(ByteBuffer.wrap(new byte[]{'[', '"', (byte) 0xFF, '"', ']'})));
+    }
+
+    @Test
+    void numbersAsTheTokenizerReadsThem() {
+        for (String json : new String[]{"[0e000001]", "[-.5e+10]", "{\"r\":-3.e+10}", "[.5]", "[1.]", "[-0]", "[01]", "[1e]", "[1e+]", "[1.5.5]",
+                "[1e2e3]", "[1-2]", "[12345678901234567890, -9223372036854775808, 2147483648]"}) {
+            String parsed;
+            try {
+                parsed = json.startsWith("{") ? JSON.parseObject(json).toString() : JSON.parseArray(json).toString();
+            } catch (IllegalJSONFormatException e) {
+                parsed = null;
+            }
+            for (int chunk = 1; chunk <= json.length(); chunk++) {
+                JSONFeeder feeder = JSON.feeder();
+                try {
+                    feed(feeder, json.getBytes(StandardCharsets.UTF_8), chunk);
+                    feeder.endOfInput();
+                    assertEquals(parsed, json.startsWith("{") ? feeder.getJSONObject().toString() : feeder.getJSONArray().toString(), json);
+                } catch (IllegalJSONFormatException e) {
+                    assertNull(parsed, json);
+                }
+            }
+        }
+        JSONFeeder feeder = JSON.feeder();
+        feed(feeder, "{\"r\":-3.e+10, \"s\": [-.5e+10]}".getBytes(StandardCharsets.UTF_8), 3);
+        feeder.endOfInput();
+        assertEquals(-3e10, feeder.getJSONObject().getDouble("r"));
+        assertEquals(-.5e10, feeder.getJSONObject().getJSONArray("s").getDouble(0));
+    }
+
+    private static void feed(JSONFeeder feeder, byte[] utf8, int chunk) {
+        for (int i = 0; i < utf8.length; i += chunk) {
+            feeder.feed(ByteBuffer.wrap(utf8, i, Math.min(chunk, utf8.length - i)));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONParallelParserTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final String[] STRING_PARTS = {"a", ",", "[", "]", "{", "}", "\\\"", "\\\\", "\\\\\\\"", "東京", "\\u00e9", " "};
+
+    @Test
+    void sameAsSequential() {
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            String json = records(random, 1 + random.nextInt(300));
+            byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+            for (int chunkSize : new int[]{1, 7, 64, 1000}) {
+                assertEquals(JSON.parseArray(json), parallel(JSONSource.of(json), chunkSize), json);
+                assertEquals(JSON.parseArray(utf8), parallel(JSONSource.of(utf8, 0, utf8.length), chunkSize), json);
+            }
+        }
+    }
+
+    @Test
+    void valuesInDocumentOrder() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            sb.append(i == 0 ? "" : ",").append(i % 3 == 0 ? "{\"id\":" + i + "}" : i % 3 == 1 ? "[" + i + "]" : String.valueOf(i));
+        }
+        JSONArray array = parallel(JSONSource.of(sb.append("]").toString()), 100);
+        assertEquals(10_000, array.length());
+        assertEquals(9999, array.getJSONObject(9999).getInt("id"));
+        assertEquals(9997, array.getJSONArray(9997).getInt(0));
+        assertEquals(9998, array.getInt(9998));
+    }
+
+    @Test
+    void invalid() {
+        String padding = "\"x,]\",".repeat(50);
+        for (String json : new String[]{"[" + padding + "1,,2]", "[" + padding + "1 2]", "[" + padding + "1,]", "[" + padding + "[1]",
+                "[" + padding + "1]]", "[" + padding + "\"abc]", "[" + padding + "{\"a\":1,}]", "[" + padding + "]", " [" + padding + "1] 2",
+                "[" + padding + "\"a\\\"]", "[" + padding + "1}", "{" + padding + "1]"}) {
+            IllegalJSONFormatException expected = assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray(json), json);
+            IllegalJSONFormatException actual = assertThrows(IllegalJSONFormatException.class, () -> parallel(JSONSource.of(json), 16), json);
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    void singleThread() {
+        String json = records(new Random(4), 500);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertEquals(JSON.parseArray(json), pool.invoke(ForkJoinTask.adapt(() -> JSONParallelParser.parseArray(JSONSource.of(json), 256))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void smallArray() {
+        assertEquals(JSON.parseArray("[1,2]"), JSON.parseArrayParallel("[1,2]"));
+        assertEquals(0, JSON.parseArrayParallel("[]".getBytes(StandardCharsets.UTF_8)).length());
+    }
+
+    /**
+     * runs in a pool of its own, as the common pool has a single thread on single core machines
+     */
+    private static JSONArray parallel(JSONSource source, int chunkSize) {
+        return POOL.invoke(ForkJoinTask.adapt(() -> JSONParallelParser.parseArray(source, chunkSize)));
+    }
+
+    private static String records(Random random, int count) {
+        StringBuilder sb = new StringBuilder(" [");
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "" : ",").append(" \n".repeat(random.nextInt(2)));
+            switch (random.nextInt(4)) {
+                case 0:
+                    sb.append("{\"id\":").append(i).append(",\"name\":");
+                    string(sb, random);
+                    sb.append(",\"tags\":[");
+                    string(sb, random);
+                    sb.append(",[true,null],{}]}");
+                    break;
+                case 1:
+                    string(sb, random);
+                    break;
+                case 2:
+                    sb.append("[[").append(random.nextDouble()).append("],[]]");
+                    break;
+                default:
+                    sb.append(random.nextInt());
+                    break;
+            }
+        }
+        return sb.append("]\n").toString();
+    }
+
+    private static void string(StringBuilder sb, Random random) {
+        sb.append('"');
+        for (int i = random.nextInt(12); i > 0; i--) {
+            sb.append(STRING_PARTS[random.nextInt(STRING_PARTS.length)]);
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONPointerTest {
+    private static final String DOCUMENT = """
+            {"meta": {"skip": [1, {"x": "]}\\"{["}, "\\\\"], "n": null},
+             "data": {"items": [{"id": 1, "price": 9.5, "tags": ["a", "b"]}, {"id": 2, "price": 12, "name": "東京"}],
+                      "count": 2, "big": 12345678901234567890},
+             "a/b": 1, "m~n": 2, "": 3, "01": "zero one", "ünï": true}""";
+
+    @Test
+    void extract() {
+        assertEquals(9.5, extract("/data/items/0/price"));
+        assertEquals(12, extract("/data/items/1/price"));
+        assertEquals("東京", extract("/data/items/1/name"));
+        assertEquals("b", extract("/data/items/0/tags/1"));
+        assertEquals(new BigInteger("12345678901234567890"), extract("/data/big"));
+        assertEquals(2L, ((Number) extract("/data/count")).longValue());
+        assertNull(extract("/meta/n"));
+        assertEquals(Boolean.TRUE, extract("/ünï"));
+        JSONObject item = (JSONObject) extract("/data/items/1");
+        assertEquals("東京", item.getString("name"));
+        JSONArray items = (JSONArray) extract("/data/items");
+        assertEquals(2, items.length());
+        assertEquals(JSON.parseObject(DOCUMENT).toString(), extract("").toString());
+    }
+
+    @Test
+    void escapes() {
+        assertEquals(1, extract("/a~1b"));
+        assertEquals(2, extract("/m~0n"));
+        assertEquals(3, extract("/"));
+        assertEquals("zero one", extract("/01"));
+        assertEquals("]}\"{[", extract("/meta/skip/1/x"));
+        assertEquals("\\", extract("/meta/skip/2"));
+        assertEquals("y", JSON.extract("{\"k\\u0065y\":\"y\"}", "/key"));
+    }
+
+    @Test
+    void missing() {
+        assertNull(extract("/data/items/2"));
+        assertNull(extract("/data/items/-"));
+        assertNull(extract("/data/items/00"));
+        assertNull(extract("/data/none"));
+        assertNull(extract("/data/count/x"));
+        assertNull(extract("/data/items/id"));
+    }
+
+    @Test
+    void multiplePaths() {
+        JSONPointer pointer = JSONPointer.compile("/data/items/1/id", "/data/count", "/data/items/1", "/nothing", "/data/count", "/data/items/1/name");
+        Object[] values = pointer.extract(DOCUMENT);
+        assertEquals(2, values[0]);
+        assertEquals(2, values[1]);
+        assertEquals(2, ((JSONObject) values[2]).getInt("id"));
+        assertNull(values[3]);
+        assertEquals(2, values[4]);
+        assertEquals("東京", values[5]);
+        assertEquals(Arrays.toString(values), Arrays.toString(pointer.extract(DOCUMENT.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void skipsWithoutValidating() {
+        // the tail of an array is skipped once found
+        assertEquals(2, JSON.extract("[1, 2, [x}]", "/1"));
+        // skipped values are not validated
+        assertEquals(1, JSON.extract("{\"a\": {\"b\": 1, \"c\": [}}, \"d\": [x]}", "/a/b"));
+        assertEquals(3, JSON.extract("{\"x\": [1 2 x], \"y\": 3}", "/y"));
+    }
+
+    @Test
+    void duplicateKeys() {
+        String json = "{\"a\":1,\"b\":{\"c\":2},\"a\":3}";
+        assertEquals(3, JSON.extract(json, "/a"));
+        assertEquals(JSON.parseObject(json).get("a"), JSON.extract(json, "/a"));
+        // the paths found in the first value are forgotten
+        String nested = "{\"n\":{\"x\":1,\"y\":2},\"n\":{\"x\":3},\"n\":{\"x\":4,\"x\":5}}";
+        Object[] values = JSONPointer.compile("/n/x", "/n/y", "/n").extract(nested);
+        assertEquals(5, values[0]);
+        assertNull(values[1]);
+        assertEquals("{\"x\":4,\"x\":5}", values[2].toString());
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> JSONPointer.compile("data"));
+        assertThrows(IllegalArgumentException.class, () -> JSONPointer.compile("/a~2"));
+        assertThrows(IllegalArgumentException.class, () -> JSONPointer.compile("/a~"));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.extract("{\"a\": [1, 2", "/b"));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.extract("{\"a\": 1} {", "/b"));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.extract("", "/b"));
+    }
+
+    private static Object extract(String pointer) {
+        Object value = JSON.extract(DOCUMENT, pointer);
+        Object fromBytes = JSON.extract(DOCUMENT.getBytes(StandardCharsets.UTF_8), pointer);
+        assertEquals(String.valueOf(value), String.valueOf(fromBytes), pointer);
+        return value;
+    }
+}
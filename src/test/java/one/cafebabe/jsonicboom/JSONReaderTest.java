@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static one.cafebabe.jsonicboom.JSONTokenizer.JsonEventType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONReaderTest {
+    private static final String JSON_TEXT = """
+            {"id": 42, "big": 9007199254740993, "price": 1.25, "name": "東京\\n", "ok": true, "none": null,
+             "skip": {"a": [1, "]}", {"b": "\\"{"}]}, "list": [1, "2", {"x": false}], "d": "3.5"}""";
+
+    @Test
+    void tokens() {
+        for (JSONReader reader : new JSONReader[]{JSON.reader(JSON_TEXT), JSON.reader(JSON_TEXT.getBytes(StandardCharsets.UTF_8))}) {
+            assertNull(reader.currentToken());
+            assertEquals(START_OBJECT, reader.nextToken());
+            assertNull(reader.currentName());
+            assertEquals(KEY_NAME, reader.nextToken());
+            assertEquals("id", reader.currentName());
+            assertEquals(VALUE_NUMBER, reader.nextToken());
+            assertTrue(reader.currentNameEquals("id"));
+            assertEquals(42, reader.getInt());
+            assertEquals(42L, reader.getLong());
+            assertEquals("42", reader.getString());
+            reader.nextToken();
+            reader.nextToken();
+            assertEquals(9007199254740993L, reader.getLong());
+            assertThrows(NumberFormatException.class, reader::getInt);
+            reader.nextToken();
+            reader.nextToken();
+            assertEquals(1.25, reader.getDouble());
+            assertEquals(new BigDecimal("1.25"), reader.getBigDecimal());
+            reader.nextToken();
+            assertEquals(VALUE_STRING, reader.nextToken());
+            assertEquals("東京\n", reader.getString());
+            assertEquals("name", reader.currentName());
+            reader.nextToken();
+            assertEquals(VALUE_TRUE, reader.nextToken());
+            assertTrue(reader.getBoolean());
+            reader.nextToken();
+            assertEquals(VALUE_NULL, reader.nextToken());
+            assertNull(reader.getString());
+            assertNull(reader.getBigDecimal());
+            assertEquals(KEY_NAME, reader.nextToken());
+            assertTrue(reader.currentNameEquals("skip"));
+            reader.skipValue();
+            assertEquals(END_OBJECT, reader.currentToken());
+            assertNull(reader.currentName());
+            assertEquals(KEY_NAME, reader.nextToken());
+            assertEquals(START_ARRAY, reader.nextToken());
+            assertEquals("list", reader.currentName());
+            assertEquals(VALUE_NUMBER, reader.nextToken());
+            assertNull(reader.currentName());
+            assertEquals(VALUE_STRING, reader.nextToken());
+            assertEquals(2, reader.getInt());
+            assertEquals(START_OBJECT, reader.nextToken());
+            reader.skipChildren();
+            assertEquals(END_OBJECT, reader.currentToken());
+            assertEquals(END_ARRAY, reader.nextToken());
+            reader.nextToken();
+            reader.nextToken();
+            assertEquals(3.5, reader.getDouble());
+            assertEquals(END_OBJECT, reader.nextToken());
+            assertNull(reader.nextToken());
+            assertNull(reader.currentToken());
+        }
+    }
+
+    @Test
+    void sameTokensAsTokenizer() {
+        JSONReader reader = JSON.reader(JSON_TEXT);
+        List<JsonEventType> tokens = new ArrayList<>();
+        JsonEventType token;
+        while ((token = reader.nextToken()) != null) {
+            tokens.add(token);
+        }
+        List<JsonEventType> expected = new ArrayList<>();
+        JSONTokenizer tokenizer = new JSONTokenizer(JSON_TEXT);
+        while ((token = tokenizer.nextEvent()) != null) {
+            if (token != COMMA && token != COLON) {
+                expected.add(token);
+            }
+        }
+        assertEquals(expected, tokens);
+    }
+
+    @Test
+    void skipScalar() {
+        JSONReader reader = JSON.reader("[1, {\"a\": 2}]");
+        reader.nextToken();
+        reader.nextToken();
+        reader.skipValue();
+        assertEquals(VALUE_NUMBER, reader.currentToken());
+        assertEquals(START_OBJECT, reader.nextToken());
+        reader.nextToken();
+        reader.skipValue();
+        assertEquals(VALUE_NUMBER, reader.currentToken());
+        assertEquals(2, reader.getInt());
+        assertEquals(END_OBJECT, reader.nextToken());
+        assertEquals(END_ARRAY, reader.nextToken());
+        assertNull(reader.nextToken());
+    }
+
+    @Test
+    void invalid() {
+        JSONReader reader = JSON.reader("{\"a\": [1 2]}");
+        assertThrows(IllegalStateException.class, reader::getInt);
+        reader.nextToken();
+        assertThrows(IllegalJSONFormatException.class, reader::getString);
+        reader.nextToken();
+        reader.nextToken();
+        reader.nextToken();
+        assertThrows(IllegalJSONFormatException.class, reader::nextToken);
+        // skipped contents are not validated
+        JSONReader skipping = JSON.reader("{\"a\": [1 2], \"b\": 3}");
+        skipping.nextToken();
+        skipping.nextToken();
+        skipping.skipValue();
+        skipping.nextToken();
+        assertEquals("b", skipping.currentName());
+        JSONReader unclosed = JSON.reader("{\"a\": [1, 2");
+        unclosed.nextToken();
+        unclosed.nextToken();
+        unclosed.nextToken();
+        assertThrows(IllegalJSONFormatException.class, unclosed::skipChildren);
+    }
+}
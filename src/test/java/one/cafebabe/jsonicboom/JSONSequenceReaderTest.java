@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONSequenceReaderTest {
+
+    @Test
+    void jsonLines() throws IOException {
+        String json = """
+                {"name": "東京", "tags": ["a", "}"]}
+                {"name": "\\"{[", "tags": []}
+
+                [1, 2.5, {"three": null}]
+                """;
+        List<String> expected = List.of(JSON.parseObject("{\"name\": \"東京\", \"tags\": [\"a\", \"}\"]}").toString(),
+                JSON.parseObject("{\"name\": \"\\\"{[\", \"tags\": []}").toString(), JSON.parseArray("[1, 2.5, {\"three\": null}]").toString());
+        assertEquals(expected, strings(JSON.readSequence(new StringReader(json))));
+        assertEquals(expected, strings(JSON.readSequence(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))));
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        try {
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+            assertEquals(expected, strings(JSON.readSequence(path)));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void windows() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("{\"id\":").append(i).append(",\"text\":\"東京").append("x".repeat(i % 7)).append("\"}\n");
+        }
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        path.toFile().deleteOnExit();
+        Files.write(path, sb.toString().getBytes(StandardCharsets.UTF_8));
+        List<String> expected = strings(JSON.readSequence(new StringReader(sb.toString())));
+        // records cut by the end of a window are read from a mapping starting at the record
+        for (int window : new int[]{40, 64, 1000}) {
+            try (JSONSequenceReader reader = JSONSequenceReader.of(path, window)) {
+                assertEquals(expected, strings(reader), "window: " + window);
+            }
+        }
+        try (JSONSequenceReader reader = JSONSequenceReader.of(path, 20)) {
+            assertThrows(UncheckedIOException.class, reader::hasNext);
+        }
+    }
+
+    @Test
+    void concatenated() {
+        JSONSequenceReader reader = JSON.readSequence(new StringReader("{\"a\":1}{\"a\":\"}{\"}[\"\\\\\"] {}"));
+        assertEquals(1, ((JSONObject) reader.next()).getInt("a"));
+        assertEquals("}{", ((JSONObject) reader.next()).getString("a"));
+        assertEquals("\\", ((JSONArray) reader.next()).getString(0));
+        assertEquals("{}", reader.next().toString());
+        assertFalse(reader.hasNext());
+        assertFalse(JSON.readSequence(new StringReader(" \n")).hasNext());
+    }
+
+    @Test
+    void recordsAcrossReads() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"text\":\"").append("x\\\"".repeat(i % 100)).append("\"}\n");
+        }
+        sb.append("[\"").append("y".repeat(300_000)).append("\"]");
+        byte[] utf8 = sb.toString().getBytes(StandardCharsets.UTF_8);
+        // a few bytes at a time
+        InputStream in = new ByteArrayInputStream(utf8) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+        List<Object> values = new ArrayList<>();
+        JSON.readSequence(in).forEachRemaining(values::add);
+        assertEquals(2001, values.size());
+        assertEquals(1999, ((JSONObject) values.get(1999)).getInt("id"));
+        assertEquals("x\"".repeat(99), ((JSONObject) values.get(1999)).getString("text"));
+        assertEquals(300_000, ((JSONArray) values.get(2000)).getString(0).length());
+        assertEquals(strings(JSON.readSequence(new StringReader(sb.toString()))), values.stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    void parallelStream() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("{\"id\":").append(i).append("}\n");
+        }
+        String json = sb.toString();
+        try (Stream<Object> stream = JSON.readSequence(new StringReader(json)).parallelStream(true)) {
+            List<Integer> ids = stream.map(value -> ((JSONObject) value).getInt("id")).collect(Collectors.toList());
+            assertEquals(5000, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals(i, ids.get(i));
+            }
+        }
+        try (Stream<Object> stream = JSON.readSequence(new StringReader(json)).parallelStream(false)) {
+            assertEquals(4999L * 5000 / 2, stream.mapToLong(value -> ((JSONObject) value).getInt("id")).sum());
+        }
+    }
+
+    @Test
+    void invalid() {
+        for (String json : new String[]{"{\"a\":1} x", "{\"a\":1}\n]", "{\"a\":1", "{\"a\":1]", "{\"a\" 1}", "[\"a\nb\"]", "1\n"}) {
+            assertThrows(IllegalJSONFormatException.class, () -> strings(JSON.readSequence(new StringReader(json))), json);
+            assertThrows(IllegalJSONFormatException.class, () -> strings(JSON.readSequence(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))), json);
+        }
+    }
+
+    @Test
+    void readError() {
+        InputStream in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> JSON.readSequence(in).hasNext());
+    }
+
+    private static List<String> strings(JSONSequenceReader reader) {
+        try (Stream<Object> stream = reader.stream()) {
+            return stream.map(Object::toString).collect(Collectors.toList());
+        }
+    }
+}
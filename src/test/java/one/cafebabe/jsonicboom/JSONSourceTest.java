@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONSourceTest {
+    @Test
+    void utf8Object() {
+        String json = """
+                {
+                  "name": "Yusuke Yamamoto",
+                  "street": "東京都\\u4E2D\\u592E\\u533A",
+                  "rating": "👍👍👍",
+                  "escaped": "\\"quoted\\"\\n",
+                  "age": 30,
+                  "height": 1.65,
+                  "isMarried": true,
+                  "notes": null,
+                  "hobbies": ["programing", "アーチェリー"],
+                  "address": {"zip": "1700012"}
+                }""";
+        JSONObject jsonObject = JSON.parseObject(json.getBytes(StandardCharsets.UTF_8));
+        assertEquals("Yusuke Yamamoto", jsonObject.getString("name"));
+        assertEquals("東京都中央区", jsonObject.getString("street"));
+        assertEquals("👍👍👍", jsonObject.getString("rating"));
+        assertEquals("\"quoted\"\n", jsonObject.getString("escaped"));
+        assertEquals(30, jsonObject.getInt("age"));
+        assertEquals(1.65, jsonObject.getDouble("height"));
+        assertTrue(jsonObject.getBoolean("isMarried"));
+        assertNull(jsonObject.getString("notes"));
+        //noinspection DataFlowIssue
+        assertEquals("アーチェリー", jsonObject.getJSONArray("hobbies").getString(1));
+        //noinspection DataFlowIssue
+        assertEquals("1700012", jsonObject.getJSONObject("address").getString("zip"));
+        assertEquals(json, jsonObject.toString());
+        assertEquals(jsonObject, JSON.parseObject(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void utf8ArrayWithOffset() {
+        byte[] bytes = "garbage[1,\"二\",3]garbage".getBytes(StandardCharsets.UTF_8);
+        JSONArray jsonArray = JSON.parseArray(bytes, 7, bytes.length - 14);
+        assertEquals(3, jsonArray.length());
+        assertEquals(1, jsonArray.getInt(0));
+        assertEquals("二", jsonArray.getString(1));
+        assertEquals(3, jsonArray.getInt(2));
+        assertEquals("[1,\"二\",3]", jsonArray.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> JSON.parseArray(bytes, 7, bytes.length));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray(bytes, 7, bytes.length - 15));
+    }
+
+    @Test
+    void mappedFile() throws IOException {
+        JSONObject jsonObject = JSON.parseObject(file("""
+                {"name": "東京都\\u4E2D\\u592E\\u533A", "values": [1, 2.5, "👍"]}"""));
+        assertEquals("東京都中央区", jsonObject.getString("name"));
+        JSONArray values = jsonObject.getJSONArray("values");
+        //noinspection DataFlowIssue
+        assertEquals(1, values.getInt(0));
+        assertEquals(2.5, values.getDouble(1));
+        assertEquals("👍", values.getString(2));
+        assertEquals("[1, 2.5, \"👍\"]", values.toString());
+
+        JSONArray jsonArray = JSON.parseArray(file("[true, null, {}]"));
+        assertEquals(3, jsonArray.length());
+        assertTrue(jsonArray.getBoolean(0));
+        assertEquals("[true, null, {}]", jsonArray.toString());
+    }
+
+    /**
+     * @return a new file per case: a mapped file can be neither rewritten nor deleted on some platforms while the mapping is reachable
+     */
+    private static Path file(String json) throws IOException {
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        path.toFile().deleteOnExit();
+        return Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void invalidUTF8() {
+        // lone continuation byte
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(new byte[]{'{', '"', 'a', '"', ':', '"', (byte) 0x80, '"', '}'}));
+        // overlong encoding of '/'
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(new byte[]{'{', '"', 'a', '"', ':', '"', (byte) 0xC0, (byte) 0xAF, '"', '}'}));
+        // UTF-16 surrogate
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(new byte[]{'{', '"', 'a', '"', ':', '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"', '}'}));
+        // truncated sequence
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(new byte[]{'{', '"', 'a', '"', ':', '"', (byte) 0xE6, (byte) 0x9D, '"', '}'}));
+        // non-ASCII outside of a string
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(new byte[]{'{', '"', 'a', '"', ':', (byte) 0xC3, (byte) 0xA9, '}'}));
+    }
+
+    @Test
+    void errorMessage() {
+        IllegalJSONFormatException exception = assertThrows(IllegalJSONFormatException.class,
+                () -> JSON.parseObject("{\"key\": ture}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("""
+                Expecting 'true', got 'ture'.
+                {"key": ture}
+                         ^""", exception.getMessage());
+    }
+
+    @Test
+    void unescape() {
+        String[][] cases = {
+                {"plain", "plain"},
+                {"", ""},
+                {"\\\"\\\\\\/\\b\\f\\n\\r\\t", "\"\\/\b\f\n\r\t"},
+                {"caf\\u00e9 \\u00E9", "café é"},
+                {"\\uD83D\\uDC4D\\ud83d\\udc4d", "👍👍"},
+                {"東京\\n都", "東京\n都"},
+                {"x".repeat(40) + "\\n" + "y".repeat(40) + "\\\\" + "z".repeat(3), "x".repeat(40) + "\n" + "y".repeat(40) + "\\" + "z".repeat(3)},
+                {"\\\\".repeat(20) + "a".repeat(17) + "\\u0041", "\\".repeat(20) + "a".repeat(17) + "A"},
+        };
+        for (String[] c : cases) {
+            String json = "[\"" + c[0] + "\"]";
+            assertEquals(c[1], JSON.parseArray(json).getString(0), c[0]);
+            assertEquals(c[1], JSON.parseArray(json.getBytes(StandardCharsets.UTF_8)).getString(0), c[0]);
+            // within a larger text
+            assertEquals(c[1], JSONSource.unescape("\\n" + c[0] + "\\n", 2, c[0].length() + 2), c[0]);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONTapeTest {
+    private static final String PERSON = """
+            {
+              "name": "Yusuke Yamamoto",
+              "street": "東京都\\u4E2D\\u592E\\u533A",
+              "esc\\"aped": "\\"quoted\\"\\n",
+              "age": 30,
+              "long": 12345678901234,
+              "height": 1.65,
+              "isMarried": true,
+              "notes": null,
+              "hobbies": ["programing", "アーチェリー"],
+              "address": {"zip": "1700012", "geo": {"lat": 35.6, "lon": 139.7}},
+              "empty": {},
+              "emptyArray": [],
+              "matrix": [[1, 2], [], [3]],
+              "mixed": [{"id": 1}, 2, "three", [4]]
+            }""";
+
+    @Test
+    void object() {
+        for (JSONObject jsonObject : new JSONObject[]{JSON.parseObject(PERSON, ParseOptions.TAPE),
+                JSON.parseObject(PERSON.getBytes(StandardCharsets.UTF_8), ParseOptions.TAPE)}) {
+            assertEquals("Yusuke Yamamoto", jsonObject.getString("name"));
+            assertEquals("東京都中央区", jsonObject.getString("street"));
+            assertEquals("\"quoted\"\n", jsonObject.getString("esc\"aped"));
+            assertEquals(30, jsonObject.getInt("age"));
+            assertEquals(30, jsonObject.get("age"));
+            assertEquals(12345678901234L, jsonObject.getLong("long"));
+            assertEquals(1.65, jsonObject.getDouble("height"));
+            assertEquals(new BigDecimal("1.65"), jsonObject.getBigDecimal("height"));
+            assertTrue(jsonObject.getBoolean("isMarried"));
+            assertEquals(Boolean.TRUE, jsonObject.get("isMarried"));
+            assertNull(jsonObject.getString("notes"));
+            assertNull(jsonObject.get("notes"));
+            assertNull(jsonObject.getJSONObject("notes"));
+            assertTrue(jsonObject.has("notes"));
+            assertFalse(jsonObject.has("nam"));
+            assertFalse(jsonObject.has("names"));
+            assertNull(jsonObject.getString("missing"));
+            assertEquals(-1, jsonObject.getInt("missing"));
+            assertNull(jsonObject.getJSONArray("name"));
+            assertThrows(UnsupportedOperationException.class, () -> jsonObject.getJSONObject("hobbies"));
+
+            //noinspection DataFlowIssue
+            assertEquals(List.of("programing", "アーチェリー"), jsonObject.getJSONArray("hobbies").getStringList());
+            assertEquals("[\"programing\", \"アーチェリー\"]", jsonObject.get("hobbies").toString());
+            JSONObject address = jsonObject.getJSONObject("address");
+            //noinspection DataFlowIssue
+            assertEquals("1700012", address.getString("zip"));
+            //noinspection DataFlowIssue
+            assertEquals(139.7, address.getJSONObject("geo").getDouble("lon"));
+            assertEquals("{\"lat\": 35.6, \"lon\": 139.7}", address.getString("geo"));
+            assertEquals(address, jsonObject.getJSONObject("address"));
+            //noinspection DataFlowIssue
+            assertFalse(jsonObject.getJSONObject("empty").has("zip"));
+            //noinspection DataFlowIssue
+            assertEquals(0, jsonObject.getJSONArray("emptyArray").length());
+            assertEquals(PERSON, jsonObject.toString());
+        }
+    }
+
+    @Test
+    void nestedArrays() {
+        JSONObject jsonObject = JSON.parseObject(PERSON, ParseOptions.TAPE);
+        JSONArray matrix = jsonObject.getJSONArray("matrix");
+        //noinspection DataFlowIssue
+        assertEquals(3, matrix.length());
+        assertArrayEquals(new int[]{1, 2}, matrix.getJSONArray(0).getIntArray());
+        //noinspection DataFlowIssue
+        assertEquals(0, matrix.getJSONArray(1).length());
+        assertArrayEquals(new int[]{3}, matrix.getJSONArray(2).getIntArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getJSONArray(3));
+
+        JSONArray mixed = jsonObject.getJSONArray("mixed");
+        //noinspection DataFlowIssue
+        assertEquals(4, mixed.length());
+        //noinspection DataFlowIssue
+        assertEquals(1, mixed.getJSONObject(0).getInt("id"));
+        assertEquals(2, mixed.getInt(1));
+        assertEquals("three", mixed.getString(2));
+        //noinspection DataFlowIssue
+        assertEquals(4, mixed.getJSONArray(3).getInt(0));
+    }
+
+    @Test
+    void array() {
+        JSONArray jsonArray = JSON.parseArray("[1, -2, 3.5, \"4\", true, null]", ParseOptions.TAPE);
+        assertEquals(6, jsonArray.length());
+        assertEquals(1, jsonArray.getInt(0));
+        assertEquals(-2L, jsonArray.getLong(1));
+        assertEquals(3.5, jsonArray.getDouble(2));
+        assertEquals("4", jsonArray.getString(3));
+        assertTrue(jsonArray.getBoolean(4));
+        assertNull(jsonArray.getString(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> jsonArray.getInt(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> jsonArray.getInt(-1));
+
+        JSONArray doubles = JSON.parseArray("[1.5, 2.5, 3.5]", ParseOptions.TAPE);
+        assertEquals(Arrays.asList(1.5, 2.5, 3.5), doubles.getDoubleList());
+        assertEquals(JSON.parseArray("[1.5, 2.5, 3.5]", ParseOptions.TAPE), doubles);
+    }
+
+    @Test
+    void sameAsTree() {
+        String json = Arrays.toString(new int[1000]).replace("0", "{\"a\":[1,{\"b\":\"c\"}],\"d\":2}");
+        JSONArray tree = JSON.parseArray(json);
+        JSONArray tape = JSON.parseArray(json, ParseOptions.TAPE);
+        assertEquals(tree.length(), tape.length());
+        for (int i = 0; i < tree.length(); i++) {
+            JSONObject treeObject = tree.getJSONObject(i);
+            JSONObject tapeObject = tape.getJSONObject(i);
+            //noinspection DataFlowIssue
+            assertEquals(treeObject.toString(), tapeObject.toString());
+            assertEquals(treeObject.getInt("d"), tapeObject.getInt("d"));
+            //noinspection DataFlowIssue
+            assertEquals(treeObject.getJSONArray("a").getJSONObject(1).getString("b"), tapeObject.getJSONArray("a").getJSONObject(1).getString("b"));
+        }
+    }
+
+    @Test
+    void duplicateKey() {
+        // the last value wins in every mode
+        for (ParseOptions options : new ParseOptions[]{ParseOptions.DEFAULT, ParseOptions.TAPE, ParseOptions.LAZY}) {
+            JSONObject object = JSON.parseObject("{\"a\": 1, \"b\": {}, \"a\": 2}", options);
+            assertEquals(2, object.getInt("a"), options.toString());
+            assertEquals(2, object.get("a"), options.toString());
+        }
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": 1", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": 1}}", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"a\": 1} {}", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("[1]", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("{}", ParseOptions.TAPE));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseArray("[1 2]", ParseOptions.TAPE));
+    }
+}
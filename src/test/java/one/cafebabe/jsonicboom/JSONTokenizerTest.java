@@ -83,6 +83,25 @@ public class JSONTokenizerTest {
         next = parser.next();
         assertNull(next);
     }
+    @Test
+    public void testEscapeAfterEscape() {
+        // the character after an escape sequence is examined: \" following \n doesn't close the string
+        String jsonString = "{\"a\":\"\\n\\\"x\",\"b\":\"\\\\\"}";
+        JSONTokenizer parser = new JSONTokenizer(jsonString);
+        parser.next();
+        parser.next();
+        parser.next();
+        assertSubstring(jsonString, parser.next(), JSONTokenizer.JsonEventType.VALUE_STRING, "\\n\\\"x");
+        assertEquals(JSONTokenizer.JsonEventType.COMMA, parser.next().jsonEventType);
+        assertSubstring(jsonString, parser.next(), JSONTokenizer.JsonEventType.KEY_NAME, "b");
+        parser.next();
+        assertSubstring(jsonString, parser.next(), JSONTokenizer.JsonEventType.VALUE_STRING, "\\\\");
+        assertSubstring(jsonString, parser.next(), JSONTokenizer.JsonEventType.END_OBJECT, "}");
+        assertNull(parser.next());
+        assertEquals("\n\"x", JSON.parseObject(jsonString).getString("a"));
+        assertEquals("\\", JSON.parseObject(jsonString).getString("b"));
+    }
+
     @Test
     public void testEmoji() {
         String jsonString = """
@@ -445,6 +464,25 @@ public class JSONTokenizerTest {
         assertNull(next);
     }
 
+    @Test
+    public void testDeepNesting() {
+        int depth = 100_000;
+        String jsonString = "[{\"a\":".repeat(depth) + "1" + "}]".repeat(depth);
+        JSONTokenizer parser = new JSONTokenizer(jsonString);
+        int count = 0;
+        while (parser.next() != null) {
+            count++;
+        }
+        assertEquals(depth * 6 + 1, count);
+
+        JSONTokenizer unclosed = new JSONTokenizer("[{\"a\":".repeat(depth) + "1" + "}]".repeat(depth - 1) + "}");
+        assertThrows(IllegalJSONFormatException.class, () -> {
+            //noinspection StatementWithEmptyBody
+            while (unclosed.next() != null) {
+            }
+        });
+    }
+
     void assertSubstring(String jsonString, JSONTokenizer.JsonIndices indices, JSONTokenizer.JsonEventType type, String str) {
         assertSame(type, indices.jsonEventType, str);
 
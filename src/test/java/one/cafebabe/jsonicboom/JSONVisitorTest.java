@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONVisitorTest {
+    private static final String JSON_TEXT = """
+            {"id": 1, "name": "東京\\t", "tags": ["a", null, true], "n": {"x": 2.5, "big": 12345678901234567890, "long": 4294967296},
+             "skip": {"a": [1, "]}", {"b": "\\"{"}]}, "ok": false}""";
+
+    @Test
+    void events() {
+        String expected = "{ key:id 1 key:name '東京\t' key:tags [ 'a' null true ] key:n { key:x 2.5 key:big 12345678901234567890 key:long 4294967296 }"
+                + " key:skip { key:a [ 1 ']}' { key:b '\"{' } ] } key:ok false }";
+        assertEquals(expected, events(JSON_TEXT, false));
+        assertEquals(expected, events(JSON_TEXT.getBytes(StandardCharsets.UTF_8), false));
+    }
+
+    @Test
+    void skip() {
+        assertEquals("{ key:id 1 key:name '東京\t' key:tags [ 'a' null true ] key:n { key:x 2.5 key:big 12345678901234567890 key:long 4294967296 }"
+                + " key:skip key:ok false }", events(JSON_TEXT, true));
+        // skipped by startObject / startArray
+        List<String> visited = new ArrayList<>();
+        JSON.visit("[{\"a\": 1}, [2, [3]], 4]", new JSONVisitor() {
+            int depth = 0;
+
+            @Override
+            public boolean startObject() {
+                return false;
+            }
+
+            @Override
+            public boolean startArray() {
+                return depth++ < 1;
+            }
+
+            @Override
+            public void numberValue(NumberToken value) {
+                visited.add(value.toString());
+            }
+
+            @Override
+            public void endArray() {
+                visited.add("]");
+            }
+        });
+        assertEquals(List.of("4", "]"), visited);
+        // skipped contents are not validated
+        assertEquals("{ key:skip key:b 1 }", events("{\"skip\": [1 2], \"b\": 1}", true));
+    }
+
+    @Test
+    void numbers() {
+        List<Object> numbers = new ArrayList<>();
+        JSON.visit("[1, -2147483648, 4294967296, 12345678901234567890, 1.5, 1e3]", new JSONVisitor() {
+            @Override
+            public void numberValue(NumberToken value) {
+                numbers.add(value.toNumber());
+                if (value.isIntegral() && !(value.toNumber() instanceof BigInteger)) {
+                    assertEquals(value.toNumber().longValue(), value.longValue());
+                } else {
+                    assertThrows(NumberFormatException.class, value::longValue);
+                }
+                assertEquals(new BigDecimal(value.toString()), value.bigDecimalValue());
+            }
+        });
+        assertEquals(List.of(1, -2147483648, 4294967296L, new BigInteger("12345678901234567890"), 1.5, 1000.0), numbers);
+        assertThrows(NumberFormatException.class, () -> JSON.visit("[4294967296]", new JSONVisitor() {
+            @Override
+            public void numberValue(NumberToken value) {
+                value.intValue();
+            }
+        }));
+    }
+
+    @Test
+    void sum() throws IOException {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"price\":").append(i % 100).append(".5,\"meta\":{\"price\":1000}}");
+        }
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        try {
+            Files.write(path, sb.append(']').toString().getBytes(StandardCharsets.UTF_8));
+            double[] sum = {0};
+            JSON.visit(path, new JSONVisitor() {
+                boolean price;
+
+                @Override
+                public boolean key(String name) {
+                    price = "price".equals(name);
+                    return !"meta".equals(name);
+                }
+
+                @Override
+                public void numberValue(NumberToken value) {
+                    if (price) {
+                        sum[0] += value.doubleValue();
+                    }
+                }
+            });
+            assertEquals(100 * (49.5 * 100 + 50), sum[0]);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void windows() throws IOException {
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        path.toFile().deleteOnExit();
+        Files.write(path, JSON_TEXT.getBytes(StandardCharsets.UTF_8));
+        String expected = events(JSON_TEXT, true);
+        // tokens cut by the end of a window
+        for (int window : new int[]{7, 16, 1000}) {
+            EventRecorder recorder = new EventRecorder("skip");
+            JSONPushParser.visit(path, recorder, window);
+            assertEquals(expected, recorder.toString(), "window: " + window);
+        }
+    }
+
+    @Test
+    void invalid() {
+        JSONVisitor visitor = new JSONVisitor() {
+        };
+        for (String json : new String[]{"", "{", "{\"a\" 1}", "[1,]", "{} {}", "[1 2]"}) {
+            assertThrows(IllegalJSONFormatException.class, () -> JSON.visit(json, visitor), json);
+        }
+    }
+
+    private static String events(String json, boolean skipSkip) {
+        EventRecorder recorder = new EventRecorder(skipSkip ? "skip" : null);
+        JSON.visit(json, recorder);
+        return recorder.toString();
+    }
+
+    private static String events(byte[] utf8, boolean skipSkip) {
+        EventRecorder recorder = new EventRecorder(skipSkip ? "skip" : null);
+        JSON.visit(utf8, recorder);
+        return recorder.toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONWindowedParserTest {
+    private static final ParseOptions[] OPTIONS = {ParseOptions.DEFAULT, ParseOptions.TAPE, ParseOptions.LAZY};
+
+    @Test
+    void object() throws IOException {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":");
+            switch (i % 4) {
+                case 0 -> sb.append(i * 1000);
+                case 1 -> sb.append("\"東京").append("x".repeat(i % 7)).append("\\\"}\"");
+                case 2 -> sb.append("{\"id\":").append(i).append(",\"a\":[true,null,\"]\"]}");
+                default -> sb.append("[").append(i).append(",{\"b\":\"").append("y".repeat(i % 5)).append("\"}]");
+            }
+        }
+        String json = sb.append("}").toString();
+        Path path = file(json);
+        JSONObject expected = JSON.parseObject(json);
+        // members cut by the end of a window are parsed from a mapping starting at the member
+        for (int window : new int[]{48, 64, 100, 1000}) {
+            for (ParseOptions options : OPTIONS) {
+                String message = "window: " + window + ", options: " + options;
+                JSONObject jsonObject = JSONWindowedParser.parseObject(path, options, window);
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(JSON.toJSONString(expected.get("k" + i)), JSON.toJSONString(jsonObject.get("k" + i)), message);
+                }
+                assertEquals("東京xx\"}", jsonObject.getString("k9"), message);
+                //noinspection DataFlowIssue
+                assertEquals("]", jsonObject.getJSONObject("k98").getJSONArray("a").getString(2), message);
+                assertEquals(json, jsonObject.toString(), message);
+            }
+        }
+        assertEquals(json, JSONWindowedParser.parseObject(path, ParseOptions.DEFAULT, JSONWindowedParser.WINDOW).toString());
+    }
+
+    @Test
+    void array() throws IOException {
+        StringBuilder sb = new StringBuilder(" [ ");
+        for (int i = 0; i < 100; i++) {
+            sb.append(i == 0 ? "" : " ,\n").append(i % 3 == 0 ? "{\"id\": " + i + "}" : i % 3 == 1 ? "[\"" + "東".repeat(i % 9) + "\"]" : i + ".5");
+        }
+        String json = sb.append("\n]\n\n").toString();
+        Path path = file(json);
+        for (int window : new int[]{32, 64, 100, 1000}) {
+            for (ParseOptions options : OPTIONS) {
+                String message = "window: " + window + ", options: " + options;
+                JSONArray jsonArray = JSONWindowedParser.parseArray(path, options, window);
+                assertEquals(100, jsonArray.length(), message);
+                //noinspection DataFlowIssue
+                assertEquals(99, jsonArray.getJSONObject(99).getInt("id"), message);
+                //noinspection DataFlowIssue
+                assertEquals("東".repeat(7), jsonArray.getJSONArray(97).getString(0), message);
+                assertEquals(98.5, jsonArray.getDouble(98), message);
+                assertEquals(json.replaceAll("\\s", ""), jsonArray.toString().replaceAll("\\s", ""), message);
+            }
+        }
+        assertEquals("[]", JSONWindowedParser.parseArray(file("[" + " ".repeat(100) + "]"), ParseOptions.DEFAULT, 16).toString());
+    }
+
+    @Test
+    void edits() throws IOException {
+        JSONObject jsonObject = JSONWindowedParser.parseObject(file("{\"a\":[1,2,3],\"b\":\"東京\",\"c\":{\"d\":null}}"), ParseOptions.DEFAULT, 16);
+        assertEquals("{\"a\":[1,2,3],\"c\":{\"d\":null},\"e\":\"x\"}", jsonObject.without("b").with("e", "x").toString());
+        assertEquals("{\"a\":[1,2,3],\"b\":true,\"c\":{\"d\":null}}", jsonObject.with("b", true).toString());
+        assertSame(jsonObject, jsonObject.without("x"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSON.write(jsonObject, out);
+        assertEquals(jsonObject.toString(), out.toString(StandardCharsets.UTF_8));
+        assertEquals("{\"x\":{\"a\":[1,2,3],\"b\":\"東京\",\"c\":{\"d\":null}}}", JSON.parseObject("{\"x\":1}").with("x", jsonObject).toString());
+
+        JSONArray jsonArray = JSONWindowedParser.parseArray(file("[\"a\",{\"b\":1},[2]]"), ParseOptions.DEFAULT, 12);
+        assertEquals("[\"a\",{\"b\":1},[2],3]", jsonArray.with(3).toString());
+        assertEquals("[\"a\",4,[2]]", jsonArray.set(1, 4).toString());
+        assertEquals("[{\"b\":1},[2]]", jsonArray.without(0).toString());
+    }
+
+    @Test
+    void invalid() throws IOException {
+        String padding = "\"" + "x".repeat(20) + "\",";
+        String[] invalid = {
+                "{" + padding.replace(",", ":1,").repeat(5) + "\"a\":tru}",
+                "{" + padding.replace(",", ":1,").repeat(5) + "\"a\" 1}",
+                "[" + padding.repeat(5) + "1 2]",
+                "[" + padding.repeat(5) + "1,]",
+                "[" + padding.repeat(5) + "1]" + " ".repeat(100) + "x",
+                "[" + padding.repeat(5) + "1",
+                "[" + padding.repeat(5) + "{\"a\":1]]",
+                "{}" + " ".repeat(100) + "[]",
+                "1" + " ".repeat(100),
+        };
+        for (String json : invalid) {
+            Path path = file(json);
+            for (ParseOptions options : OPTIONS) {
+                assertThrows(IllegalJSONFormatException.class, () -> JSONWindowedParser.parseArray(path, options, 32), json);
+                assertThrows(IllegalJSONFormatException.class, () -> JSONWindowedParser.parseObject(path, options, 32), json);
+            }
+        }
+        // a value has to fit in a window
+        Path path = file("[1,\"" + "x".repeat(40) + "\"]");
+        assertThrows(IOException.class, () -> JSONWindowedParser.parseArray(path, ParseOptions.DEFAULT, 32));
+        assertEquals(2, JSONWindowedParser.parseArray(path, ParseOptions.DEFAULT, 64).length());
+    }
+
+    /**
+     * @return a new file per case: a mapped file can be neither rewritten nor deleted on some platforms while the mapping is reachable
+     */
+    private static Path file(String json) throws IOException {
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        path.toFile().deleteOnExit();
+        return Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONWriterTest {
+    private static final String DOCUMENT = """
+            {
+              "name": "Yusuke Yamamoto",
+              "street": "東京都\\u4E2D\\u592E\\u533A",
+              "rating" : "👍👍👍",
+              "escaped": "\\"quoted\\"\\n",
+              "height": 1.65e0,
+              "hobbies": [ "programing", "アーチェリー" ],
+              "address": {"zip": "1700012"}
+            }""";
+
+    @Test
+    void verbatim() throws IOException {
+        byte[] utf8 = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+        for (JSONObject jsonObject : new JSONObject[]{JSON.parseObject(DOCUMENT), JSON.parseObject(utf8),
+                JSON.parseObject(DOCUMENT, ParseOptions.TAPE), JSON.parseObject(DOCUMENT, ParseOptions.LAZY)}) {
+            // whitespace, escape sequences and number notation are kept
+            assertEquals(DOCUMENT, JSON.toJSONString(jsonObject));
+            assertArrayEquals(utf8, bytes(jsonObject));
+            //noinspection DataFlowIssue
+            assertEquals("[ \"programing\", \"アーチェリー\" ]", JSON.toJSONString(jsonObject.getJSONArray("hobbies")));
+        }
+    }
+
+    @Test
+    void constructed() throws IOException {
+        JSONObject parsed = JSON.parseObject(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("original", parsed);
+        map.put("address", parsed.getJSONObject("address"));
+        map.put("text", "tab\t\"quote\" back\\slash \u0001 東京 👍 </script>");
+        map.put("numbers", Arrays.asList(1, -2L, 1.5, 2.5f, new BigInteger("123456789012345678901234567890"), new BigDecimal("1E+3")));
+        map.put("booleans", new boolean[]{true, false});
+        map.put("empty", new Object[0]);
+        map.put("null", null);
+        String expected = "{\"original\":" + DOCUMENT + ",\"address\":{\"zip\": \"1700012\"}"
+                + ",\"text\":\"tab\\t\\\"quote\\\" back\\\\slash \\u0001 東京 👍 </script>\""
+                + ",\"numbers\":[1,-2,1.5,2.5,123456789012345678901234567890,1E+3],\"booleans\":[true,false],\"empty\":[],\"null\":null}";
+        assertEquals(expected, JSON.toJSONString(map));
+        StringWriter writer = new StringWriter();
+        JSON.write(map, writer);
+        assertEquals(expected, writer.toString());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), bytes(map));
+
+        // parses back to the same values
+        JSONObject reparsed = JSON.parseObject(expected);
+        assertEquals(map.get("text"), reparsed.getString("text"));
+        //noinspection DataFlowIssue
+        assertEquals("東京都中央区", reparsed.getJSONObject("original").getString("street"));
+    }
+
+    @Test
+    void largeAndMapped() throws IOException {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            sb.append(i == 0 ? "" : ", ").append("{\"id\": ").append(i).append(", \"name\": \"名前").append(i).append("\"}");
+        }
+        String json = sb.append(']').toString();
+        byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+        Path path = Files.createTempFile("jsonicboom", ".json");
+        try {
+            Files.write(path, utf8);
+            for (JSONArray jsonArray : new JSONArray[]{JSON.parseArray(json), JSON.parseArray(utf8), JSON.parseArray(path)}) {
+                assertArrayEquals(utf8, bytes(jsonArray));
+                assertEquals(json, JSON.toJSONString(jsonArray));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void unsupported() {
+        assertThrows(IllegalArgumentException.class, () -> JSON.toJSONString(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> JSON.toJSONString(Float.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> JSON.toJSONString(new Object()));
+        // an unpaired surrogate is replaced as String.getBytes does
+        assertArrayEquals("\"?\"".getBytes(StandardCharsets.UTF_8), assertDoesNotThrow(() -> bytes("\uD800")));
+    }
+
+    private static byte[] bytes(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSON.write(value, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionTest {
+    private static final String JSON_TEXT = """
+            {"id": 42, "name": "jsonic", "secret": {"token": "x", "nested": [1, [2, {"a": "]"}]]},
+             "user": {"name": "東京", "address": {"city": "Tokyo", "zip": "100"}, "age": 30},
+             "items": [{"price": 1.5, "sku": "a"}, {"sku": "b"}, 3, [{"price": 2}]],
+             "k\\u0065y": true, "tags": ["x", "y"]}""";
+
+    @Test
+    void keepsProjectedFields() {
+        Projection projection = Projection.of("id", "user.address.city", "user.name", "items.price", "key", "tags");
+        for (JSONObject object : new JSONObject[]{JSON.parseObject(JSON_TEXT, projection),
+                JSON.parseObject(JSON_TEXT.getBytes(StandardCharsets.UTF_8), projection),
+                JSON.parseObject(JSON_TEXT, projection.withoutValidation())}) {
+            assertEquals(42, object.getInt("id"));
+            assertFalse(object.has("name"));
+            assertFalse(object.has("secret"));
+            JSONObject user = object.getJSONObject("user");
+            assertEquals("東京", user.getString("name"));
+            assertFalse(user.has("age"));
+            assertEquals("Tokyo", user.getJSONObject("address").getString("city"));
+            assertFalse(user.getJSONObject("address").has("zip"));
+            JSONArray items = object.getJSONArray("items");
+            assertEquals(4, items.length());
+            assertEquals(1.5, items.getJSONObject(0).getDouble("price"));
+            assertFalse(items.getJSONObject(0).has("sku"));
+            assertFalse(items.getJSONObject(1).has("sku"));
+            assertEquals(3, items.getInt(2));
+            assertEquals(2, items.getJSONArray(3).getJSONObject(0).getInt("price"));
+            assertTrue(object.getBoolean("key"));
+            assertEquals("y", object.getJSONArray("tags").getString(1));
+            // the original text
+            assertEquals(JSON_TEXT, object.toString());
+            assertEquals(JSON_TEXT, JSON.toJSONString(object));
+        }
+    }
+
+    @Test
+    void edits() {
+        Projection projection = Projection.of("user", "n.x");
+        String json = "{\"user\":\"u\",\"password\":\"secret\",\"n\":{\"x\":1,\"y\":2}}";
+        for (JSONObject object : new JSONObject[]{JSON.parseObject(json, projection),
+                JSON.parseObject(json.getBytes(StandardCharsets.UTF_8), projection)}) {
+            JSONObject masked = object.with("password", "***");
+            assertEquals("{\"user\":\"u\",\"password\":\"***\",\"n\":{\"x\":1,\"y\":2}}", masked.toString());
+            assertEquals("***", masked.getString("password"));
+            assertEquals("u", masked.getString("user"));
+            assertEquals(1, masked.getJSONObject("n").getInt("x"));
+
+            JSONObject removed = object.without("password");
+            assertEquals("{\"user\":\"u\",\"n\":{\"x\":1,\"y\":2}}", removed.toString());
+            assertFalse(removed.toString().contains("secret"));
+            assertEquals(1, removed.getJSONObject("n").getInt("x"));
+
+            JSONObject n = object.getJSONObject("n");
+            assertEquals("{\"x\":1,\"y\":5}", n.with("y", 5).toString());
+            assertEquals(5, n.with("y", 5).getInt("y"));
+            assertEquals("{\"x\":1}", n.without("y").toString());
+            assertEquals("{\"x\":1,\"y\":2,\"z\":3}", n.with("z", 3).toString());
+            assertEquals("{\"y\":2}", n.without("x").toString());
+        }
+    }
+
+    @Test
+    void wholeValue() {
+        // "user" keeps all of it, "user.name" adds nothing
+        JSONObject object = JSON.parseObject(JSON_TEXT, Projection.of("user.name", "user"));
+        assertEquals(30, object.getJSONObject("user").getInt("age"));
+        assertEquals("100", object.getJSONObject("user").getJSONObject("address").getString("zip"));
+        assertEquals("Projection[user]", Projection.of("user", "user.name").toString());
+        assertEquals("Projection[a.b, a.c, d] without validation", Projection.of("a.b", "a.c", "d").withoutValidation().toString());
+    }
+
+    @Test
+    void validation() {
+        String invalid = "{\"id\": 1, \"skipped\": [1 2], \"other\": {\"a\" 1}}";
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject(invalid, Projection.of("id")));
+        assertEquals(1, JSON.parseObject(invalid, Projection.of("id").withoutValidation()).getInt("id"));
+        // kept values and the structure around them are still validated
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"id\": [1 2]}", Projection.of("id").withoutValidation()));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"id\": 1, \"x\": [}", Projection.of("id").withoutValidation()));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("{\"id\": 1} 2", Projection.of("id")));
+        assertThrows(IllegalJSONFormatException.class, () -> JSON.parseObject("[1]", Projection.of("id")));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of(""));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Yusuke Yamamoto
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package one.cafebabe.jsonicboom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void sharedKeys() {
+        SymbolTable symbols = new SymbolTable();
+        String key1 = firstKey(JSONSource.of("{\"status\": 1}"), symbols);
+        byte[] utf8 = "{\"status\": 2}".getBytes(StandardCharsets.UTF_8);
+        String key2 = firstKey(JSONSource.of(utf8, 0, utf8.length), symbols);
+        assertEquals("status", key1);
+        assertSame(key1, key2);
+        // the same key escaped is an entry of its own
+        String escaped = firstKey(JSONSource.of("{\"st\\u0061tus\": 3}"), symbols);
+        assertEquals("status", escaped);
+        assertSame(escaped, firstKey(JSONSource.of("{\"st\\u0061tus\": 4}"), symbols));
+        assertNotSame(firstKey(JSONSource.of("{\"status\": 1}"), null), firstKey(JSONSource.of("{\"status\": 1}"), null));
+    }
+
+    @Test
+    void sharedValues() {
+        ParseOptions options = ParseOptions.DEFAULT.withSymbolTable(new SymbolTable(1024, 8));
+        for (ParseOptions modes : new ParseOptions[]{options, ParseOptions.TAPE.withSymbolTable(new SymbolTable(1024, 8)),
+                ParseOptions.LAZY.withSymbolTable(new SymbolTable(1024, 8))}) {
+            JSONObject first = JSON.parseObject("{\"status\": \"ok\", \"message\": \"long enough\", \"list\": [\"ok\"]}", modes);
+            JSONObject second = JSON.parseObject("{\"message\": \"long enough\", \"status\": \"ok\", \"list\": [\"ok\"]}", modes);
+            assertSame(first.getString("status"), second.getString("status"), modes.toString());
+            assertSame(first.getString("status"), second.getJSONArray("list").getString(0), modes.toString());
+            assertEquals(first.getString("message"), second.getString("message"));
+            assertNotSame(first.getString("message"), second.getString("message"), modes.toString());
+        }
+    }
+
+    @Test
+    void bounded() {
+        SymbolTable symbols = new SymbolTable(2, 100);
+        ParseOptions options = ParseOptions.DEFAULT.withSymbolTable(symbols);
+        for (int i = 0; i < 1000; i++) {
+            JSONObject jsonObject = JSON.parseObject("{\"key" + i + "\": \"value" + i + "\", \"é\\n" + i + "\": \"" + (i % 3) + "\"}", options);
+            assertEquals("value" + i, jsonObject.getString("key" + i));
+            assertEquals(String.valueOf(i % 3), jsonObject.getString("é\n" + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SymbolTable(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SymbolTable(16, -1));
+    }
+
+    @Test
+    void sharedAcrossThreads() {
+        ParseOptions options = ParseOptions.DEFAULT.withSymbolTable(new SymbolTable(64, 16));
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            JSONObject jsonObject = JSON.parseObject("{\"id\": " + i + ", \"name" + (i % 100) + "\": \"v" + (i % 50) + "\"}", options);
+            assertEquals(i, jsonObject.getInt("id"));
+            assertEquals("v" + (i % 50), jsonObject.getString("name" + (i % 100)));
+        });
+    }
+
+    private static String firstKey(JSONSource source, SymbolTable symbols) {
+        JSONTokenizer tokenizer = new JSONTokenizer(source, 0, symbols);
+        tokenizer.next();
+        return tokenizer.next().getValue();
+    }
+}